@@ -4,13 +4,36 @@ CREATE TABLE IF NOT EXISTS blog(
 	writer varchar(16) not null,
 	blog_title varchar(200) not null,
 	blog_content varchar(4000) not null,
-	published_at datetime default now(),
-	updated_at datetime default now(),
-	blog_count int default 0
+	published_at datetime(3) default now(3),
+	updated_at datetime(3) default now(3),
+	blog_count int default 0,
+	reply_count int not null default 0,
+	deleted_at datetime default null,
+	body_stored boolean not null default false
 );
 
+# 글마다 삭제되지 않은 댓글 수를 미리 세어두는 컬럼(목록에서 댓글 수를 보여줄 때 COUNT(*)를 하지 않기 위함)
+# 댓글 저장, 삭제와 같은 트랜잭션에서 증감하고, 어긋난 값은 주기적으로 다시 맞춘다
+# 기존 테이블에는 아래 구문으로 컬럼을 추가한다
+# alter table blog add column reply_count int not null default 0;
+
+# 수정시각은 상세페이지 ETag에 들어가므로 1초 안에 두 번 고쳐도 ETag가 바뀌도록 밀리초까지 저장한다
+# 기존 테이블에는 아래 구문으로 컬럼을 바꾼다
+# alter table blog modify published_at datetime(3) default now(3), modify updated_at datetime(3) default now(3);
+
+# 글 삭제는 deleted_at에 삭제시각만 기록하고 바로 응답한다(조회, 목록에서는 바로 빠진다)
+# 댓글과 글 행은 BlogPurgeServiceImpl이 나중에 조금씩 나눠서 실제로 지운다
+# 기존 테이블에는 아래 구문으로 컬럼을 추가한다
+# alter table blog add column deleted_at datetime default null;
+# 지워야 할 글을 찾기 위한 인덱스
+create index idx_blog_deleted_at on blog (deleted_at);
+
+# 본문이 길어서 blog_content에는 앞부분만 있고 전체는 blog_body 테이블(blog_body.sql)에 있는 글인지 여부
+# 기존 테이블에는 아래 구문으로 컬럼을 추가한다
+# alter table blog add column body_stored boolean not null default false;
+
 # 더미데이터 입력용 구문
-INSERT INTO blog VALUES
+INSERT INTO blog (blog_id, writer, blog_title, blog_content, published_at, updated_at, blog_count) VALUES
 	(null, '1번유저', '1번제목', '1번본문', now(), now(), null),
 	(null, '2번유저', '2번제목', '2번본문', now(), now(), null),
 	(null, '3번유저', '3번제목', '3번본문', now(), now(), null);
\ No newline at end of file
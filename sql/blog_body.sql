@@ -0,0 +1,12 @@
+## 긴 글 본문 테이블 설정
+# blog.blog_content에는 앞부분(blog.content.inline-max-length 글자)만 남기고, 그보다 긴 본문 전체는 여기에 따로 저장한다
+# 목록이나 글 단건 조회가 blog 행을 읽을 때 긴 본문까지 버퍼풀에 올리지 않기 위함이다
+# codec은 body를 담은 방식(NONE: UTF-8 그대로, DEFLATE: 압축), raw_length는 풀었을 때의 글자 수
+# 글 행은 BlogPurgeServiceImpl이 이 행을 먼저 지운 뒤에 지운다
+CREATE TABLE IF NOT EXISTS blog_body(
+	blog_id int primary key,
+	codec varchar(10) not null,
+	raw_length int not null,
+	body mediumblob not null,
+	constraint fk_blog_body foreign key (blog_id) references blog(blog_id)
+);
@@ -0,0 +1,14 @@
+## 글 본문을 변환한 HTML 테이블 설정
+# 글을 저장, 수정할 때 본문(Markdown)을 한 번만 HTML로 변환해서 저장해두고, 상세페이지는 변환 없이 이 HTML을 그대로 출력한다
+# renderer_version은 변환한 MarkdownRenderer.VERSION, 현재 버전과 다르면 조회될 때 백그라운드에서 다시 변환한다
+# codec, raw_length는 blog_body와 같다(html을 담은 방식, 풀었을 때의 글자 수)
+# 이 기능 전에 저장된 글은 행이 없고, 처음 조회될 때 변환해서 저장한다
+# 글 행은 BlogPurgeServiceImpl이 이 행을 먼저 지운 뒤에 지운다
+CREATE TABLE IF NOT EXISTS blog_html(
+	blog_id int primary key,
+	renderer_version int not null,
+	codec varchar(10) not null,
+	raw_length int not null,
+	html mediumblob not null,
+	constraint fk_blog_html foreign key (blog_id) references blog(blog_id)
+);
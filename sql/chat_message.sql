@@ -0,0 +1,12 @@
+## 채팅 메세지 테이블 설정
+# 글번호(채팅방)마다 1부터 매기는 메세지 번호(seq)와 글번호를 묶어서 기본키로 쓴다
+# 최근 메세지는 서버 메모리(링버퍼)에 있으므로 이 테이블은 서버가 다시 뜨거나 채팅방이 다시 열릴 때만 읽는다
+# 글이 삭제되어도 대화 기록은 남기기 위해 외래키는 걸지 않는다
+CREATE TABLE IF NOT EXISTS chat_message(
+	blog_id int not null,
+	seq bigint not null,
+	sender varchar(40) not null,
+	content varchar(500) not null,
+	sent_at datetime(3) not null,
+	primary key (blog_id, seq)
+);
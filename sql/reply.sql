@@ -4,16 +4,35 @@ CREATE TABLE reply(
     blog_id int not null,
     reply_writer varchar(40) not null,
     reply_content varchar(200) not null,
-    published_at datetime default now(),
-    updated_at datetime default now()
+    published_at datetime(3) default now(3),
+    updated_at datetime(3) default now(3),
+    deleted_at datetime default null
 );
+# 댓글 목록과 상세페이지의 ETag에 가장 최근 수정시각이 들어가므로 1초 안에 고친 댓글도 구분되도록 밀리초까지 저장한다
+# 기존 테이블에는 아래 구문으로 컬럼을 바꾼다
+# alter table reply modify published_at datetime(3) default now(3), modify updated_at datetime(3) default now(3);
 # 외래키 설정(트래픽을 잘 버틸 수 있게)
 # blog_id에는 기존에 존재하는 글의 blog_id만 들어가야 한다.
 alter table reply add constraint fk_reply foreign key (blog_id) references blog(blog_id);
 
+# 글번호별 댓글을 댓글번호 순서로 나눠서 가져오기 위한 인덱스(커서 방식 조회용)
+create index idx_reply_blog_id_reply_id on reply (blog_id, reply_id);
+
+# 삭제된 댓글은 deleted_at에 삭제시각을 기록하는 방식(툼스톤)으로 처리한다
+# 기존 테이블에는 아래 구문으로 컬럼을 추가한다
+# alter table reply add column deleted_at datetime default null;
+# 글번호별로 특정 시각 이후에 바뀐 댓글만 가져오기 위한 인덱스(변경분 동기화용)
+create index idx_reply_blog_id_updated_at on reply (blog_id, updated_at);
+# 오래된 툼스톤 댓글을 정리(purgeDeletedReplies)할 때 지울 댓글을 찾기 위한 인덱스
+create index idx_reply_deleted_at on reply (deleted_at);
+
 # 더미 데이터 입력(테스트 DB에서만 사용합니다.)
-INSERT INTO reply VALUES(null, 2, "댓글쓴이", "1빠댓글", now(), now()),
+INSERT INTO reply (reply_id, blog_id, reply_writer, reply_content, published_at, updated_at)
+VALUES(null, 2, "댓글쓴이", "1빠댓글", now(), now()),
 (null, 2, "미미", "2빠댓글", now(), now()),
 (null, 2, "릴리", "3빠댓글", now(), now()),
 (null, 2, "슈슈", "4빠댓글", now(), now()),
-(null, 3, "개발고수", "1빠댓글", now(), now());
\ No newline at end of file
+(null, 3, "개발고수", "1빠댓글", now(), now());
+
+# 더미 댓글 수를 글의 reply_count에 반영
+UPDATE blog SET reply_count = (SELECT COUNT(*) FROM reply WHERE reply.blog_id = blog.blog_id AND reply.deleted_at IS NULL);
\ No newline at end of file
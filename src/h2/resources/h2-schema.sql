@@ -0,0 +1,51 @@
+-- 벤치마크(jmh)와 부하 테스트(loadtest)가 함께 쓰는 H2(MySQL 호환 모드)용 테이블 생성 구문
+-- sql 폴더의 테이블 구문을 바꾸면 여기에도 같이 반영한다
+CREATE TABLE IF NOT EXISTS blog(
+    blog_id int auto_increment primary key,
+    writer varchar(16) not null,
+    blog_title varchar(200) not null,
+    blog_content varchar(4000) not null,
+    published_at datetime(3) default now(3),
+    updated_at datetime(3) default now(3),
+    blog_count int default 0,
+    reply_count int not null default 0,
+    deleted_at datetime default null,
+    body_stored boolean not null default false
+);
+CREATE INDEX IF NOT EXISTS idx_blog_deleted_at on blog (deleted_at);
+CREATE TABLE IF NOT EXISTS reply(
+    reply_id int primary key auto_increment,
+    blog_id int not null,
+    reply_writer varchar(40) not null,
+    reply_content varchar(200) not null,
+    published_at datetime(3) default now(3),
+    updated_at datetime(3) default now(3),
+    deleted_at datetime default null,
+    constraint fk_reply foreign key (blog_id) references blog(blog_id)
+);
+CREATE INDEX IF NOT EXISTS idx_reply_blog_id_reply_id on reply (blog_id, reply_id);
+CREATE INDEX IF NOT EXISTS idx_reply_blog_id_updated_at on reply (blog_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_reply_deleted_at on reply (deleted_at);
+CREATE TABLE IF NOT EXISTS blog_body(
+    blog_id int primary key,
+    codec varchar(10) not null,
+    raw_length int not null,
+    body mediumblob not null,
+    constraint fk_blog_body foreign key (blog_id) references blog(blog_id)
+);
+CREATE TABLE IF NOT EXISTS blog_html(
+    blog_id int primary key,
+    renderer_version int not null,
+    codec varchar(10) not null,
+    raw_length int not null,
+    html mediumblob not null,
+    constraint fk_blog_html foreign key (blog_id) references blog(blog_id)
+);
+CREATE TABLE IF NOT EXISTS chat_message(
+    blog_id int not null,
+    seq bigint not null,
+    sender varchar(40) not null,
+    content varchar(500) not null,
+    sent_at datetime(3) not null,
+    primary key (blog_id, seq)
+);
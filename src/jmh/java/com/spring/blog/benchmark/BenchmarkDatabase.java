@@ -0,0 +1,96 @@
+package com.spring.blog.benchmark;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// 벤치마크용 H2 메모리 DB(MySQL 호환 모드)와, 애플리케이션과 같은 매퍼 XML을 읽어들인 SqlSessionFactory를 만든다
+// 스프링 컨텍스트를 띄우지 않으므로 MySQL 없이 매핑, 서비스 경로만 측정할 수 있다
+final class BenchmarkDatabase {
+
+    private static final String[] MAPPERS = {
+            "mybatis/mapper/BlogMapper.xml",
+            "mybatis/mapper/BlogHtmlMapper.xml",
+            "mybatis/mapper/ReplyMapper.xml"
+    };
+
+    private BenchmarkDatabase(){
+    }
+
+    // 이름마다 별도의 DB를 만들고 글 blogs개, 글마다 댓글 repliesPerBlog개를 넣는다
+    static SqlSessionFactory create(String name, int blogs, int repliesPerBlog) throws IOException, SQLException {
+        PooledDataSource dataSource = new PooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        Configuration configuration = new Configuration(
+                new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        for(String mapper : MAPPERS){
+            try(InputStream in = Resources.getResourceAsStream(mapper)){
+                new XMLMapperBuilder(in, configuration, mapper, configuration.getSqlFragments()).parse();
+            }
+        }
+
+        try(Connection connection = dataSource.getConnection()){
+            createTables(connection);
+            insertRows(connection, blogs, repliesPerBlog);
+        }
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    private static void createTables(Connection connection) throws IOException, SQLException {
+        String schema;
+        try(InputStream in = Resources.getResourceAsStream("h2-schema.sql")){
+            schema = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try(Statement statement = connection.createStatement()){
+            for(String sql : schema.split(";")){
+                if(!sql.isBlank()){
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    private static void insertRows(Connection connection, int blogs, int repliesPerBlog) throws SQLException {
+        connection.setAutoCommit(false);
+        try(PreparedStatement blog = connection.prepareStatement(
+                    "INSERT INTO blog (writer, blog_title, blog_content) VALUES (?, ?, ?)");
+            PreparedStatement reply = connection.prepareStatement(
+                    "INSERT INTO reply (blog_id, reply_writer, reply_content) VALUES (?, ?, ?)")){
+            for(int i = 1; i <= blogs; i++){
+                blog.setString(1, i + "번유저");
+                blog.setString(2, i + "번제목");
+                blog.setString(3, (i + "번본문 ").repeat(100));
+                blog.addBatch();
+            }
+            blog.executeBatch();
+            for(int i = 1; i <= blogs; i++){
+                for(int j = 1; j <= repliesPerBlog; j++){
+                    reply.setInt(1, i);
+                    reply.setString(2, "댓글쓴이" + j);
+                    reply.setString(3, j + "번째 댓글입니다.");
+                    reply.addBatch();
+                }
+                reply.executeBatch();
+            }
+        }
+        // 댓글을 직접 넣었으므로 글마다 미리 세어두는 댓글 수도 맞춰준다
+        try(Statement statement = connection.createStatement()){
+            statement.executeUpdate("UPDATE blog SET reply_count = " + repliesPerBlog);
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+}
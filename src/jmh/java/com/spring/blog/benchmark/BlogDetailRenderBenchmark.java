@@ -0,0 +1,79 @@
+package com.spring.blog.benchmark;
+
+import com.spring.blog.content.BodyCodec;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogHtml;
+import com.spring.blog.markdown.MarkdownRenderer;
+import com.spring.blog.repository.BlogHtmlRepository;
+import com.spring.blog.repository.BlogRepository;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// 상세페이지 본문 한 번을 그리는 데 걸리는 시간(H2 메모리 DB, MySQL 호환 모드)
+// renderOnView: 글을 읽고 조회할 때마다 Markdown을 변환(변환해두지 않는 경우)
+// preRendered: 글을 읽고 저장할 때 변환해둔 HTML(blog_html)을 읽어서 그대로 출력(캐시에 없는 경우)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlogDetailRenderBenchmark {
+
+    private static final long BLOG_ID = 1;
+
+    // 본문 글자 수(blog_content 컬럼에 그대로 들어가는 길이)
+    @Param({"500", "3500"})
+    int length;
+
+    SqlSession session;
+
+    BlogRepository blogRepository;
+
+    BlogHtmlRepository blogHtmlRepository;
+
+    MarkdownRenderer renderer;
+
+    @Setup
+    public void setUp() throws Exception {
+        SqlSessionFactory factory = BenchmarkDatabase.create("blog-detail-render-" + length, 10, 0);
+        session = factory.openSession(true);
+        blogRepository = session.getMapper(BlogRepository.class);
+        blogHtmlRepository = session.getMapper(BlogHtmlRepository.class);
+        renderer = new MarkdownRenderer();
+
+        // 애플리케이션이 글을 저장할 때처럼 본문과 변환한 HTML을 함께 저장해둔다
+        String markdown = MarkdownRenderBenchmark.sample(length);
+        blogRepository.update(Blog.builder().blogId(BLOG_ID).blogTitle("벤치마크").blogContent(markdown).build());
+        String html = renderer.render(markdown);
+        BodyCodec.Encoded encoded = BodyCodec.encode(html.getBytes(StandardCharsets.UTF_8), 4096);
+        blogHtmlRepository.save(BlogHtml.builder()
+                .blogId(BLOG_ID)
+                .rendererVersion(MarkdownRenderer.VERSION)
+                .codec(encoded.getCodec())
+                .rawLength(html.length())
+                .html(encoded.getBody())
+                .build());
+    }
+
+    @TearDown
+    public void tearDown(){
+        session.close();
+    }
+
+    @Benchmark
+    public String renderOnView(){
+        session.clearCache(); // 세션 캐시를 비워서 매번 실제로 조회, 매핑하게 한다
+        Blog blog = blogRepository.findById(BLOG_ID);
+        return renderer.render(blog.getBlogContent());
+    }
+
+    @Benchmark
+    public String preRendered(){
+        session.clearCache();
+        blogRepository.findById(BLOG_ID);
+        BlogHtml row = blogHtmlRepository.findById(BLOG_ID);
+        return row.getCodec().decode(row.getHtml(), row.getRawLength());
+    }
+}
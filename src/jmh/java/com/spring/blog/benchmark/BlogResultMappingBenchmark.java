@@ -0,0 +1,64 @@
+package com.spring.blog.benchmark;
+
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogSummary;
+import com.spring.blog.repository.BlogRepository;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// BlogMapper.xml의 조회 결과를 Blog 엔터티로 매핑하는 비용(H2 메모리 DB, MySQL 호환 모드)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlogResultMappingBenchmark {
+
+    @Param({"10", "1000"})
+    int blogs;
+
+    SqlSession session;
+
+    BlogRepository blogRepository;
+
+    @Setup
+    public void setUp() throws Exception {
+        SqlSessionFactory factory = BenchmarkDatabase.create("blog-mapping-" + blogs, blogs, 0);
+        session = factory.openSession();
+        blogRepository = session.getMapper(BlogRepository.class);
+    }
+
+    @TearDown
+    public void tearDown(){
+        session.close();
+    }
+
+    // 전체 조회(글 수만큼 매핑)
+    @Benchmark
+    public List<Blog> findAll(){
+        session.clearCache(); // 세션 캐시를 비워서 매번 실제로 조회, 매핑하게 한다
+        return blogRepository.findAll();
+    }
+
+    // 한 페이지(10개) 조회, 본문 없이 BlogSummary로 매핑
+    @Benchmark
+    public List<BlogSummary> findPage(){
+        session.clearCache();
+        return blogRepository.findPage(0, 10, 0);
+    }
+
+    // 한 페이지(10개) 조회, 본문 앞 100자 포함
+    @Benchmark
+    public List<BlogSummary> findPageWithExcerpt(){
+        session.clearCache();
+        return blogRepository.findPage(0, 10, 100);
+    }
+
+    @Benchmark
+    public Blog findById(){
+        session.clearCache();
+        return blogRepository.findById(1);
+    }
+}
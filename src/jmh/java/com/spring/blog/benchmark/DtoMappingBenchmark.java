@@ -0,0 +1,54 @@
+package com.spring.blog.benchmark;
+
+import com.spring.blog.dto.ReplyCreateRequestDTO;
+import com.spring.blog.dto.ReplyResponseDTO;
+import com.spring.blog.entity.Reply;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// 엔터티 -> DTO 변환 생성자(new ReplyResponseDTO(Reply) 등)의 비용
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+
+    Reply reply;
+
+    @Setup
+    public void setUp(){
+        LocalDateTime now = LocalDateTime.now();
+        reply = Reply.builder()
+                .replyId(1)
+                .blogId(2)
+                .replyWriter("댓글쓴이")
+                .replyContent("1빠댓글")
+                .publishedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public ReplyResponseDTO toReplyResponseDTO(){
+        return new ReplyResponseDTO(reply);
+    }
+
+    @Benchmark
+    public ReplyCreateRequestDTO toReplyCreateRequestDTO(){
+        return new ReplyCreateRequestDTO(reply);
+    }
+
+    // 빌더를 거치는 경우와 비교
+    @Benchmark
+    public void builder(Blackhole blackhole){
+        blackhole.consume(ReplyResponseDTO.builder()
+                .replyId(reply.getReplyId())
+                .replyWriter(reply.getReplyWriter())
+                .replyContent(reply.getReplyContent())
+                .publishedAt(reply.getPublishedAt())
+                .updatedAt(reply.getUpdatedAt())
+                .build());
+    }
+}
@@ -0,0 +1,48 @@
+package com.spring.blog.benchmark;
+
+import com.spring.blog.markdown.MarkdownRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// 본문(Markdown) 하나를 HTML로 변환하는 처리량(초당 변환 횟수)
+// 조회할 때마다 변환한다면 상세페이지 조회 한 번마다 이만큼의 CPU를 쓰게 된다
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MarkdownRenderBenchmark {
+
+    // 본문 글자 수(보통 글, 긴 글)
+    @Param({"2000", "100000"})
+    int length;
+
+    MarkdownRenderer renderer;
+
+    String markdown;
+
+    @Setup
+    public void setUp(){
+        renderer = new MarkdownRenderer();
+        markdown = sample(length);
+    }
+
+    @Benchmark
+    public String render(){
+        return renderer.render(markdown);
+    }
+
+    // 제목, 강조, 목록, 링크, 코드 블록이 섞인 본문을 length 글자만큼 만든다
+    static String sample(int length){
+        StringBuilder markdown = new StringBuilder(length + 256);
+        int section = 1;
+        while(markdown.length() < length){
+            markdown.append("## ").append(section).append("번째 문단\n\n")
+                    .append("본문에는 **굵은 글씨**와 *기울인 글씨*, `코드`가 섞여 있고 ")
+                    .append("[링크](https://example.com/posts/").append(section).append(")도 있습니다.\n\n")
+                    .append("- 첫번째 항목\n- 두번째 항목\n- 세번째 항목\n\n")
+                    .append("```java\nSystem.out.println(\"").append(section).append("\");\n```\n\n");
+            section++;
+        }
+        return markdown.substring(0, length);
+    }
+}
@@ -0,0 +1,41 @@
+package com.spring.blog.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.spring.blog.dto.ReplyResponseDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// /reply/{blogId}/all 응답처럼 List<ReplyResponseDTO>를 JSON으로 직렬화하는 비용
+// 스프링이 쓰는 것과 같은 설정(JavaTimeModule, 날짜를 문자열로)의 ObjectMapper를 사용한다
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReplySerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int size;
+
+    ObjectWriter writer;
+
+    List<ReplyResponseDTO> replies;
+
+    @Setup
+    public void setUp(){
+        writer = Jackson2ObjectMapperBuilder.json().build().writerFor(List.class);
+        LocalDateTime now = LocalDateTime.now();
+        replies = new ArrayList<>(size);
+        for(int i = 1; i <= size; i++){
+            replies.add(new ReplyResponseDTO(i, "댓글쓴이" + i, i + "번째 댓글입니다.", now, now));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(replies);
+    }
+}
@@ -0,0 +1,38 @@
+package com.spring.blog.benchmark;
+
+import com.spring.blog.dto.ReplyResponseDTO;
+import com.spring.blog.repository.BlogRepository;
+import com.spring.blog.repository.ReplyRepository;
+import com.spring.blog.service.ReplyService;
+import com.spring.blog.service.ReplyServiceImpl;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ReplyServiceImpl.findAllByBlogId()의 전체 경로(서비스 -> 매퍼 프록시 -> SQL 실행 -> DTO 매핑) 비용
+// 호출마다 세션(연결)을 새로 여는 것까지 포함된다
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReplyServiceBenchmark {
+
+    @Param({"4", "100", "1000"})
+    int repliesPerBlog;
+
+    ReplyService replyService;
+
+    @Setup
+    public void setUp() throws Exception {
+        SqlSessionManager sessionManager = SqlSessionManager.newInstance(
+                BenchmarkDatabase.create("reply-service-" + repliesPerBlog, 3, repliesPerBlog));
+        replyService = new ReplyServiceImpl(sessionManager.getMapper(ReplyRepository.class),
+                sessionManager.getMapper(BlogRepository.class), event -> {});
+    }
+
+    @Benchmark
+    public List<ReplyResponseDTO> findAllByBlogId(){
+        return replyService.findAllByBlogId(2);
+    }
+}
@@ -0,0 +1,188 @@
+package com.spring.blog.loadtest;
+
+import com.spring.blog.BlogApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+// 채팅방 하나에 구독자(SSE 연결)를 subscribers개 붙여두고 초당 rate개의 메세지를 보내서
+// 보낸 시점부터 각 구독자가 받기까지의 지연시간(p50, p99, max)과 전달률, 버려진 이벤트(resync) 수를 측정한다
+// 메세지 내용에 보낸 시각(System.nanoTime)을 담고 받는 쪽도 같은 JVM이므로 시계를 맞출 필요가 없다
+// 시스템 프로퍼티 baseUrl이 없으면 loadtest 프로필(H2 메모리 DB)로 서버를 직접 띄우고 글 하나를 넣는다
+//   subscribers: 측정할 구독자 수(쉼표로 여러 단계, 기본 "1000,10000"), rate: 초당 메세지 수, durationSeconds: 측정 시간
+// 연결 하나마다 클라이언트, 서버 소켓이 각각 필요하므로 구독자 수의 두 배 이상으로 ulimit -n 을 올려두어야 한다
+public class ChatFanOutBenchmark {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    public static void main(String[] args) throws Exception {
+        int[] levels = Arrays.stream(System.getProperty("subscribers", "1000,10000").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim())).toArray();
+        int rate = Integer.getInteger("rate", 20);
+        Duration duration = Duration.ofSeconds(Long.getLong("durationSeconds", 30));
+        long blogId = Long.getLong("blogId", 1);
+
+        String baseUrl = System.getProperty("baseUrl");
+        ConfigurableApplicationContext context = null;
+        if(baseUrl == null || baseUrl.isBlank()){
+            SpringApplication application = new SpringApplication(BlogApplication.class);
+            application.setAdditionalProfiles("loadtest");
+            // 설정된 최대 연결 수(application.yml의 server.tomcat.max-connections)와 채팅 구독자 수
+            // (blog.chat.max-subscribers)로는 구독자를 다 붙일 수 없으므로 측정할 가장 큰 구독자 수에 맞춰 늘려서 띄운다
+            int maxSubscribers = Arrays.stream(levels).max().orElse(0);
+            List<String> appArgs = new ArrayList<>(Arrays.asList(args));
+            appArgs.add("--blog.chat.max-subscribers=" + maxSubscribers);
+            appArgs.add("--server.tomcat.max-connections=" + (maxSubscribers + 1000));
+            context = application.run(appArgs.toArray(new String[0]));
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            new LoadTestSeeder(context.getBean(DataSource.class)).seed(1, 0, 100);
+        }
+
+        try {
+            List<Result> results = new ArrayList<>();
+            for(int level : levels){
+                System.out.printf("구독자 %d명, 초당 %d개, 측정 %ds, 대상 %s/chat/%d%n",
+                        level, rate, duration.toSeconds(), baseUrl, blogId);
+                results.add(run(baseUrl, blogId, level, rate, duration));
+            }
+
+            System.out.printf("%n%12s %10s %12s %12s %8s %10s %10s %10s%n", "subscribers", "sent/s",
+                    "delivered", "expected", "resyncs", "p50(ms)", "p99(ms)", "max(ms)");
+            for(Result result : results){
+                System.out.printf("%12d %10.1f %12d %12d %8d %10.2f %10.2f %10.2f%n", result.subscribers,
+                        result.sent / (result.elapsedNanos / 1_000_000_000.0), result.delivered,
+                        result.sent * result.subscribers, result.resyncs,
+                        result.histogram.getValueAtPercentile(50) / 1000.0,
+                        result.histogram.getValueAtPercentile(99) / 1000.0,
+                        result.histogram.getMaxValue() / 1000.0);
+            }
+        } finally {
+            if(context != null){
+                context.close();
+            }
+        }
+    }
+
+    private static Result run(String baseUrl, long blogId, int subscribers, int rate, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest streamRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/chat/" + blogId + "/stream")).GET().build();
+        URI sendUri = URI.create(baseUrl + "/chat/" + blogId + "/messages");
+
+        Recorder recorder = new Recorder(1, HIGHEST_TRACKABLE_MICROS, 3);
+        LongAdder delivered = new LongAdder();
+        LongAdder resyncs = new LongAdder();
+        LongAdder failedConnections = new LongAdder();
+        CountDownLatch connected = new CountDownLatch(subscribers);
+        List<Stream<String>> streams = new ArrayList<>();
+
+        try(ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()){
+            // 구독자마다 가상 스레드 하나가 SSE 줄을 읽는다
+            for(int i = 0; i < subscribers; i++){
+                readers.submit(() -> {
+                    Stream<String> lines;
+                    try {
+                        lines = client.send(streamRequest, HttpResponse.BodyHandlers.ofLines()).body();
+                    } catch (Exception e) {
+                        failedConnections.increment();
+                        connected.countDown();
+                        return;
+                    }
+                    synchronized(streams){
+                        streams.add(lines);
+                    }
+                    try {
+                        lines.forEach(line -> {
+                            if(line.startsWith(":connected")){
+                                connected.countDown();
+                            } else if(line.startsWith("event:resync")){
+                                resyncs.increment();
+                            } else if(line.startsWith("data:")){
+                                long sentNanos = parseSentNanos(line);
+                                if(sentNanos > 0){
+                                    recorder.recordValue(Math.min((System.nanoTime() - sentNanos) / 1000, HIGHEST_TRACKABLE_MICROS));
+                                    delivered.increment();
+                                }
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        // 측정이 끝나서 연결을 닫은 경우
+                    }
+                });
+            }
+            if(!connected.await(2, TimeUnit.MINUTES)){
+                System.out.printf("연결 대기 시간 초과, 연결되지 않은 구독자: %d%n", connected.getCount());
+            }
+            if(failedConnections.sum() > 0){
+                System.out.printf("연결 실패: %d%n", failedConnections.sum());
+            }
+            recorder.reset();
+
+            // 정해진 간격마다 메세지를 보낸다(응답을 기다리지 않는 open 모델)
+            long interval = 1_000_000_000L / rate;
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            long sent = 0;
+            for(long next = start; next < deadline; next += interval){
+                LockSupport.parkNanos(next - System.nanoTime());
+                HttpRequest sendRequest = HttpRequest.newBuilder(sendUri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"sender\":\"bench\",\"content\":\"" + System.nanoTime() + "\"}"))
+                        .build();
+                client.sendAsync(sendRequest, HttpResponse.BodyHandlers.discarding());
+                sent++;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            // 마지막 메세지가 전달될 시간을 준 뒤 연결을 닫는다
+            Thread.sleep(2000);
+            Result result = new Result(subscribers, sent, elapsed, delivered.sum(), resyncs.sum(),
+                    recorder.getIntervalHistogram());
+            synchronized(streams){
+                streams.forEach(Stream::close);
+            }
+            readers.shutdownNow();
+            return result;
+        }
+    }
+
+    // data:{"blogId":1,"seq":3,"sender":"bench","content":"123456789",...} 에서 content(보낸 시각)를 꺼낸다
+    private static long parseSentNanos(String line){
+        int at = line.indexOf("\"content\":\"");
+        if(at < 0){
+            return -1;
+        }
+        int from = at + "\"content\":\"".length();
+        int to = line.indexOf('"', from);
+        try {
+            return Long.parseLong(line.substring(from, to));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private record Result(int subscribers, long sent, long elapsedNanos, long delivered, long resyncs,
+                          Histogram histogram) {
+    }
+}
@@ -0,0 +1,315 @@
+package com.spring.blog.loadtest;
+
+import com.spring.blog.BlogApplication;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// 배포 전에 /blog/list, /blog/detail/{id}, /reply 엔드포인트가 동시 요청에서 어떻게 동작하는지 측정하는 부하 테스트
+// baseUrl을 주지 않으면 loadtest 프로필(H2 메모리 DB)로 서버를 직접 띄우고 데이터를 넣은 뒤 측정하므로 외부 서비스가 필요 없다.
+// 엔드포인트별로 HdrHistogram 지연시간 분포(.hgrm)와 처리량 요약(summary.txt)을 reportDir에 남긴다.
+//
+// 시스템 프로퍼티
+//   baseUrl          측정할 서버 주소(생략시 내장 서버를 띄움)
+//   blogs, repliesPerBlog, contentLength   넣을 데이터 양(내장 서버일 때만)
+//   model            closed(동시 요청 수 고정) 또는 open(초당 요청 수 고정)
+//   concurrency      closed 모델의 동시 요청 수
+//   rate             open 모델의 초당 요청 수
+//   durationSeconds, warmupSeconds
+//   mix              요청 비율(예: list=30,detail=30,replies=25,replyPage=5,insert=7,update=3)
+//   reportDir        결과 저장 위치
+public class LoadTestRunner {
+
+    // 기록할 수 있는 최대 지연시간(마이크로초)
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    // 측정할 요청 종류
+    enum Operation {
+        LIST("list"), DETAIL("detail"), REPLIES("replies"), REPLY_PAGE("replyPage"),
+        INSERT("insert"), UPDATE("update");
+
+        final String key;
+
+        Operation(String key){
+            this.key = key;
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String baseUrl;
+    private final int blogs;
+    private final AtomicLong maxReplyId;
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, Recorder> recorders = new LinkedHashMap<>();
+    private final Map<Operation, LongAdder> errors = new LinkedHashMap<>();
+
+    LoadTestRunner(String baseUrl, int blogs, long replies, Map<Operation, Integer> mix){
+        this.baseUrl = baseUrl;
+        this.blogs = blogs;
+        this.maxReplyId = new AtomicLong(replies);
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for(int i = 0; i < operations.length; i++){
+            sum += mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+            recorders.put(operations[i], new Recorder(1, HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operations[i], new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int blogs = Integer.getInteger("blogs", 1000);
+        int repliesPerBlog = Integer.getInteger("repliesPerBlog", 20);
+        int contentLength = Integer.getInteger("contentLength", 1000);
+        String model = System.getProperty("model", "closed");
+        int concurrency = Integer.getInteger("concurrency", 64);
+        int rate = Integer.getInteger("rate", 500);
+        Duration duration = Duration.ofSeconds(Long.getLong("durationSeconds", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("warmupSeconds", 5));
+        Map<Operation, Integer> mix = parseMix(System.getProperty("mix",
+                "list=30,detail=30,replies=25,replyPage=5,insert=7,update=3"));
+        Path reportDir = Path.of(System.getProperty("reportDir", "build/reports/loadtest"));
+
+        String baseUrl = System.getProperty("baseUrl");
+        ConfigurableApplicationContext context = null;
+        if(baseUrl == null || baseUrl.isBlank()){
+            SpringApplication application = new SpringApplication(BlogApplication.class);
+            application.setAdditionalProfiles("loadtest");
+            context = application.run(args);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            long start = System.currentTimeMillis();
+            new LoadTestSeeder(context.getBean(DataSource.class)).seed(blogs, repliesPerBlog, contentLength);
+            System.out.printf("데이터 입력 완료: 글 %d개, 댓글 %d개 (%dms)%n",
+                    blogs, (long) blogs * repliesPerBlog, System.currentTimeMillis() - start);
+        }
+
+        try {
+            LoadTestRunner runner = new LoadTestRunner(baseUrl, blogs, (long) blogs * repliesPerBlog, mix);
+            System.out.printf("%s 모델, %s, 예열 %ds, 측정 %ds, 대상 %s%n", model,
+                    "open".equals(model) ? "초당 " + rate + "건" : "동시 요청 " + concurrency,
+                    warmup.toSeconds(), duration.toSeconds(), baseUrl);
+            long elapsedNanos = "open".equals(model)
+                    ? runner.runOpen(rate, warmup, duration)
+                    : runner.runClosed(concurrency, warmup, duration);
+            runner.report(elapsedNanos, reportDir);
+        } finally {
+            if(context != null){
+                context.close();
+            }
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix){
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for(String entry : mix.split(",")){
+            String[] keyValue = entry.trim().split("=");
+            for(Operation operation : Operation.values()){
+                if(operation.key.equals(keyValue[0]) && Integer.parseInt(keyValue[1]) > 0){
+                    weights.put(operation, Integer.parseInt(keyValue[1]));
+                }
+            }
+        }
+        if(weights.isEmpty()){
+            throw new IllegalArgumentException("mix에 유효한 요청 종류가 없습니다: " + mix);
+        }
+        return weights;
+    }
+
+    // closed 모델: concurrency개의 가상 스레드가 응답을 받는 즉시 다음 요청을 보낸다
+    long runClosed(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + warmup.toNanos();
+        long deadline = measureStart + duration.toNanos();
+        try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()){
+            for(int i = 0; i < concurrency; i++){
+                executor.submit(() -> {
+                    while(System.nanoTime() < deadline){
+                        execute(nextOperation(), System.nanoTime());
+                    }
+                });
+            }
+            resetAfterWarmup(measureStart);
+        }
+        return System.nanoTime() - measureStart;
+    }
+
+    // open 모델: 응답 속도와 상관없이 정해진 간격으로 요청을 보낸다
+    // 지연시간은 요청을 보냈어야 할 시각부터 재므로, 서버가 밀려서 늦게 보낸 시간도 지연시간에 포함된다
+    long runOpen(int rate, Duration warmup, Duration duration) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureStart = start + warmup.toNanos();
+        long deadline = measureStart + duration.toNanos();
+        boolean reset = false;
+        try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()){
+            for(long intended = start; intended < deadline; intended += interval){
+                long wait = intended - System.nanoTime();
+                if(wait > 0){
+                    LockSupport.parkNanos(wait);
+                }
+                if(!reset && intended >= measureStart){
+                    resetRecorders();
+                    reset = true;
+                }
+                long intendedStart = intended;
+                executor.submit(() -> execute(nextOperation(), intendedStart));
+            }
+        }
+        return System.nanoTime() - measureStart;
+    }
+
+    private void resetAfterWarmup(long measureStart) throws InterruptedException {
+        long wait = measureStart - System.nanoTime();
+        if(wait > 0){
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        resetRecorders();
+    }
+
+    // 예열 구간의 기록은 버린다
+    private void resetRecorders(){
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    private Operation nextOperation(){
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for(int i = 0; i < cumulativeWeights.length; i++){
+            if(pick < cumulativeWeights[i]){
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation, long startNanos){
+        try {
+            HttpResponse<String> response = client.send(request(operation), HttpResponse.BodyHandlers.ofString());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            if(response.statusCode() >= 400){
+                errors.get(operation).increment();
+                return;
+            }
+            recorders.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if(operation == Operation.INSERT){
+                trackReplyId(response.body());
+            }
+        } catch (IOException e) {
+            errors.get(operation).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpRequest request(Operation operation){
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long blogId = random.nextLong(1, blogs + 1);
+        return switch (operation) {
+            case LIST -> get("/blog/list/" + random.nextInt(1, Math.max(blogs / 10, 1) + 1));
+            case DETAIL -> get("/blog/detail/" + blogId);
+            case REPLIES -> get("/reply/" + blogId + "/all");
+            case REPLY_PAGE -> get("/reply/" + blogId + "?size=20");
+            case INSERT -> json("/reply", "POST",
+                    "{\"blogId\":" + blogId + ",\"replyWriter\":\"부하테스트\",\"replyContent\":\"부하 테스트 댓글\"}");
+            case UPDATE -> json("/reply/" + random.nextLong(1, maxReplyId.get() + 1), "PUT",
+                    "{\"replyWriter\":\"부하테스트\",\"replyContent\":\"수정된 댓글\"}");
+        };
+    }
+
+    private HttpRequest get(String path){
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest json(String path, String method, String body){
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    // 새로 만든 댓글도 수정 대상에 포함되도록 가장 큰 댓글번호를 기억해둔다
+    private void trackReplyId(String body){
+        int index = body.indexOf("\"replyId\":");
+        if(index < 0){
+            return;
+        }
+        int from = index + "\"replyId\":".length();
+        int to = from;
+        while(to < body.length() && Character.isDigit(body.charAt(to))){
+            to++;
+        }
+        if(to > from){
+            maxReplyId.accumulateAndGet(Long.parseLong(body.substring(from, to)), Math::max);
+        }
+    }
+
+    // 엔드포인트별 처리량, 지연시간 백분위를 출력하고 .hgrm(HdrHistogram 분포)과 summary.txt로 저장
+    void report(long elapsedNanos, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-10s %9s %9s %8s %9s %9s %9s %9s %9s",
+                "endpoint", "count", "req/s", "errors", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)"));
+        Histogram total = new Histogram(1, HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        for(Operation operation : operations){
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long errorCount = errors.get(operation).sum();
+            total.add(histogram);
+            totalErrors += errorCount;
+            lines.add(summaryLine(operation.key, histogram, errorCount, seconds));
+            try(PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(operation.key + ".hgrm")),
+                    false, StandardCharsets.UTF_8)){
+                histogram.outputPercentileDistribution(out, 1000.0); // ms 단위로 출력
+            }
+        }
+        lines.add(summaryLine("total", total, totalErrors, seconds));
+
+        lines.forEach(System.out::println);
+        Files.write(reportDir.resolve("summary.txt"), lines, StandardCharsets.UTF_8);
+        System.out.println("결과 저장 위치: " + reportDir.toAbsolutePath());
+    }
+
+    private String summaryLine(String name, Histogram histogram, long errorCount, double seconds){
+        return String.format("%-10s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f", name,
+                histogram.getTotalCount(), histogram.getTotalCount() / seconds, errorCount,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.spring.blog.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// 부하 테스트용 데이터를 넣는다(글 blogs개, 글마다 댓글 repliesPerBlog개)
+// 글번호, 댓글번호는 1번부터 차례대로 생성된다
+class LoadTestSeeder {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    LoadTestSeeder(DataSource dataSource){
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    void seed(int blogs, int repliesPerBlog, int contentLength){
+        String content = "부하 테스트 본문입니다. ".repeat(contentLength / 14 + 1).substring(0, contentLength);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for(int i = 1; i <= blogs; i++){
+            rows.add(new Object[]{"유저" + i, i + "번제목", content});
+            if(rows.size() == BATCH_SIZE || i == blogs){
+                jdbcTemplate.batchUpdate("INSERT INTO blog (writer, blog_title, blog_content) VALUES (?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        for(int i = 1; i <= blogs; i++){
+            for(int j = 1; j <= repliesPerBlog; j++){
+                rows.add(new Object[]{i, "댓글쓴이" + j, j + "번째 댓글입니다."});
+                if(rows.size() == BATCH_SIZE){
+                    insertReplies(rows);
+                }
+            }
+        }
+        insertReplies(rows);
+        // 댓글을 직접 넣었으므로 글마다 미리 세어두는 댓글 수도 맞춰준다
+        jdbcTemplate.update("UPDATE blog SET reply_count = " + repliesPerBlog);
+    }
+
+    private void insertReplies(List<Object[]> rows){
+        if(!rows.isEmpty()){
+            jdbcTemplate.batchUpdate("INSERT INTO reply (blog_id, reply_writer, reply_content) VALUES (?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+}
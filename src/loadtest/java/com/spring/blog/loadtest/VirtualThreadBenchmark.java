@@ -0,0 +1,146 @@
+package com.spring.blog.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// 서버를 플랫폼 스레드 모드와 가상 스레드 모드로 각각 띄워두고 같은 주소에 같은 동시성으로 요청을 보내서
+// p50, p99 지연시간과 초당 처리량을 비교하는 부하 테스트
+// 인자는 "이름=주소" 형태로 여러 개 줄 수 있고, 순서대로 하나씩 측정한다
+//   platform=http://localhost:8080/reply/2/all virtual=http://localhost:8081/reply/2/all
+// 시스템 프로퍼티 concurrency(동시 요청 수), durationSeconds(측정 시간), warmupSeconds(예열 시간)로 조절한다
+public class VirtualThreadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("concurrency", 1000);
+        Duration duration = Duration.ofSeconds(Long.getLong("durationSeconds", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("warmupSeconds", 5));
+        if(args.length == 0){
+            args = new String[]{"http://localhost:8080/reply/2/all"};
+        }
+
+        List<Result> results = new ArrayList<>();
+        for(String arg : args){
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            URI uri = URI.create(eq < 0 ? arg : arg.substring(eq + 1));
+            System.out.printf("%s: %s 예열 %ds, 측정 %ds, 동시 요청 %d%n",
+                    name, uri, warmup.toSeconds(), duration.toSeconds(), concurrency);
+            run(uri, concurrency, warmup);
+            results.add(run(uri, concurrency, duration).named(name));
+        }
+
+        System.out.printf("%n%-12s %10s %10s %10s %10s %8s%n", "mode", "req/s", "p50(ms)", "p99(ms)", "max(ms)", "errors");
+        for(Result result : results){
+            System.out.printf("%-12s %10.1f %10.2f %10.2f %10.2f %8d%n", result.name, result.throughput(),
+                    result.percentile(50), result.percentile(99), result.percentile(100), result.errors);
+        }
+    }
+
+    // concurrency개의 가상 스레드가 각자 응답을 받는 즉시 다음 요청을 보내는 방식(closed loop)으로 부하를 준다
+    private static Result run(URI uri, int concurrency, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()){
+            for(int i = 0; i < concurrency; i++){
+                futures.add(executor.submit(() -> {
+                    Worker worker = new Worker();
+                    while(System.nanoTime() < deadline){
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if(response.statusCode() == 200){
+                                worker.record(System.nanoTime() - sent);
+                            } else {
+                                worker.errors++;
+                            }
+                        } catch (Exception e) {
+                            worker.errors++;
+                        }
+                    }
+                    return worker;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Result result = new Result(elapsed);
+        for(Future<Worker> future : futures){
+            result.merge(future.get());
+        }
+        result.sort();
+        return result;
+    }
+
+    // 스레드 하나가 기록한 지연시간(ns), 스레드끼리 공유하지 않으므로 동기화가 필요 없다
+    private static class Worker {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void record(long latency){
+            if(count == latencies.length){
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+
+    private static class Result {
+        String name;
+        final long elapsedNanos;
+        long[] latencies = new long[0];
+        int count;
+        long errors;
+
+        Result(long elapsedNanos){
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        Result named(String name){
+            this.name = name;
+            return this;
+        }
+
+        void merge(Worker worker){
+            if(count + worker.count > latencies.length){
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + worker.count));
+            }
+            System.arraycopy(worker.latencies, 0, latencies, count, worker.count);
+            count += worker.count;
+            errors += worker.errors;
+        }
+
+        void sort(){
+            Arrays.sort(latencies, 0, count);
+        }
+
+        double throughput(){
+            return count / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        // 정렬된 지연시간에서 백분위 값을 ms로 리턴
+        double percentile(double percent){
+            if(count == 0){
+                return 0;
+            }
+            int index = (int) Math.ceil(percent / 100.0 * count) - 1;
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.spring.blog;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // 조회수 반영 등 주기적으로 실행되는 작업(@Scheduled)을 사용하기 위해 선언
 public class BlogApplication {
 
 	public static void main(String[] args) {
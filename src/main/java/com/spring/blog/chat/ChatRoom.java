@@ -0,0 +1,118 @@
+package com.spring.blog.chat;
+
+import com.spring.blog.entity.ChatMessage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// 글 하나의 채팅방, 최근 메세지를 미리 크기를 잡아둔 링버퍼에 담아둔다
+// 메세지 번호(seq)를 AtomicLong으로 받고 그 번호의 칸에 쓰기만 하므로 여러 스레드가 동시에 보내도 서로 기다리지 않는다.
+// 늦게 들어온 사람은 DB를 거치지 않고 링버퍼에서 최근 메세지를 받아간다.
+// 메모리에서 내릴 때는 닫아두어서, 닫힌 뒤로는 번호를 매기지 않고 보내는 쪽이 새로 연 채팅방에 다시 보내게 한다.
+public final class ChatRoom {
+
+    private final long blogId;
+
+    // seq & mask 위치에 메세지를 담는다(크기는 2의 거듭제곱)
+    private final AtomicReferenceArray<ChatMessage> ring;
+    private final int mask;
+
+    // 다음에 보낼 메세지 번호
+    private final AtomicLong nextSeq;
+
+    // 마지막으로 메세지를 보내거나 구독한 시각(유휴 채팅방 정리용)
+    private volatile long lastActiveMillis = System.currentTimeMillis();
+
+    // 보내는 쪽은 읽기 락을 함께 잡으므로 서로 막지 않고, 닫는 쪽은 쓰기 락으로 보내는 중인 메세지가 끝나기를 확인한다
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    // recent는 DB에 저장되어 있던 최근 메세지(seq 오름차순), 이어서 번호를 매긴다
+    public ChatRoom(long blogId, int historySize, List<ChatMessage> recent){
+        int capacity = Integer.highestOneBit(Math.max(historySize - 1, 1)) << 1;
+        this.blogId = blogId;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        long lastSeq = 0;
+        for(ChatMessage message : recent){
+            ring.set((int) (message.getSeq() & mask), message);
+            lastSeq = Math.max(lastSeq, message.getSeq());
+        }
+        this.nextSeq = new AtomicLong(lastSeq + 1);
+    }
+
+    public long getBlogId(){
+        return blogId;
+    }
+
+    // 번호를 매겨서 링버퍼에 담고, afterAppend(저장 대기열에 넣기 등)까지 마친 뒤 리턴한다. 링버퍼가 차면 가장 오래된 메세지 칸을 덮어쓴다
+    // afterAppend가 끝나기 전에는 채팅방이 닫히지 않으므로 다시 열리는 채팅방은 이 메세지까지 보고 번호를 이어간다
+    // 이미 닫힌 채팅방이면 번호를 매기지 않고 null을 리턴한다
+    public ChatMessage append(String sender, String content, LocalDateTime sentAt, Consumer<ChatMessage> afterAppend){
+        Lock lock = closeLock.readLock();
+        lock.lock();
+        try {
+            if(closed){
+                return null;
+            }
+            long seq = nextSeq.getAndIncrement();
+            ChatMessage message = new ChatMessage(blogId, seq, sender, content, sentAt);
+            ring.set((int) (seq & mask), message);
+            touch();
+            afterAppend.accept(message);
+            return message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // idleBefore 이후로 활동이 없었다면 닫고 true를 리턴한다. 보내는 중인 메세지가 있으면 기다리지 않고 false를 리턴한다
+    public boolean closeIfIdle(long idleBefore){
+        Lock lock = closeLock.writeLock();
+        if(!lock.tryLock()){
+            return false;
+        }
+        try {
+            if(lastActiveMillis >= idleBefore){
+                return false;
+            }
+            closed = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isClosed(){
+        return closed;
+    }
+
+    // afterSeq 이후의 메세지를 링버퍼에 남아있는 만큼 seq 순서대로 리턴한다
+    // 번호만 받고 아직 칸에 쓰지 않은 메세지나 이미 덮어써진 메세지는 건너뛴다(실시간 전송으로 받게 된다)
+    public List<ChatMessage> history(long afterSeq){
+        long end = nextSeq.get();
+        long start = Math.max(afterSeq + 1, end - ring.length());
+        List<ChatMessage> messages = new ArrayList<>((int) Math.max(end - start, 0));
+        for(long seq = start; seq < end; seq++){
+            ChatMessage message = ring.get((int) (seq & mask));
+            if(message != null && message.getSeq() == seq){
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    public void touch(){
+        lastActiveMillis = System.currentTimeMillis();
+    }
+
+    public long getLastActiveMillis(){
+        return lastActiveMillis;
+    }
+}
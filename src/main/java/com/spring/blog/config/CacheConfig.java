@@ -0,0 +1,71 @@
+package com.spring.blog.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.spring.blog.entity.Blog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration // 캐시 객체를 빈으로 등록하기 위한 설정 클래스
+public class CacheConfig {
+
+    // 글 단건 조회(findById) 결과를 담아두는 캐시
+    // Caffeine은 W-TinyLFU 방식으로 자주 조회되는 글을 남기고 드물게 조회되는 글부터 내보낸다.
+    // recordStats()로 적중/실패/제거 횟수를 기록해서 /admin/cache 에서 확인할 수 있다.
+    // 조회수 반영(BlogViewCountServiceImpl)은 담긴 글의 조회수만 바꿔서 다시 넣으므로, 다시 넣어도 만료시각이
+    // 늘어나지 않게 처음 담은 시각부터 expire-after-write-seconds가 지나면 만료시킨다
+    @Bean
+    public Cache<Long, Blog> blogCache(@Value("${blog.cache.maximum-size:10000}") long maximumSize,
+                                       @Value("${blog.cache.expire-after-write-seconds:60}") long expireSeconds){
+        long expireNanos = Duration.ofSeconds(expireSeconds).toNanos();
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, Blog>() {
+                    @Override
+                    public long expireAfterCreate(Long blogId, Blog blog, long currentTime) {
+                        return expireNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long blogId, Blog blog, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long blogId, Blog blog, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    // 긴 글의 풀어낸 본문을 담아두는 캐시(BlogContentServiceImpl)
+    // 본문 길이가 글마다 크게 다르므로 개수가 아니라 글자 수 합계(maximum-weight)로 크기를 제한한다
+    @Bean
+    public Cache<Long, String> blogContentCache(@Value("${blog.content.cache.maximum-weight:16777216}") long maximumWeight,
+                                                @Value("${blog.content.cache.expire-after-write-seconds:60}") long expireSeconds){
+        return Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long blogId, String content) -> content.length())
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // 글 본문을 변환해둔 HTML을 담아두는 캐시(BlogRenderServiceImpl), 상세페이지는 보통 여기서 바로 출력된다
+    @Bean
+    public Cache<Long, String> blogHtmlCache(@Value("${blog.render.cache.maximum-weight:33554432}") long maximumWeight,
+                                             @Value("${blog.render.cache.expire-after-write-seconds:60}") long expireSeconds){
+        return Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long blogId, String html) -> html.length())
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.spring.blog.config;
+
+import com.spring.blog.datasource.ReadYourWritesInterceptor;
+import com.spring.blog.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// 읽기 전용 트랜잭션을 replica로 보내기 위한 설정 클래스(blog.datasource.routing.enabled=true 일 때만 사용)
+// 꺼져 있으면 스프링부트가 spring.datasource 설정으로 만드는 커넥션 풀 하나만 사용한다
+@Configuration
+@ConditionalOnProperty(name = "blog.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+
+    @Value("${blog.datasource.routing.sticky-window-ms:5000}")
+    long stickyWindowMillis;
+
+    // 쓰기와 읽기 전용이 아닌 트랜잭션이 사용하는 커넥션 풀, spring.datasource 설정을 그대로 사용한다
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties){
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${blog.datasource.routing.replica-urls:}") List<String> replicaUrls,
+            @Value("${blog.datasource.routing.replica-username:${spring.datasource.username:}}") String username,
+            @Value("${blog.datasource.routing.replica-password:${spring.datasource.password:}}") String password,
+            @Value("${blog.datasource.routing.replica-driver-class-name:${spring.datasource.driver-class-name:}}") String driverClassName,
+            @Value("${blog.datasource.routing.replica-pool-size:20}") int poolSize,
+            @Value("${blog.datasource.routing.replica-connection-timeout-ms:1000}") long connectionTimeoutMillis,
+            @Value("${blog.datasource.routing.strategy:round-robin}") String strategy,
+            @Value("${blog.datasource.routing.eject-after-failures:3}") int ejectAfterFailures){
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for(String url : replicaUrls){
+            if(url.isBlank()){
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            if(!driverClassName.isBlank()){
+                replica.setDriverClassName(driverClassName);
+            }
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeoutMillis);
+            // replica가 꺼져 있어도 서버는 뜨고, 그동안 읽기는 primary가 받는다
+            replica.setInitializationFailTimeout(-1);
+            // useCursorFetch 같은 드라이버 설정은 primary와 같게 맞춘다
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, strategy, ejectAfterFailures);
+    }
+
+    // MyBatis, 트랜잭션 매니저 등이 사용하는 DataSource
+    // 트랜잭션이 readOnly 표시를 마친 뒤 첫 SQL을 실행할 때 커넥션을 빌리도록 지연시킨다
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource){
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(stickyWindowMillis));
+    }
+}
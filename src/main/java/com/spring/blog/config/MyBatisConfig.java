@@ -0,0 +1,17 @@
+package com.spring.blog.config;
+
+import com.spring.blog.mybatis.StatementMetricsInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration // MyBatis 플러그인을 빈으로 등록하기 위한 설정 클래스
+public class MyBatisConfig {
+
+    // Interceptor 빈은 mybatis-spring-boot-starter가 SqlSessionFactory에 자동으로 플러그인으로 등록한다
+    @Bean
+    public StatementMetricsInterceptor statementMetricsInterceptor(
+            @Value("${blog.statement-metrics.slow-threshold-ms:500}") long slowThresholdMillis){
+        return new StatementMetricsInterceptor(slowThresholdMillis);
+    }
+}
@@ -0,0 +1,121 @@
+package com.spring.blog.content;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+// blog_body.body에 본문(UTF-8)을 어떤 방식으로 담았는지(blog_body.codec 컬럼에 이름 그대로 저장)
+// 짧은 본문은 압축해도 줄어드는 양보다 압축, 해제에 드는 시간이 더 아까우므로 그대로(NONE) 담고,
+// 긴 본문만 JDK 내장 DEFLATE를 가장 빠른 단계(BEST_SPEED)로 압축한다
+public enum BodyCodec {
+
+    NONE {
+        @Override
+        byte[] compress(byte[] raw) {
+            return raw;
+        }
+
+        @Override
+        public InputStream open(byte[] body) {
+            return new ByteArrayInputStream(body);
+        }
+    },
+
+    DEFLATE {
+        @Override
+        byte[] compress(byte[] raw) {
+            // zlib 헤더, 체크섬 없이(nowrap) 압축한다
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while(!deflater.finished()){
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public InputStream open(byte[] body) {
+            return new InflaterInputStream(new ByteArrayInputStream(body), new Inflater(true), BUFFER_SIZE) {
+                // InflaterInputStream은 직접 넘겨준 Inflater를 닫아주지 않으므로 여기서 정리한다
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    inf.end();
+                }
+            };
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    abstract byte[] compress(byte[] raw);
+
+    // 저장된 body를 풀어서 원래 본문(UTF-8)을 읽을 수 있는 스트림
+    public abstract InputStream open(byte[] body);
+
+    // 저장된 body를 풀면서 글자 단위로 읽을 수 있는 Reader
+    public Reader openReader(byte[] body){
+        return new InputStreamReader(open(body), StandardCharsets.UTF_8);
+    }
+
+    // 저장된 body를 모두 풀어서 문자열로 만든다(rawLength는 풀었을 때의 글자 수)
+    public String decode(byte[] body, int rawLength){
+        try(Reader reader = openReader(body)){
+            StringBuilder content = new StringBuilder(rawLength);
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while((read = reader.read(buffer)) != -1){
+                content.append(buffer, 0, read);
+            }
+            return content.toString();
+        } catch (IOException e) {
+            // 메모리의 바이트를 푸는 것이므로 저장된 데이터가 깨진 경우에만 일어난다
+            throw new UncheckedIOException("저장된 본문을 풀 수 없습니다.", e);
+        }
+    }
+
+    // raw가 compressMinBytes 이상일 때만 압축하고, 압축해도 작아지지 않으면(이미 압축된 데이터 등) 그대로 담는다
+    public static Encoded encode(byte[] raw, int compressMinBytes){
+        if(raw.length >= compressMinBytes){
+            byte[] deflated = DEFLATE.compress(raw);
+            if(deflated.length < raw.length){
+                return new Encoded(DEFLATE, deflated);
+            }
+        }
+        return new Encoded(NONE, NONE.compress(raw));
+    }
+
+    // 고른 방식과 그 방식으로 담은 바이트
+    public static class Encoded {
+        private final BodyCodec codec;
+        private final byte[] body;
+
+        Encoded(BodyCodec codec, byte[] body){
+            this.codec = codec;
+            this.body = body;
+        }
+
+        public BodyCodec getCodec(){
+            return codec;
+        }
+
+        public byte[] getBody(){
+            return body;
+        }
+    }
+}
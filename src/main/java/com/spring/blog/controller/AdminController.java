@@ -0,0 +1,161 @@
+package com.spring.blog.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.spring.blog.datasource.ReplicaRoutingDataSource;
+import com.spring.blog.dto.GroupCommitStatsDTO;
+import com.spring.blog.dto.PurgeStatsDTO;
+import com.spring.blog.dto.PushStatsDTO;
+import com.spring.blog.dto.StatementStatsDTO;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.mybatis.StatementMetricsInterceptor;
+import com.spring.blog.service.BlogContentService;
+import com.spring.blog.service.BlogPurgeService;
+import com.spring.blog.service.BlogRenderService;
+import com.spring.blog.service.ChatService;
+import com.spring.blog.service.IdFilterService;
+import com.spring.blog.service.ReplyGroupCommitService;
+import com.spring.blog.service.ReplyPushService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 운영 중에 서버 내부 상태(캐시 통계 등)를 JSON으로 확인하기 위한 컨트롤러
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private Cache<Long, Blog> blogCache;
+
+    private StatementMetricsInterceptor statementMetricsInterceptor;
+
+    private ReplyPushService replyPushService;
+
+    private ChatService chatService;
+
+    private ReplyGroupCommitService replyGroupCommitService;
+
+    private BlogPurgeService blogPurgeService;
+
+    private IdFilterService idFilterService;
+
+    private BlogContentService blogContentService;
+
+    private BlogRenderService blogRenderService;
+
+    // replica 라우팅을 켰을 때만 빈이 있다(DataSourceRoutingConfig)
+    private ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    @Autowired
+    public AdminController(Cache<Long, Blog> blogCache, StatementMetricsInterceptor statementMetricsInterceptor,
+                           ReplyPushService replyPushService, ChatService chatService,
+                           ReplyGroupCommitService replyGroupCommitService, BlogPurgeService blogPurgeService,
+                           IdFilterService idFilterService, BlogContentService blogContentService,
+                           BlogRenderService blogRenderService,
+                           ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource){
+        this.blogCache = blogCache;
+        this.statementMetricsInterceptor = statementMetricsInterceptor;
+        this.replyPushService = replyPushService;
+        this.chatService = chatService;
+        this.replyGroupCommitService = replyGroupCommitService;
+        this.blogPurgeService = blogPurgeService;
+        this.idFilterService = idFilterService;
+        this.blogContentService = blogContentService;
+        this.blogRenderService = blogRenderService;
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    // 글 단건 조회 캐시의 적중/실패/제거 통계
+    // http://localhost:8080/admin/cache
+    @RequestMapping(value = "/cache", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> cacheStats(){
+        CacheStats stats = blogCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", blogCache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loadSuccessCount", stats.loadSuccessCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        result.put("evictionCount", stats.evictionCount());
+        return ResponseEntity.ok(result);
+    }
+
+    // 매퍼 구문별 실행시간 백분위, 행 수, 실패 횟수(직전 집계구간 기준, p99가 큰 순서)
+    // http://localhost:8080/admin/statements
+    @RequestMapping(value = "/statements", method = RequestMethod.GET)
+    public ResponseEntity<List<StatementStatsDTO>> statementStats(){
+        return ResponseEntity.ok(statementMetricsInterceptor.getLastWindow());
+    }
+
+    // 댓글 실시간 전송(SSE) 구독자 수와 방송, 버린 이벤트 수
+    // http://localhost:8080/admin/push
+    @RequestMapping(value = "/push", method = RequestMethod.GET)
+    public ResponseEntity<PushStatsDTO> pushStats(){
+        return ResponseEntity.ok(replyPushService.getStats());
+    }
+
+    // 열린 채팅방 수, 구독자 수, 방송/버린 이벤트 수, DB 저장 대기열 상태
+    // http://localhost:8080/admin/chat
+    @RequestMapping(value = "/chat", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> chatStats(){
+        return ResponseEntity.ok(chatService.getStats());
+    }
+
+    // 댓글 모아서 저장하기의 대기열 크기, 묶음 크기, 실패/거절 수
+    // http://localhost:8080/admin/reply-writes
+    @RequestMapping(value = "/reply-writes", method = RequestMethod.GET)
+    public ResponseEntity<GroupCommitStatsDTO> replyWriteStats(){
+        return ResponseEntity.ok(replyGroupCommitService.getStats());
+    }
+
+    // 삭제된 글 정리 진행상황(남은 글 수, 정리 중인 글, 지운 댓글 수)
+    // http://localhost:8080/admin/purge
+    @RequestMapping(value = "/purge", method = RequestMethod.GET)
+    public ResponseEntity<PurgeStatsDTO> purgeStats(){
+        return ResponseEntity.ok(blogPurgeService.getStats());
+    }
+
+    // 번호 존재 필터에 든 글번호, 댓글번호 수와 메모리, DB에 묻지 않고 걸러낸 조회 수
+    // http://localhost:8080/admin/id-filter
+    @RequestMapping(value = "/id-filter", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> idFilterStats(){
+        return ResponseEntity.ok(idFilterService.getStats());
+    }
+
+    // 긴 글 본문 캐시의 적중/실패 수, 캐시에 담지 않고 풀면서 바로 쓴 횟수, 저장한 본문의 압축률
+    // http://localhost:8080/admin/content
+    @RequestMapping(value = "/content", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> contentStats(){
+        return ResponseEntity.ok(blogContentService.getStats());
+    }
+
+    // 본문 변환기 버전, 변환 횟수와 평균 변환시간, 옛날 버전 HTML을 다시 변환한 수, HTML 캐시 적중/실패 수
+    // http://localhost:8080/admin/render
+    @RequestMapping(value = "/render", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> renderStats(){
+        return ResponseEntity.ok(blogRenderService.getStats());
+    }
+
+    // primary, replica 커넥션 풀별 상태와 빌려준 커넥션 수, 제외 여부
+    // http://localhost:8080/admin/datasources
+    @RequestMapping(value = "/datasources", method = RequestMethod.GET)
+    public ResponseEntity<Map<String, Object>> dataSourceStats(){
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        if(routing == null){
+            return ResponseEntity.ok(Map.of("enabled", false));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", true);
+        result.putAll(routing.getStats());
+        return ResponseEntity.ok(result);
+    }
+}
@@ -1,17 +1,49 @@
 package com.spring.blog.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.spring.blog.dto.BlogDetailDTO;
+import com.spring.blog.dto.BlogDetailValidatorDTO;
+import com.spring.blog.dto.BlogPageDTO;
+import com.spring.blog.dto.MultiGetResponseDTO;
 import com.spring.blog.entity.Blog;
-import com.spring.blog.exception.NotFoundBlogIdException;
+import com.spring.blog.entity.BlogSummary;
+import com.spring.blog.exception.BlogImportException;
+import com.spring.blog.markdown.MarkdownRenderer;
+import com.spring.blog.search.SearchHit;
+import com.spring.blog.service.BlogContentService;
+import com.spring.blog.service.BlogDataService;
+import com.spring.blog.service.BlogRenderService;
+import com.spring.blog.service.BlogSearchService;
 import com.spring.blog.service.BlogService;
+import com.spring.blog.service.BlogViewCountService;
+import com.spring.blog.service.IdFilterService;
+import com.spring.blog.service.ReplyService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @Controller // url 분석하는 기능이 있음, 빈 등로그 url 매핑 처리 기능을 함께 가지고 있으므로 다른
         // 어노테이션과 교환해서 쓸 수 없다
@@ -22,45 +54,275 @@ public class BlogController {
     // 컨트롤러 레이어는 서비스 레이어를 직접호출한다.
     private BlogService blogService;
 
+    // 조회수는 DB가 아닌 메모리에 먼저 쌓아두는 서비스를 통해 증가시킨다
+    private BlogViewCountService blogViewCountService;
+
+    private BlogSearchService blogSearchService;
+
+    // 내보내기, 가져오기 담당
+    private BlogDataService blogDataService;
+
+    // 상세페이지에 미리 그린 댓글의 동기화 토큰을 만들 때 사용
+    private ReplyService replyService;
+
+    // 확실히 없는 글번호는 DB에 묻지 않고 걸러낸다
+    private IdFilterService idFilterService;
+
+    // 긴 글의 본문 전체는 blog_body에서 풀어서 읽는다
+    private BlogContentService blogContentService;
+
+    // 상세페이지 본문은 저장할 때 변환해둔 HTML을 출력한다
+    private BlogRenderService blogRenderService;
+
+    // 검색 결과로 보여줄 최대 글 개수
+    private static final int SEARCH_LIMIT = 20;
+
+    // gzip 압축 버퍼 크기
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    // 없는 글번호로 접근했을 때 보여줄 페이지
+    private static final String NOT_FOUND_VIEW = "blog/NotFoundBlogIdExceptionResultPage";
+
     @Autowired // 생성자 주입
-    public BlogController(BlogService blogService){
+    public BlogController(BlogService blogService, BlogViewCountService blogViewCountService,
+                          BlogSearchService blogSearchService, BlogDataService blogDataService,
+                          ReplyService replyService, IdFilterService idFilterService,
+                          BlogContentService blogContentService, BlogRenderService blogRenderService){
         this.blogService = blogService;
+        this.blogViewCountService = blogViewCountService;
+        this.blogSearchService = blogSearchService;
+        this.blogDataService = blogDataService;
+        this.replyService = replyService;
+        this.idFilterService = idFilterService;
+        this.blogContentService = blogContentService;
+        this.blogRenderService = blogRenderService;
     }
 
     // /blog/list 주소로 get방식 접속했을때
-    // 1. 서비스객체를 이용해 게시글 전체를 얻어오기
-    // 2. 얻어온 게시글을 .jsp로 보낼 수 있도록 적재
+    // 1. 서비스객체를 이용해 해당 페이지의 게시글만 얻어오기
+    // 2. 얻어온 게시글과 페이징 정보를 .jsp로 보낼 수 있도록 적재
     // 3. .jsp에서 볼 수 있도록 출력
     // 파일 이름은 blog/list.jsp
-    @RequestMapping("/list")
-    public String list(Model model){
-        List<Blog> blogList = blogService.findAll();
-        model.addAttribute("blogList", blogList);
+    // /blog/list/{pageNum} 은 페이지 번호 방식, /blog/list?cursor=글번호 는 커서 방식(깊은 페이지용)으로 조회
+    @RequestMapping({"/list", "/list/{pageNum}"})
+    public String list(Model model,
+                       @PathVariable(required = false) Integer pageNum,
+                       @RequestParam(required = false) Long cursor){
+        BlogPageDTO pageInfo = (cursor != null)
+                ? blogService.findPageAfter(cursor)
+                : blogService.findPage(pageNum == null ? 1 : pageNum);
+
+        // 아직 DB에 반영되지 않은 조회수를 더해서 보여준다
+        addPendingCounts(pageInfo.getBlogList());
+
+        model.addAttribute("blogList", pageInfo.getBlogList());
+        model.addAttribute("startPageNum", pageInfo.getStartPageNum());
+        model.addAttribute("endPageNum", pageInfo.getEndPageNum());
+        model.addAttribute("currentPageNum", pageInfo.getCurrentPageNum());
+        model.addAttribute("pageInfo", pageInfo);
         return "blog/list";
     }
 
+    // 검색 페이지 주소 패턴
+    // /blog/search?q=검색어
+    // 검색 색인에서 관련도 순으로 글번호를 받아온 뒤 글 정보를 채워서 blog/search.jsp로 보낸다
+    @RequestMapping(value = "/search", method = RequestMethod.GET)
+    public String search(Model model, @RequestParam(defaultValue = "") String q){
+        List<Long> blogIds = new ArrayList<>();
+        for(SearchHit hit : blogSearchService.search(q, SEARCH_LIMIT)){
+            blogIds.add(hit.getBlogId());
+        }
+        // 관련도 순서를 유지한 채 목록용 정보만 한 번에 가져온다(색인에 반영되기 직전에 삭제된 글은 빠진다)
+        List<BlogSummary> blogList = blogService.findSummariesByIds(blogIds);
+        addPendingCounts(blogList);
+        model.addAttribute("q", q);
+        model.addAttribute("blogList", blogList);
+        return "blog/search";
+    }
+
+    // 전체 글과 댓글 내보내기
+    // /blog/export?format=ndjson&gzip=true
+    // 한 줄에 글 또는 댓글 하나씩 JSON으로 응답 스트림에 바로 써주므로 데이터가 많아도 서버 메모리를 일정하게 쓴다
+    @RequestMapping(value = "/export", method = RequestMethod.GET)
+    public void export(@RequestParam(defaultValue = "ndjson") String format,
+                       @RequestParam(defaultValue = "false") boolean gzip,
+                       HttpServletResponse response) throws IOException {
+        if(!"ndjson".equals(format)){
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "지원하지 않는 형식입니다.");
+            return;
+        }
+        response.setContentType(gzip ? "application/gzip" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"blog-export.ndjson" + (gzip ? ".gz" : "") + "\"");
+
+        if(gzip){
+            // syncFlush=true로 만들어야 중간중간 flush할 때 압축된 내용도 같이 내려간다
+            GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE, true);
+            blogDataService.exportAll(out);
+            out.finish();
+        } else {
+            blogDataService.exportAll(response.getOutputStream());
+        }
+    }
+
+    // 내보낸 파일 가져오기
+    // /blog/import?gzip=true 로 NDJSON 본문을 POST하면 글번호, 댓글번호를 그대로 유지해서 저장한다
+    @RequestMapping(value = "/import", method = RequestMethod.POST)
+    public ResponseEntity<?> importData(@RequestParam(defaultValue = "false") boolean gzip,
+                                        HttpServletRequest request) throws IOException {
+        InputStream in = gzip ? new GZIPInputStream(request.getInputStream()) : request.getInputStream();
+        try {
+            return ResponseEntity.ok(blogDataService.importAll(in));
+        } catch (BlogImportException e) {
+            // 앞에서 커밋된 개수를 알려줘서 그 다음 줄부터 다시 가져올 수 있게 한다
+            Throwable cause = e.getCause();
+            if(cause instanceof DuplicateKeyException){
+                return new ResponseEntity<>("이미 존재하는 글번호 또는 댓글번호가 있습니다. " + e.getMessage(), HttpStatus.CONFLICT);
+            }
+            if(cause instanceof JsonProcessingException || cause instanceof IllegalArgumentException){
+                return new ResponseEntity<>("잘못된 형식입니다. " + cause.getMessage() + " " + e.getMessage(), HttpStatus.BAD_REQUEST);
+            }
+            throw e;
+        }
+    }
+
+    private void addPendingCounts(List<BlogSummary> blogList){
+        for(BlogSummary blog : blogList){
+            blog.setBlogCount(blog.getBlogCount() + blogViewCountService.getPendingCount(blog.getBlogId()));
+        }
+    }
+
     // detail 페이지 주소 패턴
     // /blog/detail/{blogId}
+    // 글 전체를 가져오기 전에 글 수정시각과 조회수, 댓글 수, 댓글 수정시각만 가벼운 쿼리로 확인해서
+    // 브라우저가 가지고 있는 페이지와 같다면(If-None-Match, If-Modified-Since) 렌더링 없이 304로 응답한다
+    // 바뀌었다면 글과 댓글 첫 페이지를 쿼리 한 번으로 가져와서 같이 그려주므로 화면에서 댓글을 따로 요청하지 않는다
     @RequestMapping("/detail/{blogId}")
-    public String detail(Model model, @PathVariable long blogId){
-        Blog blog = blogService.findById(blogId);
+    public String detail(Model model, @PathVariable long blogId,
+                         WebRequest webRequest, HttpServletResponse response) throws IOException {
+        // 크롤러 등이 보내는 없는 글번호는 DB를 다녀오지 않고 바로 404
+        if(!idFilterService.mightContainBlog(blogId)){
+            return notFound(response);
+        }
+        BlogDetailValidatorDTO validator = blogService.findDetailValidatorById(blogId);
+        if(validator != null){
+            long lastModified = toEpochMillis(validator.getUpdatedAt());
+            long lastReplyModified = toEpochMillis(validator.getLastReplyUpdatedAt());
+            // 브라우저가 매번 서버에 변경 여부를 확인하도록 no-cache 지정
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            // 변환기 버전이 바뀌면 같은 글이라도 HTML이 달라지므로 버전도 넣는다
+            String eTag = "\"blog-" + blogId + "-" + lastModified + "-" + validator.getBlogCount()
+                    + "-" + validator.getReplyCount() + "-" + lastReplyModified
+                    + "-r" + MarkdownRenderer.VERSION + "\"";
+            if(webRequest.checkNotModified(eTag, Math.max(lastModified, lastReplyModified))){
+                blogViewCountService.increase(blogId); // 304 응답이어도 조회는 조회이므로 조회수는 올린다
+                return null; // 304 응답은 스프링이 처리하므로 뷰 이름을 리턴하지 않는다
+            }
+        }
+
+        BlogDetailDTO detail = blogService.findDetailById(blogId);
         //model.addAttribute("blog", blog);
 
-        if(blog == null){
-            try{
-                throw new NotFoundBlogIdException("없는 글번호로 조회했습니다. 조회번호: " + blogId);
-            } catch (NotFoundBlogIdException e){
-                e.printStackTrace(); // 예외 메세지 체크
-                return "blog/NotFoundBlogIdExceptionResultPage";
-            }
+        if(detail == null){
+            return notFound(response);
         }
+        Blog blog = detail.getBlog();
+        // 조회수 증가는 메모리에만 하고, 화면에는 목록, 검색과 같이 아직 DB에 반영되지 않은 조회수를 더해서 보여준다
+        // ETag에는 DB 조회수만 넣으므로 반영 주기마다 ETag가 바뀌고, 그 사이의 304 응답은 브라우저가 가진 조회수를 보여준다
+        blogViewCountService.increase(blogId);
+        blog.setBlogCount(blog.getBlogCount() + blogViewCountService.getPendingCount(blogId));
         model.addAttribute("blog", blog);
         //model.addAttribute("blog", blogService.findById(blogId));
 
+        // 본문은 저장할 때 변환해둔 HTML을 방금 읽은 글로 바로 가져온다
+        // 화면에서 /blog/html/{blogId}를 include하면 글을 한 번 더 조회하게 되므로 모델에 담아서 넘긴다
+        StringWriter blogHtml = new StringWriter();
+        blogRenderService.writeHtml(blog, blogHtml);
+        model.addAttribute("blogHtml", blogHtml.toString());
+
+        // 첫 페이지 댓글과, 화면에서 이어서 불러올 다음 페이지 커서, 변경분 동기화 토큰
+        model.addAttribute("replies", detail.getReplies());
+        model.addAttribute("replyNextCursor", detail.getNextReplyCursor());
+        model.addAttribute("replySyncToken", replyService.createSyncToken(detail.getLoadedAt()));
+
         // /WEB-INF/views/blog/detail.jsp
         return "blog/detail";
     }
 
+    // 글 본문(Markdown) 전체 주소 패턴
+    // /blog/content/{blogId}
+    // 긴 글은 blog_content에 앞부분만 있으므로 API 등에서 본문 전체가 필요하면 이 주소로 받는다
+    // 풀어낸 본문을 문자열로 모아서 모델에 담지 않고 응답에 바로 쓰므로, 아주 긴 본문도 조금씩 풀리면서 내려간다
+    @RequestMapping(value = "/content/{blogId}", method = RequestMethod.GET)
+    public void content(@PathVariable long blogId, HttpServletResponse response) throws IOException {
+        Blog blog = idFilterService.mightContainBlog(blogId) ? blogService.findById(blogId) : null;
+        if(blog == null){
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("text/plain;charset=UTF-8");
+        blogContentService.writeContent(blog, response.getWriter());
+    }
+
+    // 글 본문을 변환한 HTML 주소 패턴
+    // /blog/html/{blogId}
+    // 저장할 때 변환해둔 HTML을 변환 없이 그대로 출력한다(상세페이지는 같은 HTML을 모델로 받는다)
+    @RequestMapping(value = "/html/{blogId}", method = RequestMethod.GET)
+    public void html(@PathVariable long blogId, HttpServletResponse response) throws IOException {
+        Blog blog = idFilterService.mightContainBlog(blogId) ? blogService.findById(blogId) : null;
+        if(blog == null){
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("text/html;charset=UTF-8");
+        blogRenderService.writeHtml(blog, response.getWriter());
+    }
+
+    // 없는 글번호는 흔한 요청이므로 예외를 만들어 던지지 않고 404 상태로 안내 페이지만 보여준다
+    private String notFound(HttpServletResponse response){
+        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        return NOT_FOUND_VIEW;
+    }
+
+    private long toEpochMillis(LocalDateTime time){
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // 여러 글을 한 번에 조회하는 API
+    // /blog/api?ids=3,1,2
+    // 요청한 순서대로 글을 돌려주고, 없거나 삭제된 글번호는 missing에 따로 담는다(한 번에 최대 1000개)
+    // 긴 글(bodyStored가 true)은 본문 앞부분만 담기므로 본문 전체는 /blog/content/{blogId} 로 받는다
+    // 조회수는 올리지 않는다(관리 화면 등에서 목록을 채우는 용도)
+    @RequestMapping(value = "/api", method = RequestMethod.GET, params = "ids")
+    public ResponseEntity<?> findByIds(@RequestParam List<Long> ids){
+        MultiGetResponseDTO<Blog> result;
+        try {
+            result = blogService.findByIds(ids);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        // 목록, 검색, 상세페이지와 같이 아직 DB에 반영되지 않은 조회수를 더해서 보여준다(조회수를 올리지는 않는다)
+        for(Blog blog : result.getFound()){
+            blog.setBlogCount(blog.getBlogCount() + blogViewCountService.getPendingCount(blog.getBlogId()));
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // 채팅방 페이지 주소 패턴
+    // /blog/chat/{blogId}
+    // 글 정보만 넘겨주고, 메세지는 화면에서 /chat/{blogId} 로 주고받는다
+    @RequestMapping("/chat/{blogId}")
+    public String chat(Model model, @PathVariable long blogId, HttpServletResponse response){
+        Blog blog = idFilterService.mightContainBlog(blogId) ? blogService.findById(blogId) : null;
+        if(blog == null){
+            return notFound(response);
+        }
+        model.addAttribute("blog", blog);
+        // /WEB-INF/views/blog/chat.jsp
+        return "blog/chat";
+    }
+
     // 폼 페이지와 실제 등록 url은 같은 url을 쓰도록한다
     // 대신 폼 페이지는 GET방식으로 접속했을때 연결하고
     // 폼에서 작성완료된 내용은 POST방식으로 제출해 저장하도록 만들어준다.
@@ -100,6 +362,10 @@ public class BlogController {
     public String update(long blogId, Model model){
         // blogId를 이용해 blog객체를 받아오기
         Blog blog = blogService.findById(blogId);
+        // 긴 글은 앞부분만 들어있으므로 수정할 수 있게 본문 전체로 채운다
+        if(blog != null && blog.isBodyStored()){
+            blog.setBlogContent(blogContentService.findContent(blog));
+        }
         // .jsp로 보내기 위해 적재
         model.addAttribute("blog", blog);
         return "blog/blog-update-form";
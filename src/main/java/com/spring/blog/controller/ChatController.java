@@ -0,0 +1,72 @@
+package com.spring.blog.controller;
+
+import com.spring.blog.dto.ChatSendRequestDTO;
+import com.spring.blog.entity.ChatMessage;
+import com.spring.blog.service.ChatService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+// 글마다 열리는 채팅방 REST 컨트롤러(화면은 /blog/chat/{blogId})
+@RestController
+@RequestMapping("/chat")
+public class ChatController {
+
+    ChatService chatService;
+
+    @Autowired
+    public ChatController(ChatService chatService){
+        this.chatService = chatService;
+    }
+
+    // 채팅방 메세지를 받는 SSE 연결
+    // http://localhost:8080/chat/{blogId}/stream
+    // "chat" 이벤트로 메세지가, 느려서 놓친 메세지가 있으면 "resync" 이벤트가 온다(그때는 최근 메세지를 다시 받아온다)
+    // 실시간 연결이 가득 찼으면 503으로 응답하고, 화면은 최근 메세지를 주기적으로 조회한다
+    @RequestMapping(value = "/{blogId}/stream", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable long blogId){
+        SseEmitter emitter;
+        try {
+            emitter = chatService.subscribe(blogId);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if(emitter == null){
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    // 채팅방의 최근 메세지(메모리에 남아있는 만큼)
+    // http://localhost:8080/chat/{blogId}/messages?after={마지막으로 받은 메세지 번호}
+    @RequestMapping(value = "/{blogId}/messages", method = RequestMethod.GET)
+    public ResponseEntity<List<ChatMessage>> history(@PathVariable long blogId,
+                                                     @RequestParam(defaultValue = "0") long after){
+        List<ChatMessage> messages = chatService.findHistory(blogId, after);
+        if(messages == null){
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(messages);
+    }
+
+    // 채팅방에 메세지 보내기, 번호가 매겨진 메세지를 돌려준다
+    @RequestMapping(value = "/{blogId}/messages", method = RequestMethod.POST)
+    public ResponseEntity<?> send(@PathVariable long blogId, @RequestBody ChatSendRequestDTO chatSendRequestDTO){
+        try {
+            ChatMessage message = chatService.send(blogId, chatSendRequestDTO.getSender(), chatSendRequestDTO.getContent());
+            if(message == null){
+                return new ResponseEntity<>("없는 글번호입니다.", HttpStatus.NOT_FOUND);
+            }
+            return ResponseEntity.ok(message);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
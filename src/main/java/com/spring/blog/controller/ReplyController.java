@@ -1,25 +1,57 @@
 package com.spring.blog.controller;
 
+import com.spring.blog.dto.MultiGetResponseDTO;
+import com.spring.blog.dto.ReplyChangesResponseDTO;
 import com.spring.blog.dto.ReplyCreateRequestDTO;
+import com.spring.blog.dto.ReplyPageResponseDTO;
 import com.spring.blog.dto.ReplyResponseDTO;
 import com.spring.blog.dto.ReplyUpdateRequestDTO;
-import com.spring.blog.exception.NotFoundReplyByReplyIdException;
+import com.spring.blog.dto.ReplyValidatorDTO;
+import com.spring.blog.exception.NotFoundBlogIdException;
+import com.spring.blog.service.IdFilterService;
+import com.spring.blog.service.ReplyGroupCommitService;
+import com.spring.blog.service.ReplyPushService;
 import com.spring.blog.service.ReplyService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/reply")
 public class ReplyController {
 
+    // 없는 댓글 응답은 요청마다 만들지 않고 같은 객체를 돌려준다(ResponseEntity는 바뀌지 않는 객체)
+    private static final ResponseEntity<String> REPLY_NOT_FOUND =
+            new ResponseEntity<>("찾는 댓글이 없습니다.", HttpStatus.NOT_FOUND);
+
     // 컨트롤러는 서비스를 호출
     ReplyService replyService;
 
-    public ReplyController(ReplyService replyService){
+    // 댓글 변경 이벤트 실시간 전송 담당
+    ReplyPushService replyPushService;
+
+    // 댓글 등록 요청을 모아서 한 번에 저장(blog.reply.group-commit.enabled가 켜진 경우)
+    ReplyGroupCommitService replyGroupCommitService;
+
+    // 확실히 없는 댓글번호는 DB에 묻지 않고 걸러낸다
+    IdFilterService idFilterService;
+
+    public ReplyController(ReplyService replyService, ReplyPushService replyPushService,
+                           ReplyGroupCommitService replyGroupCommitService, IdFilterService idFilterService){
         this.replyService = replyService;
+        this.replyPushService = replyPushService;
+        this.replyGroupCommitService = replyGroupCommitService;
+        this.idFilterService = idFilterService;
     }
 
     // 글 번호에 맞는 전체 댓글을 가져오는 메서드
@@ -27,37 +59,125 @@ public class ReplyController {
     // http://localhost:8080/reply/{blogId}/all
     @RequestMapping(value = "/{blogId}/all", method = RequestMethod.GET)
     // rest서버는 응답시 응답코드와 응답객체를 넘기기 때문에 ResponseEntity<자료형>을 리턴
-    public ResponseEntity<List<ReplyResponseDTO>> findAllReplies(@PathVariable long blogId){
+    // 댓글 목록을 가져오기 전에 댓글 수와 최근 수정시각만 먼저 확인해서
+    // 브라우저가 가진 목록과 같다면(If-None-Match, If-Modified-Since) 직렬화 없이 304로 응답한다
+    public ResponseEntity<List<ReplyResponseDTO>> findAllReplies(@PathVariable long blogId, WebRequest webRequest){
+        ReplyValidatorDTO validator = replyService.findValidatorByBlogId(blogId);
+        long lastModified = validator.getLastUpdatedAt() == null ? -1
+                : validator.getLastUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String eTag = "\"replies-" + blogId + "-" + validator.getReplyCount() + "-" + lastModified + "\"";
+        if(webRequest.checkNotModified(eTag, lastModified)){
+            return null; // 304 응답은 스프링이 처리한다
+        }
+
         // 서비스에서 리플 목록을 들고온다
         List<ReplyResponseDTO> replies = replyService.findAllByBlogId(blogId);
         return ResponseEntity.ok()//replies)
+                             .cacheControl(CacheControl.noCache()) // 브라우저가 매번 변경 여부를 확인하도록
                              .body(replies);
     }
 
+    // 글 번호에 맞는 댓글을 커서 방식으로 나눠서 가져오는 메서드
+    // http://localhost:8080/reply/{blogId}?after={마지막으로 받은 댓글번호}&size={개수}
+    // 첫 페이지는 after를 생략하면 되고, size 파라미터가 있어야 아래의 단일 댓글 조회와 구분된다.
+    @RequestMapping(value = "/{blogId}", method = RequestMethod.GET, params = "size")
+    public ResponseEntity<ReplyPageResponseDTO> findReplyPage(@PathVariable long blogId,
+                                                              @RequestParam(defaultValue = "0") long after,
+                                                              @RequestParam int size){
+        return ResponseEntity.ok(replyService.findPageByBlogId(blogId, after, size));
+    }
+
+    // 마지막으로 받은 토큰 이후에 생성, 수정, 삭제된 댓글만 가져오는 메서드
+    // http://localhost:8080/reply/{blogId}/changes?since={토큰}
+    // 토큰 없이 요청하면 resync=true와 함께 새 토큰을 받으므로, 전체 댓글을 불러온 뒤 그 토큰부터 따라가면 된다.
+    @RequestMapping(value = "/{blogId}/changes", method = RequestMethod.GET)
+    public ResponseEntity<ReplyChangesResponseDTO> findReplyChanges(@PathVariable long blogId,
+                                                                    @RequestParam(required = false) String since){
+        return ResponseEntity.ok(replyService.findChangesByBlogId(blogId, since));
+    }
+
+    // 글 번호에 달린 댓글이 생성, 수정, 삭제될 때마다 이벤트를 받는 SSE 연결
+    // http://localhost:8080/reply/{blogId}/stream
+    // "reply" 이벤트로 ReplyEventDTO가, 놓친 이벤트가 있으면 "resync" 이벤트가 온다(그때는 변경분 조회로 따라잡는다)
+    // 실시간 연결이 가득 찼으면 503으로 응답하고, 화면은 변경분을 주기적으로 조회한다
+    @RequestMapping(value = "/{blogId}/stream", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamReplies(@PathVariable long blogId){
+        try {
+            return ResponseEntity.ok(replyPushService.subscribe(blogId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     // replyId를 주소에 포함시켜서 요청하면 해당 번호 댓글 정보를 JSON으로 리턴하는 메서드
     @RequestMapping(value = "/{replyId}", method = RequestMethod.GET)
+    // 없는 번호는 예외를 만들어 던지지 않고 바로 404로 응답한다
     public ResponseEntity<?> findByReplyId(@PathVariable long replyId) {
+        // 크롤러 등이 보내는 없는 댓글번호는 DB를 다녀오지 않는다
+        if(!idFilterService.mightContainReply(replyId)){
+            return REPLY_NOT_FOUND;
+        }
 
         // 서비스에서 특정 번호 리플을 가져온다
         ReplyResponseDTO replyResponseDTO = replyService.findByReplyId(replyId);
         if (replyResponseDTO == null) {
-            try {
-                throw new NotFoundReplyByReplyIdException("없는 리플 번호를 조회했습니다.");
-            } catch (NotFoundReplyByReplyIdException e) {
-                e.printStackTrace(); // 예외 발생했을 때 콘솔에 뜨는 메세지를 보고싶을 때 사용하는 구문
-                return new ResponseEntity<>("찾는 댓글이 없습니다.", HttpStatus.NOT_FOUND);
-            }
+            return REPLY_NOT_FOUND;
         }
         //return new ResponseEntity<ReplyResponseDTO>(replyResponseDTO, HttpStatus.OK);
         return ResponseEntity.ok(replyResponseDTO);
     }
 
+    // 여러 댓글을 한 번에 조회하는 메서드
+    // http://localhost:8080/reply?ids=5,3,9
+    // 요청한 순서대로 댓글을 돌려주고, 없거나 삭제된 댓글번호는 missing에 따로 담는다(한 번에 최대 1000개)
+    @RequestMapping(value = "", method = RequestMethod.GET, params = "ids")
+    public ResponseEntity<?> findByReplyIds(@RequestParam List<Long> ids){
+        try {
+            MultiGetResponseDTO<ReplyResponseDTO> result = replyService.findByReplyIds(ids);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // post방식으로 /reply 주소로 요청이 들어왔을때 실행되는 insertReply()메서드
     @RequestMapping(value = "", method = RequestMethod.POST) // Rest컨트롤러는 데이터를 JSON으로 주고받음
-    public ResponseEntity<String> insertReply(@RequestBody ReplyCreateRequestDTO replyCreateRequestDTO){
+    // 저장된 댓글(댓글번호 포함)을 돌려주므로 화면에서는 목록을 다시 불러오지 않고 바로 추가할 수 있다
+    // 모아서 저장하기가 켜져 있으면 요청 스레드를 붙잡지 않고, 다른 댓글과 함께 커밋된 뒤에 응답한다
+    // (없거나 삭제된 글이면 404, 대기열이 가득 차면 503, 저장에 실패하면 500)
+    public CompletableFuture<ResponseEntity<?>> insertReply(@RequestBody ReplyCreateRequestDTO replyCreateRequestDTO){
         //System.out.println("데이터가 들어오는지 확인: "+ replyCreateRequestDTO);
-        replyService.save(replyCreateRequestDTO);
-        return ResponseEntity.ok("댓글이 등록되었습니다.");
+        if(!replyGroupCommitService.isEnabled()){
+            try {
+                return CompletableFuture.completedFuture(ResponseEntity.ok(replyService.save(replyCreateRequestDTO)));
+            } catch (NotFoundBlogIdException e) {
+                return CompletableFuture.completedFuture(new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND));
+            }
+        }
+        return replyGroupCommitService.submit(replyCreateRequestDTO)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if(cause instanceof NotFoundBlogIdException){
+                        return new ResponseEntity<>(cause.getMessage(), HttpStatus.NOT_FOUND);
+                    }
+                    if(cause instanceof RejectedExecutionException){
+                        return new ResponseEntity<>(cause.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+                    }
+                    return new ResponseEntity<>("댓글 저장에 실패했습니다.", HttpStatus.INTERNAL_SERVER_ERROR);
+                });
+    }
+
+    // post방식으로 /reply/batch 주소로 댓글 배열을 보내면 한 번에 저장하는 insertReplies() 메서드
+    // 다른 곳에서 댓글을 옮겨올 때 댓글마다 요청하지 않아도 된다
+    // 요청 순서대로 항목별 댓글번호 또는 실패 사유를 돌려주고, 일부가 실패해도 나머지는 저장된다
+    @RequestMapping(value = "/batch", method = RequestMethod.POST)
+    public ResponseEntity<?> insertReplies(@RequestBody List<ReplyCreateRequestDTO> replyCreateRequestDTOList){
+        try {
+            return ResponseEntity.ok(replyService.saveAll(replyCreateRequestDTOList));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 
     // delete 방식으로 /reply/{댓글번호} 주소로 요청이 들어왔을 때 실행되는 deleteReply() 메서드
@@ -71,13 +191,15 @@ public class ReplyController {
     // 수정로직은 put, patch메서드로 /reply/{댓글번호}/ 주소로
     // ReplyUpdateRequestDTO를 requestBody로 받아 요청처리를 하게 만들기
     @RequestMapping(value = "/{replyId}", method = {RequestMethod.PUT, RequestMethod.PATCH})
-    public ResponseEntity<String> updateReply(@PathVariable long replyId,
-                                              @RequestBody ReplyUpdateRequestDTO replyUpdateRequestDTO) {
-        System.out.println("replyId 주입전: "+ replyUpdateRequestDTO);
+    public ResponseEntity<?> updateReply(@PathVariable long replyId,
+                                         @RequestBody ReplyUpdateRequestDTO replyUpdateRequestDTO) {
         replyUpdateRequestDTO.setReplyId(replyId);
-        System.out.println("replyId 주입후: " + replyUpdateRequestDTO);
-        replyService.update(replyUpdateRequestDTO);
-        return ResponseEntity.ok("댓글이 수정되었습니다.");
+        // 수정된 댓글을 돌려주므로 화면에서는 해당 댓글만 바꿔주면 된다
+        ReplyResponseDTO replyResponseDTO = replyService.update(replyUpdateRequestDTO);
+        if(replyResponseDTO == null){
+            return REPLY_NOT_FOUND;
+        }
+        return ResponseEntity.ok(replyResponseDTO);
     }
 
 
@@ -0,0 +1,72 @@
+package com.spring.blog.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+// replica는 primary보다 조금 늦게 반영되므로, 글이나 댓글을 쓴 사용자가 바로 다음 화면에서 자기 글을 못 보는 일이 없도록
+// 쓰기 요청(GET, HEAD, OPTIONS 이외)을 보낸 브라우저에는 sticky-window-ms 동안 유효한 쿠키를 주고,
+// 그 쿠키가 살아있는 동안의 요청은 읽기 전용 트랜잭션도 primary에서 읽게 한다
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    // 값은 primary에서 읽어야 하는 마지막 시각(epoch ms)
+    static final String COOKIE_NAME = "primary-until";
+
+    long stickyWindowMillis;
+
+    public ReadYourWritesInterceptor(long stickyWindowMillis){
+        this.stickyWindowMillis = stickyWindowMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = System.currentTimeMillis();
+        if(isWrite(request.getMethod())){
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + stickyWindowMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (stickyWindowMillis + 999) / 1000));
+            response.addCookie(cookie);
+            // 쓰기 요청 안에서 이어지는 읽기도 방금 쓴 내용을 봐야 한다
+            ReplicaRoutingContext.pinToPrimary();
+        } else if(readPrimaryUntil(request) > now){
+            ReplicaRoutingContext.pinToPrimary();
+        }
+        return true;
+    }
+
+    // 비동기 요청(댓글 모아서 저장하기 등)은 요청 스레드가 먼저 풀려나므로 여기서도 지운다
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ReplicaRoutingContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReplicaRoutingContext.clear();
+    }
+
+    private boolean isWrite(String method){
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+
+    private long readPrimaryUntil(HttpServletRequest request){
+        Cookie[] cookies = request.getCookies();
+        if(cookies == null){
+            return 0;
+        }
+        for(Cookie cookie : cookies){
+            if(COOKIE_NAME.equals(cookie.getName())){
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0; // 잘못된 쿠키는 없는 것으로 본다
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.spring.blog.datasource;
+
+// 지금 처리 중인 요청이 읽기 전용 트랜잭션이라도 primary에서 읽어야 하는지(read-your-writes) 표시해둔다
+// 요청 스레드에만 의미가 있으므로 ReadYourWritesInterceptor가 요청이 끝날 때 반드시 지운다
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRoutingContext(){
+    }
+
+    public static void pinToPrimary(){
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary(){
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    public static void clear(){
+        PINNED_TO_PRIMARY.remove();
+    }
+}
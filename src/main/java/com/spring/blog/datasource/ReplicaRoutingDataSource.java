@@ -0,0 +1,210 @@
+package com.spring.blog.datasource;
+
+import com.spring.blog.dto.DataSourceStatsDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// 읽기 전용 트랜잭션(@Transactional(readOnly = true))의 커넥션은 replica 중 하나에서, 나머지는 모두 primary에서 빌려준다
+// 트랜잭션이 시작될 때는 아직 readOnly 표시가 되기 전이므로 LazyConnectionDataSourceProxy로 감싸서
+// 첫 SQL을 실행하는 시점에 커넥션을 고르게 해야 한다(DataSourceRoutingConfig 참고)
+// replica는 연속 eject-after-failures번 연결에 실패하면 읽기 대상에서 빠지고, 주기적인 확인(checkHealth)에 성공하면 다시 들어온다
+// 쓸 수 있는 replica가 없거나 연결에 실패하면 primary에서 읽는다
+@Log4j2
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    public static final String ROUND_ROBIN = "round-robin";
+    public static final String LEAST_LOADED = "least-loaded";
+
+    // 연결 확인시 응답을 기다리는 시간(초)
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final Target primary;
+
+    private final List<Target> replicas;
+
+    // round-robin: 차례대로, least-loaded: 사용 중인 커넥션이 가장 적은 replica
+    private final boolean leastLoaded;
+
+    private final int ejectAfterFailures;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    // 방금 쓴 사용자라서 primary에서 읽은 횟수와, replica를 쓸 수 없어서 primary에서 읽은 횟수
+    private final LongAdder stickyReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    String strategy, int ejectAfterFailures){
+        if(!ROUND_ROBIN.equals(strategy) && !LEAST_LOADED.equals(strategy)){
+            throw new IllegalArgumentException("지원하지 않는 replica 선택 방식입니다: " + strategy);
+        }
+        this.primary = new Target("primary", primary);
+        this.replicas = new ArrayList<>(replicas.size());
+        for(int i = 0; i < replicas.size(); i++){
+            this.replicas.add(new Target("replica-" + i, replicas.get(i)));
+        }
+        this.leastLoaded = LEAST_LOADED.equals(strategy);
+        this.ejectAfterFailures = Math.max(1, ejectAfterFailures);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+            return primary.borrow();
+        }
+        if(ReplicaRoutingContext.isPinnedToPrimary()){
+            stickyReads.increment();
+            return primary.borrow();
+        }
+        Target replica = chooseReplica();
+        if(replica == null){
+            fallbackReads.increment();
+            return primary.borrow();
+        }
+        try {
+            Connection connection = replica.borrow();
+            replica.consecutiveFailures.set(0);
+            return connection;
+        } catch (SQLException e) {
+            recordFailure(replica, e);
+            fallbackReads.increment();
+            return primary.borrow();
+        }
+    }
+
+    // 계정을 바꿔서 빌리는 경우는 라우팅하지 않는다
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.dataSource.getConnection(username, password);
+    }
+
+    private Target chooseReplica(){
+        int size = replicas.size();
+        if(size == 0){
+            return null;
+        }
+        // 같은 조건이면 차례대로 돌아가도록 시작 위치를 매번 옮긴다
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Target chosen = null;
+        int chosenActive = Integer.MAX_VALUE;
+        for(int i = 0; i < size; i++){
+            Target replica = replicas.get((start + i) % size);
+            if(!replica.healthy){
+                continue;
+            }
+            if(!leastLoaded){
+                return replica;
+            }
+            int active = replica.activeConnections();
+            if(active < chosenActive){
+                chosen = replica;
+                chosenActive = active;
+            }
+        }
+        return chosen;
+    }
+
+    private void recordFailure(Target replica, SQLException e){
+        int failures = replica.consecutiveFailures.incrementAndGet();
+        if(failures >= ejectAfterFailures && replica.healthy){
+            replica.healthy = false;
+            log.warn("{} 연결이 {}번 연속 실패해서 읽기 대상에서 제외합니다.", replica.name, failures, e);
+        }
+    }
+
+    // replica마다 커넥션을 하나 빌려서 살아있는지 확인한다
+    // 제외된 replica는 이 확인에 성공해야만 다시 읽기 대상이 된다
+    @Scheduled(fixedDelayString = "${blog.datasource.routing.health-check-interval-ms:5000}")
+    public void checkHealth(){
+        for(Target replica : replicas){
+            boolean valid;
+            try(Connection connection = replica.dataSource.getConnection()){
+                valid = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                recordFailure(replica, e);
+                continue;
+            }
+            if(!valid){
+                recordFailure(replica, new SQLException("연결 확인(isValid) 실패"));
+                continue;
+            }
+            replica.consecutiveFailures.set(0);
+            if(!replica.healthy){
+                replica.healthy = true;
+                log.info("{} 연결이 복구되어 다시 읽기 대상에 포함합니다.", replica.name);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats(){
+        List<DataSourceStatsDTO> dataSources = new ArrayList<>(replicas.size() + 1);
+        dataSources.add(primary.toStats());
+        for(Target replica : replicas){
+            dataSources.add(replica.toStats());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("strategy", leastLoaded ? LEAST_LOADED : ROUND_ROBIN);
+        result.put("stickyReads", stickyReads.sum());
+        result.put("fallbackReads", fallbackReads.sum());
+        result.put("dataSources", dataSources);
+        return result;
+    }
+
+    // replica 커넥션 풀은 여기서 만들었으므로 함께 닫는다(primary는 빈으로 등록되어 스프링이 닫는다)
+    public void close(){
+        for(Target replica : replicas){
+            replica.dataSource.close();
+        }
+    }
+
+    // 커넥션 풀 하나와 그 상태
+    private static class Target {
+        final String name;
+        final HikariDataSource dataSource;
+        final LongAdder borrowed = new LongAdder();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        volatile boolean healthy = true;
+
+        Target(String name, HikariDataSource dataSource){
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        Connection borrow() throws SQLException {
+            Connection connection = dataSource.getConnection();
+            borrowed.increment();
+            return connection;
+        }
+
+        // 첫 커넥션을 빌리기 전에는 풀이 만들어지지 않아 MXBean이 없다
+        int activeConnections(){
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+        DataSourceStatsDTO toStats(){
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return DataSourceStatsDTO.builder()
+                    .name(name)
+                    .healthy(healthy)
+                    .consecutiveFailures(consecutiveFailures.get())
+                    .borrowedConnections(borrowed.sum())
+                    .activeConnections(pool == null ? 0 : pool.getActiveConnections())
+                    .idleConnections(pool == null ? 0 : pool.getIdleConnections())
+                    .build();
+        }
+    }
+}
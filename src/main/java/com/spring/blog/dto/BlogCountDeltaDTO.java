@@ -0,0 +1,12 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 메모리에 모아둔 조회수 증가분, 일괄 등록한 댓글 수 등을 여러 글에 한 번에 반영하기 위한 DTO
+// 글번호와 그 글에 더해줄 증가분
+@Getter @Setter @ToString
+@AllArgsConstructor @NoArgsConstructor @Builder
+public class BlogCountDeltaDTO {
+    private long blogId;
+    private long delta;
+}
@@ -0,0 +1,27 @@
+package com.spring.blog.dto;
+
+import com.spring.blog.entity.Blog;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// detail.jsp에 글과 댓글 첫 페이지를 함께 넘겨주기 위한 DTO
+// 글과 댓글을 쿼리 한 번으로 가져온다(BlogMapper.xml의 blogDetailMap 참고)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class BlogDetailDTO {
+
+    private long blogId;
+
+    private Blog blog;
+
+    // 댓글번호 순서대로 정렬된 첫 페이지 댓글
+    private List<ReplyResponseDTO> replies;
+
+    // 다음 페이지 요청시 after 파라미터로 넘길 댓글번호(더 가져올 댓글이 없으면 null)
+    private Long nextReplyCursor;
+
+    // 조회한 시점의 DB 시각(댓글 변경분 동기화 토큰 계산용)
+    private LocalDateTime loadedAt;
+}
@@ -0,0 +1,17 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 상세페이지가 바뀌었는지 판단하기 위한 값(ETag, Last-Modified 계산용)
+// 상세페이지에 댓글 첫 페이지까지 같이 그리므로 글 수정시각과 댓글 수, 댓글 최근 수정시각을 함께 보고,
+// 화면에 보여주는 조회수(DB에 반영된 조회수)도 함께 본다
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class BlogDetailValidatorDTO {
+    private LocalDateTime updatedAt;
+    private long blogCount;
+    private long replyCount;
+    private LocalDateTime lastReplyUpdatedAt;
+}
@@ -0,0 +1,23 @@
+package com.spring.blog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.Reply;
+import lombok.*;
+
+// 내보내기/가져오기 파일(NDJSON)의 한 줄에 해당하는 DTO
+// {"type":"blog","blog":{...}} 또는 {"type":"reply","reply":{...}} 형태로 한 줄에 하나씩 기록된다
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BlogExportRecordDTO {
+
+    public static final String TYPE_BLOG = "blog";
+    public static final String TYPE_REPLY = "reply";
+
+    private String type;
+
+    private Blog blog;
+
+    private Reply reply;
+}
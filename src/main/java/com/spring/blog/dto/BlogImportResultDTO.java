@@ -0,0 +1,13 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 가져오기(/blog/import) 결과로 저장된 글, 댓글 개수를 알려주는 DTO
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class BlogImportResultDTO {
+
+    private long blogCount;
+
+    private long replyCount;
+}
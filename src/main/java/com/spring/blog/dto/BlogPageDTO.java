@@ -0,0 +1,29 @@
+package com.spring.blog.dto;
+
+import com.spring.blog.entity.BlogSummary;
+import lombok.*;
+
+import java.util.List;
+
+// list.jsp에 페이징 정보와 함께 글 목록을 넘겨주기 위한 DTO
+@Getter @Setter @Builder
+@AllArgsConstructor @NoArgsConstructor
+public class BlogPageDTO {
+
+    // 목록에는 본문이 필요없으므로 BlogSummary로 담는다
+    private List<BlogSummary> blogList;
+
+    // 현재 페이지 번호(커서 방식으로 조회한 경우에는 0)
+    private int currentPageNum;
+
+    // 화면 하단에 깔리는 페이지 버튼의 시작번호와 끝번호
+    private int startPageNum;
+    private int endPageNum;
+
+    // 전체 페이지 수와 전체 글 개수
+    private int totalPages;
+    private long totalCount;
+
+    // 다음 페이지를 커서 방식으로 요청할 때 넘길 글번호(마지막 페이지면 null)
+    private Long nextCursor;
+}
@@ -0,0 +1,11 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 채팅 메세지를 보낼 때 받는 요청 DTO(글번호는 주소에 들어있다)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class ChatSendRequestDTO {
+    private String sender;
+    private String content;
+}
@@ -0,0 +1,25 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// primary, replica 커넥션 풀 하나의 상태(/admin/datasources 응답용)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class DataSourceStatsDTO {
+
+    // primary, replica-0, replica-1 ...
+    private String name;
+
+    // 읽기 요청을 받을 수 있는지(primary는 항상 true, replica는 연속 실패로 제외되면 false)
+    private boolean healthy;
+
+    // 연속으로 연결에 실패한 횟수(성공하면 0으로 돌아간다)
+    private int consecutiveFailures;
+
+    // 서버가 뜬 뒤로 이 풀에서 빌려준 커넥션 수
+    private long borrowedConnections;
+
+    // 지금 사용 중인 커넥션 수와 쉬고 있는 커넥션 수(풀이 아직 만들어지지 않았으면 0)
+    private int activeConnections;
+    private int idleConnections;
+}
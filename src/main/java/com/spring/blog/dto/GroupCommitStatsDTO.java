@@ -0,0 +1,30 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 댓글 모아서 저장하기(group commit)의 현재 상태(/admin/reply-writes 응답용)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class GroupCommitStatsDTO {
+
+    // 모아서 저장하기가 켜져 있는지 여부(blog.reply.group-commit.enabled)
+    private boolean enabled;
+
+    // 저장을 기다리는 댓글 수와 대기열 크기
+    private int queueDepth;
+    private int queueCapacity;
+
+    // 커밋한 묶음 수, 그 묶음으로 저장한 댓글 수와 묶음 하나의 평균, 최대, 직전 크기
+    private long committedBatches;
+    private long committedReplies;
+    private double averageBatchSize;
+    private int maxBatchSize;
+    private int lastBatchSize;
+
+    // 묶음 저장이 실패해서 한 건씩 다시 저장한 묶음 수, 그래도 저장하지 못한 댓글 수
+    private long fallbackBatches;
+    private long failedReplies;
+
+    // 대기열이 가득 차서 받지 못한 댓글 수
+    private long rejectedReplies;
+}
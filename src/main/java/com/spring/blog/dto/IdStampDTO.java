@@ -0,0 +1,15 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 글번호 또는 댓글번호와 작성시각만 담는 DTO(번호 존재 필터를 채울 때 사용)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class IdStampDTO {
+
+    private long id;
+
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,16 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// 번호 여러 개로 한 번에 조회한 결과(/reply?ids=, /blog/api?ids= 응답용)
+// found에는 요청한 순서대로(중복된 번호는 한 번만) 찾은 항목을, missing에는 없거나 삭제된 번호를 요청 순서대로 담는다
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class MultiGetResponseDTO<T> {
+
+    private List<T> found;
+
+    private List<Long> missing;
+}
@@ -0,0 +1,23 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 삭제 표시된 글 정리 진행상황(/admin/purge 응답용)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class PurgeStatsDTO {
+
+    // 아직 정리되지 않은 삭제 표시된 글 수
+    private long pendingBlogs;
+
+    // 지금 정리 중인 글번호(정리 중이 아니면 null)와, 그 글에서 지금까지 지운 댓글 수
+    private Long currentBlogId;
+    private long currentBlogPurgedReplies;
+
+    // 서버가 뜬 뒤로 실제로 지운 글 수와 댓글 수
+    private long purgedBlogs;
+    private long purgedReplies;
+
+    // 직전 댓글 묶음 하나를 지우는 데 걸린 시간(ms)
+    private long lastChunkMillis;
+}
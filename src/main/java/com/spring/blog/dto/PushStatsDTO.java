@@ -0,0 +1,24 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 실시간 전송(SSE) 방송기 하나의 현재 상태(/admin/push 응답용)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class PushStatsDTO {
+
+    // 방송기 이름(예: reply)
+    private String name;
+
+    // 구독자가 있는 주제(글번호) 수와 전체 구독자 수
+    private int topics;
+    private int subscribers;
+
+    // 최대 구독자 수와, 가득 차서 거절한 구독 수
+    private int maxSubscribers;
+    private long rejectedSubscribers;
+
+    // 지금까지 방송한 이벤트 수와, 느린 구독자의 큐가 넘쳐서 버린 이벤트 수
+    private long publishedEvents;
+    private long droppedEvents;
+}
@@ -0,0 +1,19 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 댓글 일괄 등록(/reply/batch) 결과를 요청 순서대로 하나씩 알려주는 DTO
+// 저장에 성공하면 replyId가, 실패하면 error가 채워진다
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class ReplyBatchResultDTO {
+
+    // 요청 배열에서의 위치(0부터 시작)
+    private int index;
+
+    // DB가 생성한 댓글번호(실패한 경우 null)
+    private Long replyId;
+
+    // 실패 사유(성공한 경우 null)
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// 특정 시점(token) 이후에 생성, 수정, 삭제된 댓글만 보내주기 위한 응답 DTO
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class ReplyChangesResponseDTO {
+
+    // 새로 생성되었거나 수정된 댓글(클라이언트는 replyId 기준으로 덮어쓰면 된다)
+    private List<ReplyResponseDTO> upserted;
+
+    // 삭제된 댓글번호 목록
+    private List<Long> deleted;
+
+    // 다음 변경분 요청시 since 파라미터로 넘길 값
+    private String nextToken;
+
+    // true면 변경분만으로 따라잡을 수 없으므로 전체 댓글을 다시 불러와야 한다
+    private boolean resync;
+}
@@ -0,0 +1,12 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 댓글 수 재계산시 글에 저장된 댓글 수(reply_count)와 실제 댓글 수가 다른 글
+@Getter @Setter @ToString
+@AllArgsConstructor @NoArgsConstructor @Builder
+public class ReplyCountMismatchDTO {
+    private long blogId;
+    private long storedCount;
+    private long actualCount;
+}
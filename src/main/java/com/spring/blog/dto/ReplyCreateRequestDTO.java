@@ -10,6 +10,15 @@ public class ReplyCreateRequestDTO {
     private long blogId;
     private String replyWriter;
     private String replyContent;
+    // INSERT 후 DB가 생성한 댓글번호를 돌려받기 위한 필드(요청시에는 보내지 않는다)
+    private long replyId;
+
+    // 글번호, 댓글쓴이, 댓글내용만으로 생성하는 생성자
+    public ReplyCreateRequestDTO(long blogId, String replyWriter, String replyContent){
+        this.blogId = blogId;
+        this.replyWriter = replyWriter;
+        this.replyContent = replyContent;
+    }
 
     // 엔터티 클래스를 DTO로 변환해주는 메서드
     public ReplyCreateRequestDTO(Reply reply){
@@ -0,0 +1,26 @@
+package com.spring.blog.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+// 댓글이 생성, 수정, 삭제되었을 때 커밋 후에 발행하는 이벤트
+// 같은 글을 보고 있는 화면에 SSE로 그대로 전달된다(/reply/{blogId}/stream)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReplyEventDTO {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    // created, updated, deleted 중 하나
+    private String type;
+
+    private long blogId;
+
+    private long replyId;
+
+    // 생성, 수정된 댓글(삭제 이벤트에는 없음)
+    private ReplyResponseDTO reply;
+}
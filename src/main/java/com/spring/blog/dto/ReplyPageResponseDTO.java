@@ -0,0 +1,16 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// 댓글을 커서 방식으로 나눠서 보내줄 때 사용하는 응답 DTO
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class ReplyPageResponseDTO {
+
+    private List<ReplyResponseDTO> replies;
+
+    // 다음 페이지 요청시 after 파라미터로 넘길 댓글번호(더 가져올 댓글이 없으면 null)
+    private Long nextCursor;
+}
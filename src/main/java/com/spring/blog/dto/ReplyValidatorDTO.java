@@ -0,0 +1,14 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 댓글 목록이 바뀌었는지 판단하기 위한 값(ETag, Last-Modified 계산용)
+// 글번호에 달린 댓글 수(삭제된 댓글 포함)와 가장 최근 수정시각
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class ReplyValidatorDTO {
+    private long replyCount;
+    private LocalDateTime lastUpdatedAt;
+}
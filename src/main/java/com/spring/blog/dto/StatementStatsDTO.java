@@ -0,0 +1,23 @@
+package com.spring.blog.dto;
+
+import lombok.*;
+
+// 매퍼 구문 하나의 직전 집계구간 실행 통계(/admin/statements 응답용)
+@Getter @Setter @AllArgsConstructor
+@NoArgsConstructor @ToString @Builder
+public class StatementStatsDTO {
+
+    // 매퍼 구문 id(예: com.spring.blog.repository.ReplyRepository.findAllByBlogId)
+    private String statementId;
+
+    // 실행 횟수, 조회된(또는 변경된) 행 수, 실패 횟수
+    private long count;
+    private long rows;
+    private long errors;
+
+    // 실행시간 백분위(ms)
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+}
@@ -6,7 +6,7 @@ import java.time.LocalDateTime;
 
 // 역직렬화(디비 -> 자바객체)가 가능하도록 blog 테이블 구조에 맞춰서 멤버변수 선언
 @Getter @Setter @ToString
-@AllArgsConstructor @NoArgsConstructor @Builder // 빌터패턴 생성자를 쓸 수 있게 해줌
+@AllArgsConstructor @NoArgsConstructor @Builder(toBuilder = true) // 빌터패턴 생성자를 쓸 수 있게 해줌, toBuilder()로 복사본 생성 가능
 public class Blog {
     private long blogId; // 숫자는 어지간하면 long형을 사용한다
     private String writer;
@@ -15,4 +15,6 @@ public class Blog {
     private LocalDateTime publishedAt;
     private LocalDateTime updatedAt;
     private long blogCount;
+    // true면 blogContent에는 본문 앞부분만 있고, 본문 전체는 blog_body 테이블에 따로 있다(BlogContentService)
+    private boolean bodyStored;
 }
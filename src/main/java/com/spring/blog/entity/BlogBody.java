@@ -0,0 +1,19 @@
+package com.spring.blog.entity;
+
+import com.spring.blog.content.BodyCodec;
+import lombok.*;
+
+// 긴 글의 본문 전체(blog_body 테이블)
+// blog.blog_content에는 앞부분만 남기고, 본문 전체는 codec 방식으로 담아서 여기에 따로 저장한다
+@Getter @Setter @ToString @AllArgsConstructor
+@NoArgsConstructor @Builder
+public class BlogBody {
+
+    private long blogId;
+    private BodyCodec codec;
+    // 풀었을 때의 본문 글자 수(캐시에 담을지 정할 때 사용)
+    private int rawLength;
+    @ToString.Exclude
+    private byte[] body;
+
+}
@@ -0,0 +1,21 @@
+package com.spring.blog.entity;
+
+import com.spring.blog.content.BodyCodec;
+import lombok.*;
+
+// 글 본문(Markdown)을 미리 변환해둔 HTML(blog_html 테이블)
+// html은 blog_body와 같은 방식(codec)으로 담는다
+@Getter @Setter @ToString @AllArgsConstructor
+@NoArgsConstructor @Builder
+public class BlogHtml {
+
+    private long blogId;
+    // 변환한 MarkdownRenderer.VERSION
+    private int rendererVersion;
+    private BodyCodec codec;
+    // 풀었을 때의 HTML 글자 수(캐시에 담을지 정할 때 사용)
+    private int rawLength;
+    @ToString.Exclude
+    private byte[] html;
+
+}
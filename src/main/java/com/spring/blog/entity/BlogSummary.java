@@ -0,0 +1,23 @@
+package com.spring.blog.entity;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 목록 화면용 글 정보(blog 테이블에서 본문(blog_content)을 뺀 컬럼만 담는다)
+// 본문은 최대 4000자라서 목록마다 같이 읽으면 전송량, 메모리 사용량 대부분이 본문이 된다.
+// 본문 전체는 상세 조회(findById)에서만 Blog로 가져온다.
+@Getter @Setter @ToString
+@AllArgsConstructor @NoArgsConstructor @Builder
+public class BlogSummary {
+    private long blogId;
+    private String writer;
+    private String blogTitle;
+    // 본문 앞부분(설정한 길이만큼 DB에서 잘라온다, 설정하지 않으면 null)
+    private String excerpt;
+    private LocalDateTime publishedAt;
+    private LocalDateTime updatedAt;
+    private long blogCount;
+    // 삭제되지 않은 댓글 수(blog.reply_count에 미리 세어둔 값)
+    private long replyCount;
+}
@@ -2,11 +2,18 @@ package com.spring.blog.entity;
 
 import lombok.*;
 
+import java.time.LocalDateTime;
+
+// 글마다 열리는 채팅방의 메세지 하나(chat_message 테이블)
+// seq는 채팅방(글번호) 안에서 1부터 하나씩 늘어나는 번호라서 화면에서 빠진 메세지가 있는지 알 수 있다
 @Getter @Setter @ToString @AllArgsConstructor
 @NoArgsConstructor @Builder
 public class ChatMessage {
 
+    private long blogId;
+    private long seq;
     private String sender;
     private String content;
+    private LocalDateTime sentAt;
 
 }
@@ -16,4 +16,6 @@ public class Reply {
     private String replyContent;
     private LocalDateTime publishedAt;
     private LocalDateTime updatedAt;
+    // 삭제된 댓글은 바로 지우지 않고 삭제시각을 기록해둔다(변경분 동기화에서 삭제 여부를 알려주기 위함)
+    private LocalDateTime deletedAt;
 }
@@ -0,0 +1,21 @@
+package com.spring.blog.exception;
+
+import com.spring.blog.dto.BlogImportResultDTO;
+import lombok.Getter;
+
+// 가져오기는 일정 개수씩 나눠서 커밋하므로 중간에 실패해도 앞에서 저장한 글, 댓글은 남는다
+// 몇 번째 줄에서 실패했는지와 그 전까지 저장된 개수를 같이 알려줘서 어디부터 다시 가져올지 알 수 있게 한다
+@Getter
+public class BlogImportException extends RuntimeException{
+
+    private final long lineNum;
+
+    private final BlogImportResultDTO saved;
+
+    public BlogImportException(long lineNum, BlogImportResultDTO saved, Throwable cause){
+        super(lineNum + "번째 줄을 처리하다 실패했습니다. 앞에서 글 " + saved.getBlogCount()
+                + "개, 댓글 " + saved.getReplyCount() + "개는 저장되었습니다.", cause);
+        this.lineNum = lineNum;
+        this.saved = saved;
+    }
+}
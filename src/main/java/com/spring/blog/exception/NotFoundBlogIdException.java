@@ -3,7 +3,8 @@ package com.spring.blog.exception;
 public class NotFoundBlogIdException extends RuntimeException{
 
     // 생성자에 에러 사유를 전달할수있도록 메세지를 적어준다.
+    // 없는 글번호는 흔한 상황이고 호출한 쪽에서 404로 바꿔 응답하므로 비용이 큰 스택 추적은 만들지 않는다
     public NotFoundBlogIdException(String message){
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,106 @@
+package com.spring.blog.idfilter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// 글번호, 댓글번호(int auto_increment)가 존재하는지 한 비트씩 기록해두는 비트맵
+// 번호가 1부터 빽빽하게 붙으므로 Bloom 필터와 달리 거짓 양성 없이 번호 1000만 개당 약 1.2MB만 쓴다
+// 번호 2^16개(8KB)씩 페이지로 나눠서 실제로 번호가 있는 구간의 페이지만 만들고,
+// 비트는 CAS로 바꾸므로 여러 스레드가 락 없이 동시에 읽고 쓸 수 있다
+public class IdBitmap {
+
+    // 컬럼이 int이므로 이 범위를 벗어난 번호는 존재할 수 없다
+    public static final long MAX_ID = Integer.MAX_VALUE;
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_SHIFT) / Long.SIZE;
+
+    private final AtomicReferenceArray<AtomicLongArray> pages =
+            new AtomicReferenceArray<>((int) ((MAX_ID >>> PAGE_SHIFT) + 1));
+
+    // 켜져 있는 비트 수
+    private final AtomicLong cardinality = new AtomicLong();
+
+    public boolean contains(long id){
+        if(id < 0 || id > MAX_ID){
+            return false;
+        }
+        AtomicLongArray page = pages.get((int) (id >>> PAGE_SHIFT));
+        return page != null && (page.get(wordIndex(id)) & bit(id)) != 0;
+    }
+
+    // 새로 켜졌으면 true
+    public boolean add(long id){
+        if(id < 0 || id > MAX_ID){
+            throw new IllegalArgumentException("번호 범위를 벗어났습니다: " + id);
+        }
+        AtomicLongArray page = getOrCreatePage((int) (id >>> PAGE_SHIFT));
+        int index = wordIndex(id);
+        long mask = bit(id);
+        long word;
+        do {
+            word = page.get(index);
+            if((word & mask) != 0){
+                return false;
+            }
+        } while(!page.compareAndSet(index, word, word | mask));
+        cardinality.incrementAndGet();
+        return true;
+    }
+
+    // 꺼졌으면 true
+    public boolean remove(long id){
+        if(id < 0 || id > MAX_ID){
+            return false;
+        }
+        AtomicLongArray page = pages.get((int) (id >>> PAGE_SHIFT));
+        if(page == null){
+            return false;
+        }
+        int index = wordIndex(id);
+        long mask = bit(id);
+        long word;
+        do {
+            word = page.get(index);
+            if((word & mask) == 0){
+                return false;
+            }
+        } while(!page.compareAndSet(index, word, word & ~mask));
+        cardinality.decrementAndGet();
+        return true;
+    }
+
+    public long cardinality(){
+        return cardinality.get();
+    }
+
+    // 만들어진 페이지가 차지하는 메모리(byte)
+    public long sizeInBytes(){
+        long size = 0;
+        for(int i = 0; i < pages.length(); i++){
+            if(pages.get(i) != null){
+                size += (long) WORDS_PER_PAGE * Long.BYTES;
+            }
+        }
+        return size;
+    }
+
+    private AtomicLongArray getOrCreatePage(int pageIndex){
+        AtomicLongArray page = pages.get(pageIndex);
+        if(page == null){
+            // 두 스레드가 동시에 만들면 먼저 넣은 쪽을 쓴다
+            pages.compareAndSet(pageIndex, null, new AtomicLongArray(WORDS_PER_PAGE));
+            page = pages.get(pageIndex);
+        }
+        return page;
+    }
+
+    private static int wordIndex(long id){
+        return (int) (id & ((1 << PAGE_SHIFT) - 1)) >>> 6;
+    }
+
+    private static long bit(long id){
+        return 1L << (id & 63);
+    }
+}
@@ -0,0 +1,33 @@
+package com.spring.blog.markdown;
+
+import org.commonmark.node.Link;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+// 글 본문(Markdown)을 화면에 바로 넣을 수 있는 HTML로 바꾼다
+// 본문에 직접 쓴 HTML 태그는 실행되지 않게 글자 그대로 보이도록 바꾸고(escapeHtml),
+// 링크, 이미지 주소는 http, https, mailto 등 안전한 형식만 남긴다(sanitizeUrls)
+// Parser, HtmlRenderer는 상태가 없어서 여러 스레드가 하나의 객체를 함께 써도 된다
+public class MarkdownRenderer {
+
+    // 변환 결과가 달라지도록 설정이나 라이브러리 버전을 바꾸면 1씩 올린다
+    // 저장된 HTML의 버전이 이보다 낮으면 조회될 때 백그라운드에서 다시 변환한다(BlogRenderServiceImpl)
+    public static final int VERSION = 1;
+
+    private final Parser parser = Parser.builder().build();
+
+    private final HtmlRenderer renderer = HtmlRenderer.builder()
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            // 사용자가 쓴 링크로 검색 순위를 올리지 못하게 하고, 새 창에서 연 페이지가 이 페이지에 접근하지 못하게 한다
+            .attributeProviderFactory(context -> (node, tagName, attributes) -> {
+                if(node instanceof Link){
+                    attributes.put("rel", "nofollow noopener");
+                }
+            })
+            .build();
+
+    public String render(String markdown){
+        return renderer.render(parser.parse(markdown == null ? "" : markdown));
+    }
+}
@@ -0,0 +1,171 @@
+package com.spring.blog.mybatis;
+
+import com.spring.blog.dto.StatementStatsDTO;
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 매퍼 구문(statement id)별로 실행시간 분포, 행 수, 실패 횟수를 기록하는 MyBatis 플러그인
+// 실행시간은 HdrHistogram의 Recorder에 마이크로초 단위로 기록하는데, 기록은 락 없이(wait-free) 미리 잡아둔 배열에만 쓰므로
+// 쿼리마다 객체를 만들지 않는다. 집계구간마다 구간 히스토그램으로 교체해서 /admin/statements 에 보여준다.
+// 설정한 시간보다 오래 걸린 구문은 SQL과 바인딩된 파라미터를 로그로 남긴다.
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class})
+})
+@Log4j2
+public class StatementMetricsInterceptor implements Interceptor {
+
+    // 기록할 수 있는 최대 실행시간(마이크로초), 이보다 오래 걸리면 최대값으로 기록한다
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, StatementStats> statsById = new ConcurrentHashMap<>();
+
+    private final long slowThresholdNanos;
+
+    // 직전 집계구간의 통계(집계구간이 바뀔 때 통째로 교체)
+    private volatile List<StatementStatsDTO> lastWindow = List.of();
+
+    public StatementMetricsInterceptor(long slowThresholdMillis){
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        StatementStats stats = statsById.get(mappedStatement.getId());
+        if(stats == null){
+            stats = statsById.computeIfAbsent(mappedStatement.getId(), id -> new StatementStats());
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            stats.rows.add(countRows(result));
+            return result;
+        } catch (Throwable e) {
+            stats.errors.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            stats.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsed), HIGHEST_TRACKABLE_MICROS));
+            if(elapsed >= slowThresholdNanos){
+                logSlowStatement(invocation, mappedStatement, elapsed);
+            }
+        }
+    }
+
+    private long countRows(Object result){
+        if(result instanceof List<?> list){
+            return list.size();
+        }
+        if(result instanceof Integer updated){
+            return updated;
+        }
+        return 0;
+    }
+
+    private void logSlowStatement(Invocation invocation, MappedStatement mappedStatement, long elapsedNanos){
+        Object[] args = invocation.getArgs();
+        Object parameter = args[1];
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : mappedStatement.getBoundSql(parameter);
+        log.warn("느린 쿼리 {} ({}ms) sql: {} 파라미터: {}", mappedStatement.getId(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                boundSql.getSql().replaceAll("\\s+", " ").trim(),
+                boundParameters(mappedStatement.getConfiguration(), boundSql, parameter));
+    }
+
+    // ? 자리에 순서대로 바인딩된 값을 꺼낸다(MyBatis의 DefaultParameterHandler와 같은 방식)
+    private List<Object> boundParameters(Configuration configuration, BoundSql boundSql, Object parameter){
+        List<Object> values = new ArrayList<>();
+        MetaObject metaObject = null;
+        for(ParameterMapping mapping : boundSql.getParameterMappings()){
+            String property = mapping.getProperty();
+            if(boundSql.hasAdditionalParameter(property)){ // foreach로 만들어진 파라미터
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if(parameter == null){
+                values.add(null);
+            } else if(configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())){
+                values.add(parameter); // long 하나만 넘긴 경우 등
+            } else {
+                if(metaObject == null){
+                    metaObject = configuration.newMetaObject(parameter);
+                }
+                values.add(metaObject.getValue(property));
+            }
+        }
+        return values;
+    }
+
+    // 집계구간마다 구문별 히스토그램과 카운터를 구간값으로 꺼내고 0부터 다시 센다
+    @Scheduled(fixedRateString = "${blog.statement-metrics.window-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void rotate(){
+        List<StatementStatsDTO> window = new ArrayList<>();
+        for(Map.Entry<String, StatementStats> entry : statsById.entrySet()){
+            StatementStats stats = entry.getValue();
+            // 꺼낸 히스토그램은 다음 구간에 다시 쓰도록 넘겨줘서 구간마다 새로 만들지 않는다
+            Histogram histogram = stats.latency.getIntervalHistogram(stats.recycled);
+            stats.recycled = histogram;
+            long rows = stats.rows.sumThenReset();
+            long errors = stats.errors.sumThenReset();
+            if(histogram.getTotalCount() == 0){
+                continue;
+            }
+            window.add(StatementStatsDTO.builder()
+                    .statementId(entry.getKey())
+                    .count(histogram.getTotalCount())
+                    .rows(rows)
+                    .errors(errors)
+                    .p50Ms(toMillis(histogram.getValueAtPercentile(50)))
+                    .p95Ms(toMillis(histogram.getValueAtPercentile(95)))
+                    .p99Ms(toMillis(histogram.getValueAtPercentile(99)))
+                    .maxMs(toMillis(histogram.getMaxValue()))
+                    .build());
+        }
+        // 느린 구문부터 보이도록 p99 내림차순 정렬
+        window.sort(Comparator.comparingDouble(StatementStatsDTO::getP99Ms).reversed());
+        lastWindow = Collections.unmodifiableList(window);
+    }
+
+    private double toMillis(long micros){
+        return micros / 1000.0;
+    }
+
+    // 직전 집계구간의 구문별 통계
+    public List<StatementStatsDTO> getLastWindow(){
+        return lastWindow;
+    }
+
+    // 구문 하나의 현재 집계구간 기록
+    private static class StatementStats {
+        // 유효숫자 3자리(오차 0.1%)로 1마이크로초 ~ 10분을 기록
+        final Recorder latency = new Recorder(1, HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        // rotate()만 사용한다
+        Histogram recycled;
+    }
+}
@@ -0,0 +1,174 @@
+package com.spring.blog.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.blog.dto.PushStatsDTO;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// 주제(글번호 등)별 SSE 구독자에게 이벤트를 나눠주는 방송기
+// publish()는 이벤트를 방송 전용 스레드에 넘기기만 하므로 댓글을 저장한 스레드는 구독자 수와 상관없이 바로 돌아간다.
+// 방송 스레드는 JSON 직렬화를 한 번만 한 뒤 구독자마다 크기가 정해진 큐에 넣고(SseSubscriber),
+// 실제 전송은 구독자마다 가상 스레드에서 하므로 느린 클라이언트가 다른 구독자나 방송을 막지 않는다.
+// SSE 연결은 열려있는 동안 Tomcat 연결(server.tomcat.max-connections)을 하나씩 계속 차지하므로
+// 구독자 수를 maxSubscribers로 제한해서 구독자가 많아도 일반 요청이 받을 연결이 남게 한다.
+@Log4j2
+public class SseBroadcaster {
+
+    // 큐가 넘쳐 이벤트를 버린 구독자에게 보내는 이벤트 이름, 받으면 변경분 조회로 따라잡으면 된다
+    public static final String RESYNC_EVENT = "resync";
+
+    private final String name;
+
+    private final int queueCapacity;
+
+    private final long timeoutMillis;
+
+    private final int maxSubscribers;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Long, Set<SseSubscriber>> topics = new ConcurrentHashMap<>();
+
+    // 방송 순서가 섞이지 않도록 한 스레드에서 구독자 큐에 넣는다
+    private final ExecutorService fanOutExecutor;
+
+    // 전송은 소켓 쓰기에서 막힐 수 있으므로 구독자마다 가상 스레드에서 한다
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder publishedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder rejectedSubscribers = new LongAdder();
+
+    public SseBroadcaster(String name, int queueCapacity, long timeoutMillis, int maxSubscribers,
+                          ObjectMapper objectMapper){
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.objectMapper = objectMapper;
+        this.fanOutExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // topicId를 구독하는 SSE 연결을 만든다. 연결이 끝나거나(타임아웃, 오류 포함) 끊기면 구독이 해제된다
+    // 구독자가 maxSubscribers명이면 IllegalStateException을 던진다(화면은 변경분을 주기적으로 조회하는 방식으로 바꾼다)
+    public SseEmitter subscribe(long topicId){
+        // 자리를 먼저 잡고 넘쳤으면 돌려준다
+        if(subscriberCount.incrementAndGet() > maxSubscribers){
+            subscriberCount.decrementAndGet();
+            rejectedSubscribers.increment();
+            throw new IllegalStateException("실시간 연결이 너무 많습니다. 잠시 후 다시 연결해주세요.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        SseSubscriber subscriber = new SseSubscriber(topicId, emitter, queueCapacity);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        topics.computeIfAbsent(topicId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        // 응답 헤더가 바로 나가도록 연결 직후 주석 한 줄을 보낸다
+        subscriber.offer(SseEmitter.event().comment("connected"));
+        subscriber.scheduleDrain(sendExecutor);
+        return emitter;
+    }
+
+    private void unsubscribe(SseSubscriber subscriber){
+        subscriber.close();
+        // 마지막 구독자가 나가면 주제도 지운다
+        topics.computeIfPresent(subscriber.topicId, (id, subscribers) -> {
+            if(subscribers.remove(subscriber)){
+                subscriberCount.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    // topicId의 구독자 모두에게 이벤트를 보낸다. 구독자가 없으면 아무것도 하지 않고, 기다리지 않는다
+    public void publish(long topicId, String eventName, Object data){
+        if(!topics.containsKey(topicId)){
+            return;
+        }
+        fanOutExecutor.execute(() -> fanOut(topicId, eventName, data));
+    }
+
+    private void fanOut(long topicId, String eventName, Object data){
+        Set<SseSubscriber> subscribers = topics.get(topicId);
+        if(subscribers == null){
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.warn("{} 이벤트 직렬화 실패: {}", name, eventName, e);
+            return;
+        }
+        publishedEvents.increment();
+        for(SseSubscriber subscriber : subscribers){
+            if(subscriber.isClosed()){
+                unsubscribe(subscriber);
+                continue;
+            }
+            // 이벤트 객체는 전송할 때 한 번만 읽히므로 구독자마다 따로 만든다(직렬화된 문자열은 같이 쓴다)
+            if(!subscriber.offer(SseEmitter.event().name(eventName).data(json))){
+                droppedEvents.increment();
+            }
+            subscriber.scheduleDrain(sendExecutor);
+        }
+    }
+
+    // 모든 구독자에게 주석 한 줄을 보내서 프록시가 연결을 끊지 않게 하고, 끊긴 연결을 찾아서 정리한다
+    public void heartbeat(){
+        fanOutExecutor.execute(() -> {
+            for(Set<SseSubscriber> subscribers : topics.values()){
+                for(SseSubscriber subscriber : subscribers){
+                    if(subscriber.isClosed()){
+                        unsubscribe(subscriber);
+                        continue;
+                    }
+                    subscriber.offer(SseEmitter.event().comment("ping"));
+                    subscriber.scheduleDrain(sendExecutor);
+                }
+            }
+        });
+    }
+
+    // topicId를 구독중인 연결 수
+    public int getSubscriberCount(long topicId){
+        Set<SseSubscriber> subscribers = topics.get(topicId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    public PushStatsDTO getStats(){
+        return new PushStatsDTO(name, topics.size(), subscriberCount.get(), maxSubscribers,
+                rejectedSubscribers.sum(), publishedEvents.sum(), droppedEvents.sum());
+    }
+
+    // 서버 종료시 열린 연결을 모두 끝낸다
+    public void shutdown(){
+        fanOutExecutor.shutdown();
+        for(Set<SseSubscriber> subscribers : topics.values()){
+            for(SseSubscriber subscriber : subscribers){
+                subscriber.close();
+                try {
+                    subscriber.emitter.complete();
+                } catch (IllegalStateException e) {
+                    // 이미 끝난 연결
+                }
+            }
+        }
+        sendExecutor.shutdown();
+    }
+}
@@ -0,0 +1,86 @@
+package com.spring.blog.push;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// SSE 연결 하나와 그 연결로 보낼 이벤트를 담아두는 크기가 정해진 큐
+// 보내는 쪽(방송)은 큐에 넣기만 하고, 실제 전송은 연결마다 한 스레드씩만 큐를 비우면서 한다.
+// 느린 클라이언트 때문에 큐가 가득 차면 쌓인 이벤트를 버리고 "resync" 이벤트 하나로 합쳐서
+// 클라이언트가 변경분 조회로 따라잡게 한다(메모리가 클라이언트 수 x 큐 크기 이상으로 늘지 않는다)
+class SseSubscriber {
+
+    final long topicId;
+
+    final SseEmitter emitter;
+
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+
+    // 큐를 비우는 작업이 실행중(또는 실행 예정)인지, 연결마다 한 번에 하나만 실행되도록 한다
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    // 큐가 넘쳐서 이벤트를 버렸는지, 버렸다면 다음 전송 때 resync 이벤트를 먼저 보낸다
+    private volatile boolean resyncPending;
+
+    private volatile boolean closed;
+
+    SseSubscriber(long topicId, SseEmitter emitter, int queueCapacity){
+        this.topicId = topicId;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    // 이벤트를 큐에 넣고, 큐가 가득 찼다면 쌓인 이벤트를 버린 뒤 false를 리턴한다(기다리지 않는다)
+    boolean offer(SseEmitter.SseEventBuilder event){
+        if(queue.offer(event)){
+            return true;
+        }
+        queue.clear();
+        resyncPending = true;
+        return false;
+    }
+
+    // 큐를 비우는 작업이 실행중이 아니라면 executor에 맡긴다
+    void scheduleDrain(Executor executor){
+        if(!closed && draining.compareAndSet(false, true)){
+            executor.execute(this::drain);
+        }
+    }
+
+    boolean isClosed(){
+        return closed;
+    }
+
+    void close(){
+        closed = true;
+        queue.clear();
+    }
+
+    private void drain(){
+        while(true){
+            try {
+                if(resyncPending){
+                    resyncPending = false;
+                    emitter.send(SseEmitter.event().name(SseBroadcaster.RESYNC_EVENT).data(""));
+                }
+                SseEmitter.SseEventBuilder event;
+                while(!closed && (event = queue.poll()) != null){
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 연결이 끊겼거나 이미 끝난 연결이면 정리한다(emitter의 onError, onCompletion에서 구독이 해제된다)
+                close();
+                emitter.completeWithError(e);
+            }
+            draining.set(false);
+            // 플래그를 내린 사이에 들어온 이벤트가 있다면 다른 스레드가 이어받지 않은 경우에만 계속 비운다
+            if(closed || (queue.isEmpty() && !resyncPending) || !draining.compareAndSet(false, true)){
+                return;
+            }
+        }
+    }
+}
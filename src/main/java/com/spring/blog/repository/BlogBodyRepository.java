@@ -0,0 +1,17 @@
+package com.spring.blog.repository;
+
+import com.spring.blog.entity.BlogBody;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface BlogBodyRepository {
+
+    // 글번호로 저장된 본문 전체를 가져오는 findById() 선언, 따로 저장하지 않은 글(짧은 글)이면 null
+    BlogBody findById(long blogId);
+
+    // 본문 전체를 저장하거나, 이미 있으면 새 본문으로 바꾸는 save() 선언
+    void save(BlogBody blogBody);
+
+    // 따로 저장한 본문을 지우는 deleteById() 선언(글이 짧아졌거나 글 행을 지우기 전)
+    int deleteById(long blogId);
+}
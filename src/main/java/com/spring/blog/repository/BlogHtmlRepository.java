@@ -0,0 +1,21 @@
+package com.spring.blog.repository;
+
+import com.spring.blog.entity.BlogHtml;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface BlogHtmlRepository {
+
+    // 글번호로 변환해둔 HTML을 가져오는 findById() 선언, 아직 변환하지 않은 글이면 null
+    BlogHtml findById(long blogId);
+
+    // 변환한 HTML을 저장하거나, 이미 있으면 바꾸는 save() 선언(글 저장, 수정과 같은 트랜잭션에서 호출)
+    void save(BlogHtml blogHtml);
+
+    // 저장된 HTML이 없거나 다른 버전으로 변환된 것일 때만 저장하는 saveIfVersionDiffers() 선언(조회시 다시 변환한 결과용)
+    // 변환하는 사이에 글이 수정되었다면 수정하면서 저장한 같은 버전의 HTML이 있으므로 옛날 본문의 HTML로 덮어쓰지 않는다
+    void saveIfVersionDiffers(BlogHtml blogHtml);
+
+    // 변환해둔 HTML을 지우는 deleteById() 선언(글 행을 지우기 전)
+    int deleteById(long blogId);
+}
@@ -1,8 +1,17 @@
 package com.spring.blog.repository;
 
+import com.spring.blog.dto.BlogCountDeltaDTO;
+import com.spring.blog.dto.BlogDetailDTO;
+import com.spring.blog.dto.BlogDetailValidatorDTO;
+import com.spring.blog.dto.ReplyCountMismatchDTO;
+import com.spring.blog.dto.IdStampDTO;
 import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogSummary;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -23,10 +32,56 @@ public interface BlogRepository {
     // n개의 복수의 Blog 엔터티를 받아와야 하므로 List로 감쌈
     List<Blog> findAll();
 
+    // 전체 데이터 스트리밍 조회 기능 streamAll()
+    // List로 한 번에 받지 않고 Cursor로 한 건씩 읽는다. 트랜잭션 안에서 호출해야 연결이 유지된다.
+    Cursor<Blog> streamAll();
+
+    // after번 이후의 삭제되지 않은 글번호와 작성시각을 글번호 순으로 커서로 읽는 streamIdsAfter() 선언(번호 존재 필터용)
+    Cursor<IdStampDTO> streamIdsAfter(long after);
+
+    // 글번호를 그대로 유지한 채 여러 글을 한 번에 저장하는 기능 insertAll()
+    // 내보낸 데이터를 다시 가져올 때 사용(댓글이 글번호를 참조하므로 번호가 바뀌면 안 된다)
+    void insertAll(@Param("blogs") List<Blog> blogs);
+
+    // 페이지 번호 방식 조회 기능 findPage()
+    // offset개의 글을 건너뛴 뒤 size개의 글을 최신순으로 가져온다
+    // 본문은 가져오지 않고, excerptLength가 0보다 크면 본문 앞부분만 그 길이만큼 가져온다
+    List<BlogSummary> findPage(@Param("offset") long offset, @Param("size") int size,
+                               @Param("excerptLength") int excerptLength);
+
+    // 커서 방식 조회 기능 findPageAfter()
+    // cursor(마지막으로 본 글번호)보다 작은 글번호를 가진 글을 size개 가져온다
+    List<BlogSummary> findPageAfter(@Param("cursor") long cursor, @Param("size") int size,
+                                    @Param("excerptLength") int excerptLength);
+
+    // 글번호 목록으로 목록용 정보 조회 기능 findSummariesByIds()
+    // 순서는 보장하지 않는다
+    List<BlogSummary> findSummariesByIds(@Param("blogIds") Collection<Long> blogIds,
+                                         @Param("excerptLength") int excerptLength);
+
+    // 전체 글 개수 조회 기능 countAll()
+    long countAll();
+
     // 단일 조회 기능 findById()
     // 호출시 blogId를 요구
     Blog findById(long blogId);
 
+    // 여러 건 조회 기능 findByIds()
+    // 순서는 보장하지 않고, 없거나 삭제된 글번호는 빠진다
+    List<Blog> findByIds(@Param("blogIds") Collection<Long> blogIds);
+
+    // 상세페이지 조회 기능 findDetailById()
+    // 글과 댓글번호 순으로 replySize개의 댓글을 쿼리 한 번으로 가져온다(없는 글이면 null)
+    BlogDetailDTO findDetailById(@Param("blogId") long blogId, @Param("replySize") int replySize);
+
+    // 상세페이지 변경 여부 조회 기능 findDetailValidatorById()
+    // 글 전체를 가져오지 않고 글 수정시각과 댓글 수, 댓글 최근 수정시각만 가져와서 변경 여부를 판단할 때 사용(없는 글이면 null)
+    BlogDetailValidatorDTO findDetailValidatorById(long blogId);
+
+    // 존재 여부 일괄 조회 기능 findExistingIds()
+    // 넘겨받은 글번호 중 실제로 존재하는 글번호만 리턴
+    List<Long> findExistingIds(@Param("blogIds") Collection<Long> blogIds);
+
     // 새 데이터 저장 기능 save()
     // 저장시 writer, blog_title, blog_content 3개 파라미터 요구
     // 위 3개 파라미터는 Blog 엔터티의 멤버변수임
@@ -36,7 +91,45 @@ public interface BlogRepository {
     // 삭제시 삭제에 필요한 primary key에 해당하는 아이디값을 요구
     void deleteById(long blogId);
 
-    // 데이터 수정 기능
-    void update(Blog blog);
+    // 삭제 표시 기능 softDeleteById()
+    // 행은 남겨두고 삭제시각만 기록해서 조회, 목록에서 바로 빠지게 한다. 이미 삭제 표시된 글이면 0을 리턴
+    int softDeleteById(long blogId);
+
+    // 삭제 표시된 글번호를 오래된 순서로 limit개 조회하는 기능 findDeletedIds()
+    List<Long> findDeletedIds(@Param("limit") int limit);
+
+    // 삭제 표시된 글 개수 조회 기능 countDeleted()
+    long countDeleted();
+
+    // 삭제 표시된 글 행을 실제로 지우는 기능 purgeById()(댓글을 모두 지운 뒤 호출한다), 지운 행 수를 리턴
+    int purgeById(long blogId);
+
+    // 데이터 수정 기능, 없거나 삭제 표시된 글이면 0을 리턴
+    int update(Blog blog);
+
+    // 댓글 수 증감 기능 increaseReplyCount()
+    // 댓글 저장과 같은 트랜잭션에서 댓글 INSERT보다 먼저 호출한다. 없거나 삭제 표시된 글이면 0을 리턴
+    int increaseReplyCount(@Param("blogId") long blogId, @Param("delta") long delta);
+
+    // 댓글 수 일괄 증감 기능 increaseReplyCounts()
+    // 글번호별 증가분 목록을 받아 UPDATE 한 번으로 반영한다. 바뀐 글 개수를 리턴(없거나 삭제 표시된 글은 빠진다)
+    int increaseReplyCounts(@Param("deltas") List<BlogCountDeltaDTO> deltas);
+
+    // 댓글번호로 그 댓글이 달린 글의 댓글 수를 하나 줄이는 기능 decreaseReplyCountByReplyId()
+    void decreaseReplyCountByReplyId(long replyId);
+
+    // after번 글 이후로 size개 글을 묶었을 때 마지막 글번호를 조회하는 기능 findChunkEndAfter()(남은 글이 없으면 null)
+    Long findChunkEndAfter(@Param("after") long after, @Param("size") int size);
+
+    // 글번호가 from보다 크고 to 이하인 글 중 댓글 수가 실제 댓글 수와 다른 글을 조회하는 기능 findReplyCountMismatches()
+    // 락을 잡지 않고 읽는다
+    List<ReplyCountMismatchDTO> findReplyCountMismatches(@Param("from") long from, @Param("to") long to);
+
+    // 조회할 때 본 댓글 수(storedCount) 그대로인 글만 실제 댓글 수로 고치는 기능 repairReplyCount(), 고쳤으면 1을 리턴
+    int repairReplyCount(ReplyCountMismatchDTO mismatch);
+
+    // 조회수 일괄 반영 기능
+    // 글번호별 증가분 목록을 받아 UPDATE 한 번으로 반영한다
+    void increaseBlogCounts(@Param("deltas") List<BlogCountDeltaDTO> deltas);
 
 }
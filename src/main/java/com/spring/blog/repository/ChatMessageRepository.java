@@ -0,0 +1,21 @@
+package com.spring.blog.repository;
+
+import com.spring.blog.entity.ChatMessage;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface ChatMessageRepository {
+
+    // 채팅방(글번호)의 최근 메세지를 limit개까지 seq가 큰 순서로 가져오는 findRecentByBlogId() 선언
+    // 채팅방을 메모리에 처음 올릴 때만 호출된다
+    List<ChatMessage> findRecentByBlogId(@Param("blogId") long blogId, @Param("limit") int limit);
+
+    // 여러 메세지를 INSERT 한 번(multi-row VALUES)으로 저장하는 insertAll() 선언
+    void insertAll(@Param("messages") List<ChatMessage> messages);
+
+    // 글번호 입력시 그 글의 채팅 메세지를 모두 지우는 deleteByBlogId() 선언(삭제된 글을 정리할 때 호출된다)
+    void deleteByBlogId(long blogId);
+}
@@ -1,10 +1,16 @@
 package com.spring.blog.repository;
 
+import com.spring.blog.dto.IdStampDTO;
 import com.spring.blog.dto.ReplyCreateRequestDTO;
 import com.spring.blog.dto.ReplyResponseDTO;
 import com.spring.blog.dto.ReplyUpdateRequestDTO;
+import com.spring.blog.dto.ReplyValidatorDTO;
+import com.spring.blog.entity.Reply;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -12,17 +18,58 @@ public interface ReplyRepository {
 
     List<ReplyResponseDTO> findAllByBlogId(long blogId);
 
+    // 글번호에 달린 댓글 중 after번 댓글 이후의 댓글을 size개만 가져오는 findPageByBlogId() 선언
+    List<ReplyResponseDTO> findPageByBlogId(@Param("blogId") long blogId,
+                                            @Param("after") long after,
+                                            @Param("size") int size);
+
+    // 삭제되지 않은 전체 댓글을 커서로 한 건씩 읽어오는 streamAll() 선언(내보내기용)
+    // 트랜잭션 안에서 호출해야 연결이 유지된다
+    Cursor<Reply> streamAll();
+
+    // after번 이후의 삭제되지 않은 댓글번호와 작성시각을 댓글번호 순으로 커서로 읽는 streamIdsAfter() 선언(번호 존재 필터용)
+    Cursor<IdStampDTO> streamIdsAfter(long after);
+
     // 댓글번호 입력시 특정 댓글 하나만 가져오는 메서드 findByReplyId() 선언
     ReplyResponseDTO findByReplyId(long replyId);
 
+    // 댓글번호 여러 개를 입력하면 해당 댓글들을 한 번에 가져오는 findByReplyIds() 선언(모아서 저장한 댓글을 돌려줄 때 사용)
+    List<ReplyResponseDTO> findByReplyIds(@Param("replyIds") List<Long> replyIds);
+
+    // 댓글번호로 그 댓글이 달린 글번호만 가져오는 findBlogIdByReplyId() 선언(삭제된 댓글도 포함, 없으면 null)
+    Long findBlogIdByReplyId(long replyId);
+
+    // 글번호에 달린 댓글 중 since 이후에 생성, 수정, 삭제된 댓글을 limit개까지 가져오는 findChangesByBlogId() 선언
+    // 삭제된 댓글은 deletedAt이 채워져서 나온다
+    List<Reply> findChangesByBlogId(@Param("blogId") long blogId,
+                                    @Param("since") LocalDateTime since,
+                                    @Param("limit") int limit);
+
+    // 글번호에 달린 댓글 수와 최근 수정시각을 가져오는 findValidatorByBlogId() 선언
+    ReplyValidatorDTO findValidatorByBlogId(long blogId);
+
+    // DB 기준 현재시각을 가져오는 getNow() 선언
+    LocalDateTime getNow();
+
     // 삭제는 replyId를 이용해 삭제한다. DeleteByReplyId() 선언
-    void deleteByReplyId(long replyId);
+    // 실제로 지우지 않고 삭제시각을 기록한다(툼스톤). 삭제된 행 수를 리턴(없거나 이미 삭제된 댓글이면 0)
+    int deleteByReplyId(long replyId);
+
+    // before 이전에 삭제된 댓글(툼스톤)을 limit개까지 실제로 삭제하고 삭제된 행 수를 리턴
+    int purgeDeletedReplies(@Param("before") LocalDateTime before, @Param("limit") int limit);
 
     // insert구문은 ReplyInsertDTO를 이용해준다. save() 선언
     // ReplyInsertDTO에 내장된 멤버변수인 blogId(몇번글에), replyWriter,replyContent를
     // 쿼리문에 전달해서 INSERT구문을 완성시키기
     void save(ReplyCreateRequestDTO replyCreateRequestDTO);
 
+    // 여러 댓글을 INSERT 한 번(multi-row VALUES)으로 저장하는 saveAll() 선언
+    // 저장 후 각 DTO의 replyId에 DB가 생성한 댓글번호가 채워진다
+    void saveAll(@Param("replies") List<ReplyCreateRequestDTO> replies);
+
+    // 댓글번호, 작성/수정시각을 그대로 유지한 채 여러 댓글을 저장하는 insertAll() 선언(가져오기용)
+    void insertAll(@Param("replies") List<Reply> replies);
+
     // 수정로직은 ReplyUpdateDTO를 이용해 update() 선언
     // 수정로직은 replyId를 WHERE절에 집어넣고, replyWriter,replyContent의 내용을 업데이트 해주고
     // updateAt 역시 NOW()로 바꿔준다
@@ -30,4 +77,7 @@ public interface ReplyRepository {
 
     // blogId를 받아서 특정 글과 연결된 댓글 전체를 삭제하는 메서드 정의
     void deleteByBlogId(long blogId);
+
+    // 삭제 표시된 글의 댓글을 limit개씩 나눠서 실제로 삭제하는 purgeByBlogId() 선언(툼스톤 포함), 삭제된 행 수를 리턴
+    int purgeByBlogId(@Param("blogId") long blogId, @Param("limit") int limit);
 }
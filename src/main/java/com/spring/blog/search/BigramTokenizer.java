@@ -0,0 +1,52 @@
+package com.spring.blog.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// 검색용 토크나이저
+// 한글은 띄어쓰기만으로는 조사가 붙어서("블로그를", "블로그에") 단어 단위 검색이 어렵기 때문에
+// 연속된 한글(및 기타 비라틴 문자)은 두 글자씩 겹쳐서 자르고(바이그램), 영문/숫자는 단어 단위로 자른다.
+// 예) "스프링 블로그를 Spring" -> [스프, 프링, 블로, 로그, 그를, spring]
+public final class BigramTokenizer {
+
+    private BigramTokenizer(){
+    }
+
+    public static List<String> tokenize(String text){
+        List<String> tokens = new ArrayList<>();
+        if(text == null){
+            return tokens;
+        }
+        int length = text.length();
+        int i = 0;
+        while(i < length){
+            char c = text.charAt(i);
+            if(!Character.isLetterOrDigit(c)){
+                i++;
+                continue;
+            }
+            // 같은 종류(라틴 문자/숫자 vs 그 외 문자)가 이어지는 구간을 찾는다
+            boolean latin = isLatinOrDigit(c);
+            int start = i;
+            while(i < length && Character.isLetterOrDigit(text.charAt(i))
+                    && isLatinOrDigit(text.charAt(i)) == latin){
+                i++;
+            }
+            if(latin){
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            } else if(i - start == 1){
+                tokens.add(text.substring(start, i)); // 한 글자짜리는 그대로
+            } else {
+                for(int j = start; j + 1 < i; j++){
+                    tokens.add(text.substring(j, j + 2));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isLatinOrDigit(char c){
+        return c < 0x80 || Character.isDigit(c);
+    }
+}
@@ -0,0 +1,175 @@
+package com.spring.blog.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 메모리 역색인(단어 -> 그 단어가 등장하는 문서 목록)
+// 글 하나를 색인할 때마다 내부 문서번호(doc)를 새로 발급하므로 단어별 목록은 항상 문서번호 순으로 쌓인다.
+// 수정된 글은 예전 문서를 삭제 표시하고 새 문서번호로 다시 색인하며, 삭제 표시된 문서가 많아지면
+// 서비스에서 전체를 다시 색인해서 정리한다.
+// 검색은 모든 검색어 토큰이 들어있는 문서(AND)만 BM25 점수로 정렬해서 돌려준다.
+public class InvertedIndex {
+
+    // BM25 파라미터
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // 제목에 나온 단어는 본문보다 중요하므로 등장횟수를 이만큼 곱해서 센다
+    private static final int TITLE_WEIGHT = 2;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByBlogId = new HashMap<>();
+    private long[] blogIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private final BitSet live = new BitSet();
+    private int maxDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 글을 색인한다. 이미 색인된 글이면 예전 내용은 지우고 새로 색인한다.
+    public void index(long blogId, String title, String content){
+        Map<String, Integer> termFreqs = new HashMap<>();
+        for(String token : BigramTokenizer.tokenize(title)){
+            termFreqs.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for(String token : BigramTokenizer.tokenize(content)){
+            termFreqs.merge(token, 1, Integer::sum);
+        }
+        int length = 0;
+        for(int tf : termFreqs.values()){
+            length += tf;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(blogId);
+            int doc = maxDoc++;
+            if(doc == blogIds.length){
+                blogIds = Arrays.copyOf(blogIds, doc * 2);
+                docLengths = Arrays.copyOf(docLengths, doc * 2);
+            }
+            blogIds[doc] = blogId;
+            docLengths[doc] = length;
+            for(Map.Entry<String, Integer> entry : termFreqs.entrySet()){
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(doc, entry.getValue());
+            }
+            docByBlogId.put(blogId, doc);
+            live.set(doc);
+            liveDocs++;
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long blogId){
+        lock.writeLock().lock();
+        try {
+            removeInternal(blogId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(long blogId){
+        Integer doc = docByBlogId.remove(blogId);
+        if(doc != null){
+            live.clear(doc);
+            liveDocs--;
+            totalLength -= docLengths[doc];
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit){
+        Set<String> terms = new LinkedHashSet<>(BigramTokenizer.tokenize(query));
+        if(terms.isEmpty() || limit <= 0){
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if(liveDocs == 0){
+                return List.of();
+            }
+            // 등장 문서가 적은 단어부터 교집합을 구해야 비교 횟수가 줄어든다
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for(String term : terms){
+                PostingList list = postings.get(term);
+                if(list == null){
+                    return List.of(); // 하나라도 없는 단어가 있으면 AND 결과는 없다
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::docFreq));
+
+            int size = lists.size();
+            PostingList.Cursor[] cursors = new PostingList.Cursor[size];
+            float[] idfs = new float[size];
+            for(int i = 0; i < size; i++){
+                cursors[i] = lists.get(i).cursor();
+                int df = Math.min(lists.get(i).docFreq(), liveDocs);
+                idfs[i] = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+            }
+            float avgLength = (float) totalLength / liveDocs;
+
+            // 점수가 가장 낮은 결과가 맨 앞에 오는 힙으로 상위 limit개만 유지
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(SearchHit::getScore));
+            int doc = cursors[0].next();
+            while(doc != PostingList.NO_MORE_DOCS){
+                int matched = doc;
+                for(int i = 1; i < size; i++){
+                    int other = cursors[i].advance(doc);
+                    if(other != doc){
+                        matched = other;
+                        break;
+                    }
+                }
+                if(matched != doc){
+                    // 다른 단어 목록이 더 뒤의 문서를 가리키면 가장 드문 단어 목록을 거기까지 건너뛴다
+                    doc = matched == PostingList.NO_MORE_DOCS ? matched : cursors[0].advance(matched);
+                    continue;
+                }
+                if(live.get(doc)){
+                    float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    float score = 0;
+                    for(int i = 0; i < size; i++){
+                        int tf = cursors[i].tf();
+                        score += idfs[i] * tf * (K1 + 1) / (tf + norm);
+                    }
+                    top.add(new SearchHit(blogIds[doc], score));
+                    if(top.size() > limit){
+                        top.poll();
+                    }
+                }
+                doc = cursors[0].next();
+            }
+
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 색인된 전체 문서 중 삭제 표시된 문서의 비율(정리가 필요한지 판단용)
+    public double deletedRatio(){
+        lock.readLock().lock();
+        try {
+            return maxDoc == 0 ? 0 : (double) (maxDoc - liveDocs) / maxDoc;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size(){
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
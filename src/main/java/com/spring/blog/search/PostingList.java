@@ -0,0 +1,135 @@
+package com.spring.blog.search;
+
+import java.util.Arrays;
+
+// 단어 하나가 등장하는 문서번호와 등장횟수(tf) 목록을 압축해서 저장하는 클래스
+// 문서번호는 항상 증가하는 순서로만 추가되므로 이전 문서번호와의 차이(delta)를 가변길이 정수(varint)로 저장한다.
+// 대부분의 차이와 tf는 1바이트에 들어가므로 int 두 개(8바이트) 대신 평균 2~3바이트만 쓴다.
+// SKIP_INTERVAL개마다 시작 위치를 따로 기록해두어 교집합을 구할 때 필요없는 구간을 건너뛸 수 있다.
+final class PostingList {
+
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+    private static final int SKIP_INTERVAL = 64;
+
+    private byte[] bytes = new byte[8];
+    private int byteSize;
+    private int count;
+    private int lastDoc = -1;
+
+    // 블록별 첫 문서번호, 그 문서의 바이트 위치, 그 직전 문서번호(delta 복원용)
+    private int[] skipDocs = new int[1];
+    private int[] skipOffsets = new int[1];
+    private int[] skipBases = new int[1];
+    private int skipCount;
+
+    void add(int doc, int tf){
+        if(count % SKIP_INTERVAL == 0){
+            if(skipCount == skipDocs.length){
+                skipDocs = Arrays.copyOf(skipDocs, skipCount * 2);
+                skipOffsets = Arrays.copyOf(skipOffsets, skipCount * 2);
+                skipBases = Arrays.copyOf(skipBases, skipCount * 2);
+            }
+            skipDocs[skipCount] = doc;
+            skipOffsets[skipCount] = byteSize;
+            skipBases[skipCount] = lastDoc;
+            skipCount++;
+        }
+        writeVarInt(doc - lastDoc);
+        writeVarInt(tf);
+        lastDoc = doc;
+        count++;
+    }
+
+    // 이 단어가 등장하는 문서 수(삭제된 문서 포함)
+    int docFreq(){
+        return count;
+    }
+
+    Cursor cursor(){
+        return new Cursor();
+    }
+
+    private void writeVarInt(int value){
+        if(byteSize + 5 > bytes.length){
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, byteSize + 5));
+        }
+        while((value & ~0x7F) != 0){
+            bytes[byteSize++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[byteSize++] = (byte) value;
+    }
+
+    // 목록을 앞에서부터 읽어나가는 커서, 검색 한 번에 단어마다 하나씩 만든다
+    final class Cursor {
+        private int offset;
+        private int doc = -1;
+        private int tf;
+        private int read;
+
+        int doc(){
+            return doc;
+        }
+
+        int tf(){
+            return tf;
+        }
+
+        // 다음 문서로 이동
+        int next(){
+            if(read >= count){
+                return doc = NO_MORE_DOCS;
+            }
+            doc += readVarInt();
+            tf = readVarInt();
+            read++;
+            return doc;
+        }
+
+        // target 이상인 첫 문서로 이동, 멀리 떨어져 있으면 스킵 정보를 이용해 블록 단위로 건너뛴다
+        int advance(int target){
+            if(doc >= target){
+                return doc;
+            }
+            int block = findBlock(target);
+            if(block >= 0 && skipDocs[block] > doc && block * SKIP_INTERVAL > read){
+                offset = skipOffsets[block];
+                doc = skipBases[block];
+                read = block * SKIP_INTERVAL;
+            }
+            while(next() < target){
+                // target에 도달할 때까지 읽는다
+            }
+            return doc;
+        }
+
+        // 첫 문서번호가 target 이하인 마지막 블록
+        private int findBlock(int target){
+            int low = 0;
+            int high = skipCount - 1;
+            int found = -1;
+            while(low <= high){
+                int mid = (low + high) >>> 1;
+                if(skipDocs[mid] <= target){
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        private int readVarInt(){
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
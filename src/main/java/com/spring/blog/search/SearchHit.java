@@ -0,0 +1,10 @@
+package com.spring.blog.search;
+
+import lombok.*;
+
+// 검색 결과 한 건(글번호와 BM25 점수)
+@Getter @ToString @AllArgsConstructor
+public class SearchHit {
+    private long blogId;
+    private float score;
+}
@@ -0,0 +1,32 @@
+package com.spring.blog.service;
+
+import com.spring.blog.entity.Blog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+public interface BlogContentService {
+
+    // 저장할 blog 행을 만드는 toRow() 메서드 정의
+    // 본문이 길면 blogContent에는 앞부분만 남기고 bodyStored를 켠 복사본을, 짧으면 bodyStored를 끈 복사본을 리턴한다
+    Blog toRow(Blog blog);
+
+    // 본문 전체를 blog_body에 저장하는 saveBody() 메서드 정의(toRow 결과의 bodyStored가 켜진 글만 호출한다)
+    void saveBody(long blogId, String content);
+
+    // 따로 저장한 본문을 지우는 deleteBody() 메서드 정의(수정으로 본문이 짧아진 글)
+    void deleteBody(long blogId);
+
+    // 글의 본문 전체를 리턴하는 findContent() 메서드 정의, 풀어낸 본문은 캐시에 담아둔다(수정폼 등)
+    String findContent(Blog blog);
+
+    // 캐시를 거치지도 채우지도 않고 본문 전체를 리턴하는 readContent() 메서드 정의(내보내기, 검색 색인처럼 전체 글을 한 번씩 훑는 용도)
+    String readContent(Blog blog);
+
+    // 본문 전체를 out에 바로 써주는 writeContent() 메서드 정의
+    // 캐시에 담기에 너무 긴 본문은 문자열로 만들지 않고 조금씩 풀면서 바로 쓴다
+    void writeContent(Blog blog, Writer out) throws IOException;
+
+    Map<String, Object> getStats();
+}
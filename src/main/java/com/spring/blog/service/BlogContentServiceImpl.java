@@ -0,0 +1,232 @@
+package com.spring.blog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.spring.blog.content.BodyCodec;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogBody;
+import com.spring.blog.repository.BlogBodyRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// 긴 글의 본문을 blog 행과 떨어뜨려 blog_body 테이블에 압축해서 저장하고, 본문이 필요한 곳에서만 풀어서 읽는다
+// blog.blog_content에는 앞부분(inline-max-length 글자)만 남기므로 목록, 글 단건 조회, 상세 조회가 긴 본문을 읽지 않는다
+// 풀어낸 본문은 글자 수를 무게로 하는 캐시에 담고, 캐시에 담기에 너무 긴 본문은 응답에 바로 풀어서 쓴다
+@Service
+@Log4j2
+public class BlogContentServiceImpl implements BlogContentService {
+
+    // blog.blog_content 컬럼 크기(varchar(4000))
+    private static final int INLINE_COLUMN_LENGTH = 4000;
+
+    // 풀면서 응답에 쓸 때의 버퍼 크기(글자 수)
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+
+    private final LongAdder savedBodies = new LongAdder();
+    private final LongAdder savedRawBytes = new LongAdder();
+    private final LongAdder savedStoredBytes = new LongAdder();
+    private final LongAdder streamedReads = new LongAdder();
+
+    BlogBodyRepository blogBodyRepository;
+
+    // 풀어낸 본문 캐시(CacheConfig에서 생성)
+    Cache<Long, String> contentCache;
+
+    // 이보다 긴 본문은 blog_body에 따로 저장한다(글자 수)
+    int inlineMaxLength;
+
+    // UTF-8로 이 크기(byte) 이상인 본문만 압축한다
+    int compressMinBytes;
+
+    // 이보다 긴 본문은 캐시에 담지 않는다(글자 수)
+    int cacheableMaxLength;
+
+    @Autowired
+    public BlogContentServiceImpl(BlogBodyRepository blogBodyRepository,
+                                  @Qualifier("blogContentCache") Cache<Long, String> contentCache,
+                                  @Value("${blog.content.inline-max-length:2000}") int inlineMaxLength,
+                                  @Value("${blog.content.compress-min-bytes:4096}") int compressMinBytes,
+                                  @Value("${blog.content.cacheable-max-length:262144}") int cacheableMaxLength){
+        if(inlineMaxLength < 1 || inlineMaxLength > INLINE_COLUMN_LENGTH){
+            throw new IllegalArgumentException("blog.content.inline-max-length는 1 이상 "
+                    + INLINE_COLUMN_LENGTH + " 이하여야 합니다: " + inlineMaxLength);
+        }
+        this.blogBodyRepository = blogBodyRepository;
+        this.contentCache = contentCache;
+        this.inlineMaxLength = inlineMaxLength;
+        this.compressMinBytes = compressMinBytes;
+        this.cacheableMaxLength = cacheableMaxLength;
+    }
+
+    @Override
+    public Blog toRow(Blog blog) {
+        String content = blog.getBlogContent();
+        if(content == null || content.length() <= inlineMaxLength){
+            return blog.toBuilder().bodyStored(false).build();
+        }
+        // 이모지 등 두 글자(surrogate pair)로 된 문자가 잘리지 않게 한다
+        int end = inlineMaxLength;
+        if(Character.isHighSurrogate(content.charAt(end - 1))){
+            end--;
+        }
+        return blog.toBuilder()
+                .blogContent(content.substring(0, end))
+                .bodyStored(true)
+                .build();
+    }
+
+    @Override
+    public void saveBody(long blogId, String content) {
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        BodyCodec.Encoded encoded = BodyCodec.encode(raw, compressMinBytes);
+        blogBodyRepository.save(BlogBody.builder()
+                .blogId(blogId)
+                .codec(encoded.getCodec())
+                .rawLength(content.length())
+                .body(encoded.getBody())
+                .build());
+        savedBodies.increment();
+        savedRawBytes.add(raw.length);
+        savedStoredBytes.add(encoded.getBody().length);
+        evict(blogId);
+    }
+
+    @Override
+    public void deleteBody(long blogId) {
+        blogBodyRepository.deleteById(blogId);
+        evict(blogId);
+    }
+
+    @Override
+    public String findContent(Blog blog) {
+        if(!blog.isBodyStored()){
+            return blog.getBlogContent();
+        }
+        Loaded loaded = load(blog.getBlogId());
+        if(loaded.content != null){
+            return loaded.content;
+        }
+        return loaded.body == null ? blog.getBlogContent() : decode(loaded.body);
+    }
+
+    @Override
+    public String readContent(Blog blog) {
+        if(!blog.isBodyStored()){
+            return blog.getBlogContent();
+        }
+        String cached = contentCache.getIfPresent(blog.getBlogId());
+        if(cached != null){
+            return cached;
+        }
+        BlogBody body = blogBodyRepository.findById(blog.getBlogId());
+        return body == null ? blog.getBlogContent() : decode(body);
+    }
+
+    @Override
+    public void writeContent(Blog blog, Writer out) throws IOException {
+        if(!blog.isBodyStored()){
+            out.write(blog.getBlogContent());
+            return;
+        }
+        Loaded loaded = load(blog.getBlogId());
+        if(loaded.content != null){
+            out.write(loaded.content);
+            return;
+        }
+        if(loaded.body == null){
+            // 본문 행이 없는 경우(직접 DB를 고친 경우 등)는 남아있는 앞부분이라도 보여준다
+            log.warn("{}번 글의 본문(blog_body)이 없어서 앞부분만 보여줍니다.", blog.getBlogId());
+            out.write(blog.getBlogContent());
+            return;
+        }
+        // 통째로 문자열을 만들지 않고 버퍼 크기만큼씩 풀어서 바로 쓴다
+        streamedReads.increment();
+        try(Reader reader = loaded.body.getCodec().openReader(loaded.body.getBody())){
+            char[] buffer = new char[WRITE_BUFFER_SIZE];
+            int read;
+            while((read = reader.read(buffer)) != -1){
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    // 캐시에 있으면 캐시에서, 없으면 DB에서 읽는다. 캐시에 담을 수 있는 길이면 풀어서 캐시에 담고,
+    // 너무 길면 캐시에 담지 않고 읽어온 행을 그대로 돌려준다
+    // 같은 글을 동시에 여러 요청이 찾더라도 DB 조회와 압축 해제는 한 번만 일어나고, 그 사이에 본문이 수정되면
+    // 수정 쪽의 캐시 삭제가 적재가 끝나기를 기다렸다가 지우므로 옛날 본문이 캐시에 남지 않는다
+    private Loaded load(long blogId){
+        Loaded loaded = new Loaded();
+        loaded.content = contentCache.get(blogId, id -> {
+            BlogBody body = blogBodyRepository.findById(id);
+            if(body == null || body.getRawLength() > cacheableMaxLength){
+                loaded.body = body;
+                return null;
+            }
+            return decode(body);
+        });
+        if(loaded.content == null && loaded.body == null){
+            // 다른 요청이 같은 글을 적재하다가 캐시에 담지 않은 경우
+            loaded.body = blogBodyRepository.findById(blogId);
+        }
+        return loaded;
+    }
+
+    private String decode(BlogBody body){
+        return body.getCodec().decode(body.getBody(), body.getRawLength());
+    }
+
+    // 캐시에서 본문을 지운다. 트랜잭션 안이라면 커밋 전에 다른 요청이 옛날 본문을 다시 캐시에 담을 수 있으므로
+    // 트랜잭션이 끝난 뒤에 한 번 더 지운다.
+    private void evict(long blogId){
+        contentCache.invalidate(blogId);
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    contentCache.invalidate(blogId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        CacheStats stats = contentCache.stats();
+        long rawBytes = savedRawBytes.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("inlineMaxLength", inlineMaxLength);
+        result.put("compressMinBytes", compressMinBytes);
+        result.put("cacheableMaxLength", cacheableMaxLength);
+        result.put("cacheSize", contentCache.estimatedSize());
+        result.put("cacheHitCount", stats.hitCount());
+        result.put("cacheMissCount", stats.missCount());
+        result.put("cacheEvictionCount", stats.evictionCount());
+        // 캐시에 담지 않고 풀면서 바로 응답에 쓴 횟수
+        result.put("streamedReads", streamedReads.sum());
+        // 서버가 뜬 뒤로 저장한 본문 수와 원래 크기, 저장된 크기(byte)
+        result.put("savedBodies", savedBodies.sum());
+        result.put("savedRawBytes", rawBytes);
+        result.put("savedStoredBytes", savedStoredBytes.sum());
+        result.put("compressionRatio", rawBytes == 0 ? 1.0 : (double) savedStoredBytes.sum() / rawBytes);
+        return result;
+    }
+
+    // 캐시에서 읽은(또는 풀어서 담은) 본문, 캐시에 담지 않았다면 DB에서 읽어온 행
+    private static class Loaded {
+        String content;
+        BlogBody body;
+    }
+}
@@ -0,0 +1,18 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.BlogImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface BlogDataService {
+
+    // 전체 글과 댓글을 NDJSON(한 줄에 JSON 하나)으로 out에 써주는 exportAll() 메서드 정의
+    // 글을 먼저 모두 쓰고 그 다음 댓글을 쓴다. out은 닫지 않는다.
+    void exportAll(OutputStream out) throws IOException;
+
+    // exportAll()로 만든 NDJSON을 읽어서 글번호, 댓글번호를 그대로 유지한 채 저장하는 importAll() 메서드 정의
+    // 500개씩 나눠서 커밋하므로 중간에 실패하면 BlogImportException에 실패한 줄과 그 전까지 저장된 개수를 담아서 던진다
+    BlogImportResultDTO importAll(InputStream in);
+}
@@ -0,0 +1,223 @@
+package com.spring.blog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.spring.blog.dto.BlogCountDeltaDTO;
+import com.spring.blog.dto.BlogExportRecordDTO;
+import com.spring.blog.dto.BlogImportResultDTO;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.Reply;
+import com.spring.blog.exception.BlogImportException;
+import com.spring.blog.repository.BlogRepository;
+import com.spring.blog.repository.ReplyRepository;
+import lombok.extern.log4j.Log4j2;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 백업, 분석용으로 전체 글과 댓글을 내보내고 다시 가져오는 서비스
+// findAll()처럼 전체를 List로 받지 않고 커서로 한 건씩 읽고 쓰므로 데이터가 많아도 메모리 사용량이 일정하다
+@Service
+@Log4j2
+public class BlogDataServiceImpl implements BlogDataService {
+
+    // 출력 버퍼 크기와, 몇 건마다 클라이언트로 밀어낼지
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_EVERY = 1000;
+    // 가져오기시 INSERT 한 번에 넣을 개수
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
+    BlogRepository blogRepository;
+
+    ReplyRepository replyRepository;
+
+    // 가져온 글이 검색되도록 가져오기가 끝나면 색인을 다시 만든다
+    BlogSearchService blogSearchService;
+
+    // 가져온 글번호, 댓글번호가 없는 번호로 걸러지지 않도록 필터에도 넣는다
+    IdFilterService idFilterService;
+
+    // 긴 글은 본문 전체를 풀어서 내보내고, 가져올 때 다시 나눠서 저장한다
+    BlogContentService blogContentService;
+
+    ObjectWriter recordWriter;
+
+    ObjectReader recordReader;
+
+    TransactionTemplate readOnlyTransaction;
+
+    TransactionTemplate transaction;
+
+    @Autowired
+    public BlogDataServiceImpl(BlogRepository blogRepository, ReplyRepository replyRepository,
+                               BlogSearchService blogSearchService, IdFilterService idFilterService,
+                               BlogContentService blogContentService, ObjectMapper objectMapper, PlatformTransactionManager transactionManager){
+        this.blogRepository = blogRepository;
+        this.replyRepository = replyRepository;
+        this.blogSearchService = blogSearchService;
+        this.idFilterService = idFilterService;
+        this.blogContentService = blogContentService;
+        this.recordWriter = objectMapper.writerFor(BlogExportRecordDTO.class);
+        this.recordReader = objectMapper.readerFor(BlogExportRecordDTO.class);
+        // 커서로 스트리밍 조회하는 동안 DB 연결이 유지되어야 하므로 트랜잭션 안에서 읽는다
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void exportAll(OutputStream out) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    try(Cursor<Blog> blogs = blogRepository.streamAll()){
+                        for(Blog blog : blogs){
+                            // 내보낸 파일에는 어디에 나눠 저장했는지와 상관없이 본문 전체를 담는다
+                            if(blog.isBodyStored()){
+                                blog.setBlogContent(blogContentService.readContent(blog));
+                                blog.setBodyStored(false);
+                            }
+                            writeRecord(buffered, new BlogExportRecordDTO(BlogExportRecordDTO.TYPE_BLOG, blog, null),
+                                    blogs.getCurrentIndex());
+                        }
+                    }
+                    try(Cursor<Reply> replies = replyRepository.streamAll()){
+                        for(Reply reply : replies){
+                            writeRecord(buffered, new BlogExportRecordDTO(BlogExportRecordDTO.TYPE_REPLY, null, reply),
+                                    replies.getCurrentIndex());
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // 클라이언트가 다운로드를 중단한 경우 등
+        }
+        buffered.flush();
+    }
+
+    private void writeRecord(OutputStream out, BlogExportRecordDTO record, int index) throws IOException {
+        out.write(recordWriter.writeValueAsBytes(record));
+        out.write('\n');
+        // 일정 건수마다 버퍼를 비워서 클라이언트가 받는 도중에도 내려받기가 진행되게 한다
+        if((index + 1) % FLUSH_EVERY == 0){
+            out.flush();
+        }
+    }
+
+    @Override
+    public BlogImportResultDTO importAll(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        BlogImportResultDTO result;
+        try {
+            result = importRecords(reader);
+        } finally {
+            // 실패했더라도 앞에서 커밋된 글은 검색되어야 하므로 색인은 항상 다시 만든다
+            blogSearchService.rebuild();
+            // 가져온 번호는 확인을 마친 번호보다 작을 수 있으므로 다음 갱신에서 처음 번호부터 다시 읽게 한다
+            idFilterService.requestFullScan();
+        }
+        log.info("가져오기 완료. 글: {}개, 댓글: {}개", result.getBlogCount(), result.getReplyCount());
+        return result;
+    }
+
+    private BlogImportResultDTO importRecords(BufferedReader reader) {
+        List<Blog> blogs = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Reply> replies = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        BlogImportResultDTO result = new BlogImportResultDTO(0, 0);
+        long lineNum = 0;
+        try {
+            String line;
+            while((line = reader.readLine()) != null){
+                lineNum++;
+                if(line.isBlank()){
+                    continue;
+                }
+                BlogExportRecordDTO record = recordReader.readValue(line);
+                if(BlogExportRecordDTO.TYPE_BLOG.equals(record.getType()) && record.getBlog() != null){
+                    blogs.add(record.getBlog());
+                    if(blogs.size() == IMPORT_CHUNK_SIZE){
+                        insertBlogs(blogs, result);
+                    }
+                } else if(BlogExportRecordDTO.TYPE_REPLY.equals(record.getType()) && record.getReply() != null){
+                    // 댓글은 fk_reply 때문에 글이 먼저 저장되어 있어야 한다
+                    insertBlogs(blogs, result);
+                    replies.add(record.getReply());
+                    if(replies.size() == IMPORT_CHUNK_SIZE){
+                        insertReplies(replies, result);
+                    }
+                } else {
+                    throw new IllegalArgumentException(lineNum + "번째 줄을 해석할 수 없습니다.");
+                }
+            }
+            insertBlogs(blogs, result);
+            insertReplies(replies, result);
+        } catch (IOException | RuntimeException e) {
+            // 잘못된 JSON, 이미 있는 번호 등. 실패한 묶음만 롤백되고 앞에서 커밋한 묶음은 남는다
+            log.warn("가져오기 실패. {}번째 줄, 저장된 글: {}개, 댓글: {}개",
+                    lineNum, result.getBlogCount(), result.getReplyCount());
+            throw new BlogImportException(lineNum, result, e);
+        }
+        return result;
+    }
+
+    // 한 묶음씩 각자의 트랜잭션으로 저장해서 큰 파일도 트랜잭션과 잠금이 짧게 유지된다
+    private void insertBlogs(List<Blog> blogs, BlogImportResultDTO result){
+        int size = blogs.size();
+        if(size > 0){
+            List<Blog> rows = new ArrayList<>(size);
+            for(Blog blog : blogs){
+                rows.add(blogContentService.toRow(blog));
+            }
+            transaction.executeWithoutResult(status -> {
+                blogRepository.insertAll(rows);
+                for(int i = 0; i < size; i++){
+                    Blog row = rows.get(i);
+                    if(row.isBodyStored()){
+                        blogContentService.saveBody(row.getBlogId(), blogs.get(i).getBlogContent());
+                    }
+                }
+            });
+            // 롤백된 번호가 필터에 남지 않도록 커밋된 뒤에 넣는다
+            for(Blog row : rows){
+                idFilterService.addBlog(row.getBlogId());
+            }
+            result.setBlogCount(result.getBlogCount() + size);
+            blogs.clear();
+        }
+    }
+
+    private void insertReplies(List<Reply> replies, BlogImportResultDTO result){
+        int size = replies.size();
+        if(size > 0){
+            // 가져온 댓글 수를 글의 댓글 수에도 더해준다
+            Map<Long, Long> counts = new TreeMap<>();
+            for(Reply reply : replies){
+                counts.merge(reply.getBlogId(), 1L, Long::sum);
+            }
+            List<BlogCountDeltaDTO> deltas = new ArrayList<>(counts.size());
+            counts.forEach((blogId, count) -> deltas.add(new BlogCountDeltaDTO(blogId, count)));
+            transaction.executeWithoutResult(status -> {
+                replyRepository.insertAll(replies);
+                blogRepository.increaseReplyCounts(deltas);
+            });
+            for(Reply reply : replies){
+                idFilterService.addReply(reply.getReplyId());
+            }
+            result.setReplyCount(result.getReplyCount() + size);
+            replies.clear();
+        }
+    }
+}
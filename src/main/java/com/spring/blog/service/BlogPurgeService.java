@@ -0,0 +1,12 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.PurgeStatsDTO;
+
+public interface BlogPurgeService {
+
+    // 삭제 표시된 글의 댓글을 나눠서 지우고, 댓글을 다 지운 글 행을 지우는 purge() 메서드 정의
+    void purge();
+
+    // 남은 글 수, 지금 정리 중인 글, 지운 댓글 수 등을 리턴하는 getStats() 메서드 정의
+    PurgeStatsDTO getStats();
+}
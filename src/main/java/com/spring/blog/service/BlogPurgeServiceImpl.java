@@ -0,0 +1,139 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.PurgeStatsDTO;
+import com.spring.blog.repository.BlogBodyRepository;
+import com.spring.blog.repository.BlogHtmlRepository;
+import com.spring.blog.repository.BlogRepository;
+import com.spring.blog.repository.ChatMessageRepository;
+import com.spring.blog.repository.ReplyRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// 삭제 표시된 글(blog.deleted_at)을 실제로 지운다
+// 댓글은 chunk-size개씩 구문 하나(자동 커밋)로 지우고 묶음 사이에 throttle-ms만큼 쉬어서
+// 한 번에 락을 오래 잡거나 undo 로그를 크게 키우지 않게 하고, 댓글을 다 지운 뒤에 글 행을 지운다
+@Service
+@Log4j2
+public class BlogPurgeServiceImpl implements BlogPurgeService {
+
+    // 한 주기에 정리할 최대 글 수
+    private static final int BLOGS_PER_RUN = 100;
+
+    private final LongAdder purgedBlogs = new LongAdder();
+    private final LongAdder purgedReplies = new LongAdder();
+    // purge()를 실행하는 스레드만 수정한다
+    private volatile Long currentBlogId;
+    private volatile long currentBlogPurgedReplies;
+    private volatile long lastChunkMillis;
+
+    private volatile boolean stopping;
+
+    BlogRepository blogRepository;
+
+    ReplyRepository replyRepository;
+
+    BlogBodyRepository blogBodyRepository;
+
+    BlogHtmlRepository blogHtmlRepository;
+
+    ChatMessageRepository chatMessageRepository;
+
+    int chunkSize;
+
+    long throttleMillis;
+
+    @Autowired
+    public BlogPurgeServiceImpl(BlogRepository blogRepository, ReplyRepository replyRepository,
+                                BlogBodyRepository blogBodyRepository, BlogHtmlRepository blogHtmlRepository,
+                                ChatMessageRepository chatMessageRepository,
+                                @Value("${blog.purge.chunk-size:1000}") int chunkSize,
+                                @Value("${blog.purge.throttle-ms:50}") long throttleMillis){
+        this.blogRepository = blogRepository;
+        this.replyRepository = replyRepository;
+        this.blogBodyRepository = blogBodyRepository;
+        this.blogHtmlRepository = blogHtmlRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.chunkSize = chunkSize;
+        this.throttleMillis = throttleMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.purge.interval-ms:10000}")
+    @Override
+    public synchronized void purge() {
+        List<Long> blogIds = blogRepository.findDeletedIds(BLOGS_PER_RUN);
+        for(long blogId : blogIds){
+            if(stopping || !purgeBlog(blogId)){
+                return;
+            }
+        }
+    }
+
+    // 글 하나의 댓글을 나눠서 지운 뒤 글 행을 지운다. 중간에 멈춰야 하면 false를 리턴(다음 주기에 이어서 지운다)
+    private boolean purgeBlog(long blogId){
+        currentBlogId = blogId;
+        currentBlogPurgedReplies = 0;
+        try {
+            int purged;
+            do {
+                long start = System.nanoTime();
+                purged = replyRepository.purgeByBlogId(blogId, chunkSize);
+                lastChunkMillis = (System.nanoTime() - start) / 1_000_000;
+                currentBlogPurgedReplies += purged;
+                purgedReplies.add(purged);
+                if(purged == chunkSize){
+                    if(stopping){
+                        return false;
+                    }
+                    // 다른 쓰기가 밀리지 않도록 묶음 사이에 쉰다
+                    Thread.sleep(throttleMillis);
+                }
+            } while(purged == chunkSize);
+
+            // 긴 글의 본문(blog_body)과 변환해둔 HTML(blog_html)은 외래키 때문에 글 행보다 먼저 지운다
+            blogBodyRepository.deleteById(blogId);
+            blogHtmlRepository.deleteById(blogId);
+            // 채팅 메세지는 외래키가 없지만 글이 지워지면 읽을 곳이 없으므로 함께 지운다
+            chatMessageRepository.deleteByBlogId(blogId);
+            if(blogRepository.purgeById(blogId) > 0){
+                purgedBlogs.increment();
+                log.info("삭제된 글 {}번을 정리했습니다. 댓글 {}개", blogId, currentBlogPurgedReplies);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (DataIntegrityViolationException e) {
+            // 삭제 표시 직전에 시작된 댓글 저장이 그 사이 커밋된 경우, 다음 주기에 남은 댓글부터 다시 지운다
+            log.warn("삭제된 글 {}번에 남은 댓글이 있어 다음 주기에 다시 정리합니다.", blogId);
+            return true;
+        } finally {
+            currentBlogId = null;
+        }
+    }
+
+    @Override
+    public PurgeStatsDTO getStats() {
+        return PurgeStatsDTO.builder()
+                .pendingBlogs(blogRepository.countDeleted())
+                .currentBlogId(currentBlogId)
+                .currentBlogPurgedReplies(currentBlogPurgedReplies)
+                .purgedBlogs(purgedBlogs.sum())
+                .purgedReplies(purgedReplies.sum())
+                .lastChunkMillis(lastChunkMillis)
+                .build();
+    }
+
+    // 서버가 종료될 때는 지우던 묶음까지만 지우고 멈춘다(남은 댓글은 다음에 서버가 뜨면 이어서 지운다)
+    @PreDestroy
+    public void shutdown(){
+        stopping = true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.spring.blog.service;
+
+import com.spring.blog.entity.Blog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+public interface BlogRenderService {
+
+    // 본문(Markdown)을 HTML로 변환해서 현재 변환기 버전과 함께 저장하는 renderAndSave() 메서드 정의
+    // 글 저장, 수정과 같은 트랜잭션에서 본문 전체로 호출한다
+    void renderAndSave(long blogId, String markdown);
+
+    // 변환해둔 HTML을 out에 바로 써주는 writeHtml() 메서드 정의(상세페이지용)
+    // 변환해둔 HTML이 없으면 지금 변환해서 쓰고 저장하며, 옛날 버전으로 변환된 HTML은 그대로 쓰고 백그라운드에서 다시 변환한다
+    void writeHtml(Blog blog, Writer out) throws IOException;
+
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,268 @@
+package com.spring.blog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.spring.blog.content.BodyCodec;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogHtml;
+import com.spring.blog.markdown.MarkdownRenderer;
+import com.spring.blog.repository.BlogHtmlRepository;
+import com.spring.blog.repository.BlogRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 본문(Markdown)을 조회할 때마다 변환하면 많이 읽히는 글일수록 같은 변환을 계속 반복하게 되므로
+// 글을 저장, 수정할 때 한 번만 HTML로 변환해서 변환기 버전과 함께 blog_html에 저장해두고 상세페이지는 그 HTML을 그대로 출력한다
+// 변환기 버전(MarkdownRenderer.VERSION)이 바뀌면 전체 글을 한꺼번에 다시 변환하지 않고,
+// 옛날 버전 HTML이 조회될 때 일단 그대로 보여주면서 백그라운드 스레드에서 그 글만 다시 변환한다
+// HTML은 blog_body와 같은 방식으로 담고(BodyCodec), 캐시와 아주 긴 HTML을 풀면서 바로 쓰는 방식도 BlogContentServiceImpl과 같다
+@Service
+@Log4j2
+public class BlogRenderServiceImpl implements BlogRenderService {
+
+    // 풀면서 응답에 쓸 때의 버퍼 크기(글자 수)
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+
+    private final MarkdownRenderer renderer = new MarkdownRenderer();
+
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder lazyRenders = new LongAdder();
+    private final LongAdder staleReads = new LongAdder();
+    private final LongAdder rerenders = new LongAdder();
+    private final LongAdder droppedRerenders = new LongAdder();
+    private final LongAdder streamedReads = new LongAdder();
+
+    // 다시 변환하려고 대기열에 넣었거나 변환 중인 글번호, 같은 글을 여러 번 넣지 않기 위함
+    private final Set<Long> pendingRerenders = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor rerenderExecutor;
+
+    BlogRepository blogRepository;
+
+    BlogHtmlRepository blogHtmlRepository;
+
+    // 다시 변환할 때 긴 글은 본문 전체를 blog_body에서 읽는다
+    BlogContentService blogContentService;
+
+    // 변환해둔 HTML 캐시(CacheConfig에서 생성)
+    Cache<Long, String> htmlCache;
+
+    // HTML도 본문과 같은 기준으로 압축하고 캐시에 담는다
+    int compressMinBytes;
+
+    int cacheableMaxLength;
+
+    @Autowired
+    public BlogRenderServiceImpl(BlogRepository blogRepository, BlogHtmlRepository blogHtmlRepository,
+                                 BlogContentService blogContentService,
+                                 @Qualifier("blogHtmlCache") Cache<Long, String> htmlCache,
+                                 @Value("${blog.content.compress-min-bytes:4096}") int compressMinBytes,
+                                 @Value("${blog.content.cacheable-max-length:262144}") int cacheableMaxLength,
+                                 @Value("${blog.render.rerender-queue-capacity:1000}") int rerenderQueueCapacity){
+        this.blogRepository = blogRepository;
+        this.blogHtmlRepository = blogHtmlRepository;
+        this.blogContentService = blogContentService;
+        this.htmlCache = htmlCache;
+        this.compressMinBytes = compressMinBytes;
+        this.cacheableMaxLength = cacheableMaxLength;
+        // 다시 변환은 요청을 받는 스레드와 CPU를 다투지 않도록 스레드 하나로만 하고, 대기열이 가득 차면 버린다(다음 조회 때 다시 넣는다)
+        this.rerenderExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(rerenderQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "markdown-rerender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void renderAndSave(long blogId, String markdown) {
+        blogHtmlRepository.save(toRow(blogId, render(markdown)));
+        evict(blogId);
+    }
+
+    @Override
+    public void writeHtml(Blog blog, Writer out) throws IOException {
+        long blogId = blog.getBlogId();
+        Loaded loaded = load(blogId);
+        if(loaded.stale){
+            staleReads.increment();
+            scheduleRerender(blogId);
+        }
+        if(loaded.html != null){
+            out.write(loaded.html);
+            return;
+        }
+        if(loaded.row == null){
+            // 이 기능 전에 저장된 글, 가져오기로 들어온 글은 처음 조회될 때 변환해서 저장한다
+            lazyRenders.increment();
+            String html = render(blogContentService.readContent(blog));
+            blogHtmlRepository.saveIfVersionDiffers(toRow(blogId, html));
+            out.write(html);
+            return;
+        }
+        // 통째로 문자열을 만들지 않고 버퍼 크기만큼씩 풀어서 바로 쓴다
+        streamedReads.increment();
+        try(Reader reader = loaded.row.getCodec().openReader(loaded.row.getHtml())){
+            char[] buffer = new char[WRITE_BUFFER_SIZE];
+            int read;
+            while((read = reader.read(buffer)) != -1){
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    // 캐시에 있으면 캐시에서, 없으면 DB에서 읽는다. 캐시에 담을 수 있는 길이면 풀어서 캐시에 담고,
+    // 너무 길면 캐시에 담지 않고 읽어온 행을 그대로 돌려준다(BlogContentServiceImpl.load()와 같은 방식)
+    private Loaded load(long blogId){
+        Loaded loaded = new Loaded();
+        loaded.html = htmlCache.get(blogId, id -> {
+            BlogHtml row = blogHtmlRepository.findById(id);
+            loaded.fetched = true;
+            if(row == null){
+                return null;
+            }
+            loaded.stale = row.getRendererVersion() != MarkdownRenderer.VERSION;
+            if(row.getRawLength() > cacheableMaxLength){
+                loaded.row = row;
+                return null;
+            }
+            return decode(row);
+        });
+        if(loaded.html == null && !loaded.fetched){
+            // 다른 요청이 같은 글을 적재하다가 캐시에 담지 않은 경우
+            loaded.row = blogHtmlRepository.findById(blogId);
+            loaded.stale = loaded.row != null && loaded.row.getRendererVersion() != MarkdownRenderer.VERSION;
+        }
+        return loaded;
+    }
+
+    private void scheduleRerender(long blogId){
+        if(!pendingRerenders.add(blogId)){
+            return;
+        }
+        try {
+            rerenderExecutor.execute(() -> {
+                try {
+                    rerender(blogId);
+                } finally {
+                    pendingRerenders.remove(blogId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingRerenders.remove(blogId);
+            droppedRerenders.increment();
+        }
+    }
+
+    // 옛날 버전 HTML을 현재 버전으로 다시 변환한다
+    // 그 사이에 글이 수정되었다면 수정하면서 현재 버전으로 저장했으므로 덮어쓰지 않는다(saveIfVersionDiffers)
+    private void rerender(long blogId){
+        try {
+            Blog blog = blogRepository.findById(blogId);
+            if(blog == null){
+                return; // 삭제된 글
+            }
+            blogHtmlRepository.saveIfVersionDiffers(toRow(blogId, render(blogContentService.readContent(blog))));
+            htmlCache.invalidate(blogId);
+            rerenders.increment();
+        } catch (RuntimeException e) {
+            log.warn("{}번 글을 다시 변환하지 못했습니다. 다음 조회 때 다시 시도합니다.", blogId, e);
+        }
+    }
+
+    private String render(String markdown){
+        long start = System.nanoTime();
+        String html = renderer.render(markdown);
+        renderNanos.add(System.nanoTime() - start);
+        renders.increment();
+        return html;
+    }
+
+    private BlogHtml toRow(long blogId, String html){
+        BodyCodec.Encoded encoded = BodyCodec.encode(html.getBytes(StandardCharsets.UTF_8), compressMinBytes);
+        return BlogHtml.builder()
+                .blogId(blogId)
+                .rendererVersion(MarkdownRenderer.VERSION)
+                .codec(encoded.getCodec())
+                .rawLength(html.length())
+                .html(encoded.getBody())
+                .build();
+    }
+
+    private String decode(BlogHtml row){
+        return row.getCodec().decode(row.getHtml(), row.getRawLength());
+    }
+
+    // 캐시에서 HTML을 지운다. 트랜잭션 안이라면 커밋 전에 다른 요청이 옛날 HTML을 다시 캐시에 담을 수 있으므로
+    // 트랜잭션이 끝난 뒤에 한 번 더 지운다.
+    private void evict(long blogId){
+        htmlCache.invalidate(blogId);
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    htmlCache.invalidate(blogId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        CacheStats stats = htmlCache.stats();
+        long renderCount = renders.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rendererVersion", MarkdownRenderer.VERSION);
+        // 서버가 뜬 뒤로 변환한 횟수와 평균 변환시간(마이크로초)
+        result.put("renders", renderCount);
+        result.put("averageRenderMicros", renderCount == 0 ? 0 : renderNanos.sum() / renderCount / 1000);
+        // 변환해둔 HTML이 없어서 조회하면서 변환한 횟수
+        result.put("lazyRenders", lazyRenders.sum());
+        // 옛날 버전 HTML을 보여준 횟수, 백그라운드에서 다시 변환한 글 수, 대기열이 가득 차서 버린 수, 대기 중인 글 수
+        result.put("staleReads", staleReads.sum());
+        result.put("rerenders", rerenders.sum());
+        result.put("droppedRerenders", droppedRerenders.sum());
+        result.put("pendingRerenders", pendingRerenders.size());
+        result.put("cacheSize", htmlCache.estimatedSize());
+        result.put("cacheHitCount", stats.hitCount());
+        result.put("cacheMissCount", stats.missCount());
+        result.put("cacheEvictionCount", stats.evictionCount());
+        result.put("streamedReads", streamedReads.sum());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        rerenderExecutor.shutdownNow();
+    }
+
+    // 캐시에서 읽은(또는 풀어서 담은) HTML, 캐시에 담지 않았다면 DB에서 읽어온 행
+    // fetched는 이번 호출에서 DB를 읽었는지, stale은 읽은 행이 옛날 버전으로 변환된 것인지
+    private static class Loaded {
+        String html;
+        BlogHtml row;
+        boolean fetched;
+        boolean stale;
+    }
+}
@@ -0,0 +1,20 @@
+package com.spring.blog.service;
+
+import com.spring.blog.search.SearchHit;
+
+import java.util.List;
+
+public interface BlogSearchService {
+
+    // 검색어 입력시 관련도가 높은 순서로 글번호와 점수를 limit개까지 리턴해주는 search() 메서드 정의
+    List<SearchHit> search(String query, int limit);
+
+    // 글이 작성, 수정되었을 때 검색 색인에 반영하는 index() 메서드 정의
+    void index(long blogId, String blogTitle, String blogContent);
+
+    // 글이 삭제되었을 때 검색 색인에서 지우는 remove() 메서드 정의
+    void remove(long blogId);
+
+    // DB의 글 전체를 읽어서 색인을 새로 만드는 rebuild() 메서드 정의
+    void rebuild();
+}
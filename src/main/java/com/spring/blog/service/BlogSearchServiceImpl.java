@@ -0,0 +1,137 @@
+package com.spring.blog.service;
+
+import com.spring.blog.entity.Blog;
+import com.spring.blog.repository.BlogRepository;
+import com.spring.blog.search.InvertedIndex;
+import com.spring.blog.search.SearchHit;
+import lombok.extern.log4j.Log4j2;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// 외부 검색엔진 없이 서버 메모리에 역색인을 들고 검색하는 서비스
+// 서버가 뜨면 글 전체를 스트리밍으로 읽어서 색인을 만들고, 이후에는 글 작성/수정/삭제시마다 색인을 고친다.
+@Service
+@Log4j2
+public class BlogSearchServiceImpl implements BlogSearchService {
+
+    // 삭제 표시된 문서가 이 비율을 넘으면 색인을 새로 만들어 정리한다
+    private static final double REBUILD_DELETED_RATIO = 0.3;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    // 색인을 새로 만드는 동안 들어온 변경사항, 새 색인이 완성되면 다시 적용한다
+    private final List<Consumer<InvertedIndex>> pendingChanges = new ArrayList<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    BlogRepository blogRepository;
+
+    // 긴 글은 blog_content에 앞부분만 있으므로 본문 전체를 풀어서 색인한다
+    BlogContentService blogContentService;
+
+    TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public BlogSearchServiceImpl(BlogRepository blogRepository, BlogContentService blogContentService,
+                                 PlatformTransactionManager transactionManager){
+        this.blogRepository = blogRepository;
+        this.blogContentService = blogContentService;
+        // 커서로 스트리밍 조회하는 동안 DB 연결이 유지되어야 하므로 트랜잭션 안에서 읽는다
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    @Override
+    public void index(long blogId, String blogTitle, String blogContent) {
+        apply(target -> target.index(blogId, blogTitle, blogContent));
+    }
+
+    @Override
+    public void remove(long blogId) {
+        apply(target -> target.remove(blogId));
+    }
+
+    private synchronized void apply(Consumer<InvertedIndex> change){
+        change.accept(index);
+        if(rebuilding.get()){
+            pendingChanges.add(change);
+        }
+    }
+
+    // 서버가 요청을 받을 준비가 되면 별도 스레드에서 색인을 만든다(색인이 완성되기 전까지는 검색 결과가 비어있을 수 있음)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup(){
+        startRebuild();
+    }
+
+    // 수정, 삭제가 쌓여서 삭제 표시된 문서가 많아지면 색인을 새로 만든다
+    @Scheduled(fixedDelay = 10 * 60 * 1000, initialDelay = 10 * 60 * 1000)
+    public void compactIfNeeded(){
+        if(index.deletedRatio() > REBUILD_DELETED_RATIO){
+            startRebuild();
+        }
+    }
+
+    private void startRebuild(){
+        if(rebuilding.compareAndSet(false, true)){
+            Thread thread = new Thread(this::rebuildInternal, "search-index-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        if(rebuilding.compareAndSet(false, true)){
+            rebuildInternal();
+        }
+    }
+
+    private void rebuildInternal(){
+        long start = System.currentTimeMillis();
+        InvertedIndex fresh = new InvertedIndex();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                // 전체 글을 List로 받지 않고 커서로 한 건씩 읽으므로 글이 많아도 메모리를 일정하게 쓴다
+                try(Cursor<Blog> cursor = blogRepository.streamAll()){
+                    for(Blog blog : cursor){
+                        fresh.index(blog.getBlogId(), blog.getBlogTitle(), blogContentService.readContent(blog));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            synchronized (this){
+                // 색인을 만드는 동안 들어온 변경사항을 새 색인에 적용한 뒤 교체
+                pendingChanges.forEach(change -> change.accept(fresh));
+                pendingChanges.clear();
+                index = fresh;
+                rebuilding.set(false);
+            }
+            log.info("검색 색인 생성 완료. 글 개수: {}, 소요시간: {}ms", fresh.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            synchronized (this){
+                pendingChanges.clear();
+                rebuilding.set(false);
+            }
+            log.error("검색 색인 생성 실패", e);
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.spring.blog.service;
 
+import com.spring.blog.dto.BlogDetailDTO;
+import com.spring.blog.dto.BlogDetailValidatorDTO;
+import com.spring.blog.dto.BlogPageDTO;
+import com.spring.blog.dto.MultiGetResponseDTO;
 import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogSummary;
 
 import java.util.List;
 
@@ -10,10 +15,31 @@ public interface BlogService {
     // 전체 블로그 포스팅을 조회하는 메서드 findAll()을 선언
     List<Blog> findAll();
 
+    // 페이지 번호로 포스팅 목록을 조회하는 메서드 findPage() 선언
+    BlogPageDTO findPage(int pageNum);
+
+    // 마지막으로 본 글번호(cursor) 이후의 포스팅 목록을 조회하는 메서드 findPageAfter() 선언
+    BlogPageDTO findPageAfter(long cursor);
+
+    // 글번호 목록에 해당하는 포스팅의 목록용 정보를 넘겨받은 순서대로 조회하는 메서드 findSummariesByIds() 선언
+    // 없는 글번호는 건너뛴다
+    List<BlogSummary> findSummariesByIds(List<Long> blogIds);
+
     // 단일 포스팅을 조회는 메서드 FindById() 선언
     Blog findById(long blogId);
 
+    // 글번호 목록에 해당하는 포스팅을 넘겨받은 순서대로 조회하는 메서드 findByIds() 선언
+    // 캐시에 있는 글은 DB에 묻지 않고, 없거나 삭제된 글번호는 missing에 따로 담는다
+    MultiGetResponseDTO<Blog> findByIds(List<Long> blogIds);
+
+    // 단일 포스팅과 댓글 첫 페이지를 함께 조회하는 메서드 findDetailById() 선언(없는 글이면 null)
+    BlogDetailDTO findDetailById(long blogId);
+
+    // 상세페이지의 변경 여부를 판단할 값만 조회하는 메서드 findDetailValidatorById() 선언(없는 글이면 null)
+    BlogDetailValidatorDTO findDetailValidatorById(long blogId);
+
     // 단일 포스팅을 삭제하는 메서드 DeleteById() 선언
+    // 삭제 표시만 하고 바로 리턴하며, 조회, 목록, 검색에서는 바로 빠진다(댓글과 글 행은 BlogPurgeService가 나중에 지운다)
     void deleteById(long blogId);
 
     // 단일 포스팅을 게시하는 메서드 save() 선언
@@ -22,4 +48,8 @@ public interface BlogService {
     // 특정 포스팅을 수정하는 메서드 update() 선언
     void update(Blog blog);
 
+    // 모든 포스팅의 댓글 수(reply_count)를 실제 댓글 수와 비교해서 어긋난 값을 고쳐주는 메서드 reconcileReplyCounts() 선언
+    // 고친 포스팅 개수를 리턴
+    int reconcileReplyCounts();
+
 }
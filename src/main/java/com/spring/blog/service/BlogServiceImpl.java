@@ -1,27 +1,85 @@
 package com.spring.blog.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.spring.blog.dto.BlogDetailDTO;
+import com.spring.blog.dto.BlogDetailValidatorDTO;
+import com.spring.blog.dto.BlogPageDTO;
+import com.spring.blog.dto.MultiGetResponseDTO;
+import com.spring.blog.dto.ReplyCountMismatchDTO;
+import com.spring.blog.dto.ReplyResponseDTO;
 import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogSummary;
 import com.spring.blog.repository.BlogRepository;
-import com.spring.blog.repository.ReplyRepository;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@Log4j2
 public class BlogServiceImpl implements BlogService{
 
+    // 한 페이지에 보여줄 글 개수와 하단에 깔리는 페이지 버튼 개수
+    private static final int PAGE_SIZE = 10;
+    private static final int PAGE_BUTTON_COUNT = 10;
+    // 상세페이지에 글과 함께 그려줄 댓글 개수, 나머지는 화면에서 커서 방식으로 이어서 불러온다
+    private static final int DETAIL_REPLY_PAGE_SIZE = 20;
+    // 댓글 수 재계산시 SELECT 한 번에 확인할 글 개수
+    private static final int RECONCILE_CHUNK_SIZE = 200;
+
+    // 전체 글 개수는 매 요청마다 COUNT(*)를 하지 않도록 일정시간 동안 캐싱해서 사용한다.
+    // 글 작성, 삭제시에는 바로 만료시킨다.
+    private static final long TOTAL_COUNT_TTL_MILLIS = 30_000;
+    private volatile long cachedTotalCount;
+    private volatile long totalCountExpiresAt;
+
     BlogRepository blogRepository;
 
-    ReplyRepository replyRepository;
+    // 글 단건 조회 캐시(CacheConfig에서 생성)
+    Cache<Long, Blog> blogCache;
+
+    // 글이 바뀔 때마다 검색 색인도 고쳐준다
+    BlogSearchService blogSearchService;
+
+    // 없는 글번호를 DB에 묻지 않고 걸러내기 위한 번호 존재 필터
+    IdFilterService idFilterService;
+
+    // 긴 본문은 blog 행과 따로 압축해서 저장한다
+    BlogContentService blogContentService;
+
+    // 본문(Markdown)은 저장할 때 한 번만 HTML로 변환해둔다
+    BlogRenderService blogRenderService;
+
+    // 목록에 함께 보여줄 본문 앞부분 길이(0이면 가져오지 않음)
+    int excerptLength;
 
     @Autowired
-    public BlogServiceImpl(BlogRepository blogRepository, ReplyRepository replyRepository){
+    public BlogServiceImpl(BlogRepository blogRepository,
+                           Cache<Long, Blog> blogCache, BlogSearchService blogSearchService,
+                           IdFilterService idFilterService, BlogContentService blogContentService,
+                           BlogRenderService blogRenderService,
+                           @Value("${blog.list.excerpt-length:0}") int excerptLength){
         this.blogRepository = blogRepository;
-        this.replyRepository = replyRepository;
+        this.blogCache = blogCache;
+        this.blogSearchService = blogSearchService;
+        this.idFilterService = idFilterService;
+        this.blogContentService = blogContentService;
+        this.blogRenderService = blogRenderService;
+        this.excerptLength = excerptLength;
     }
 
+    // replica 라우팅을 켜면 replica에서 읽는다(DataSourceRoutingConfig)
+    @Transactional(readOnly = true)
     @Override
     public List<Blog> findAll() {
 //        List<Blog> blogList = blogRepository.findAll();
@@ -29,25 +87,258 @@ public class BlogServiceImpl implements BlogService{
         return blogRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public BlogPageDTO findPage(int pageNum) {
+        long totalCount = getTotalCount();
+        int totalPages = (int) Math.max(1, (totalCount + PAGE_SIZE - 1) / PAGE_SIZE);
+        // 범위를 벗어난 페이지 번호는 첫 페이지, 마지막 페이지로 맞춰준다
+        int currentPageNum = Math.min(Math.max(pageNum, 1), totalPages);
+
+        List<BlogSummary> blogList = blogRepository.findPage((long) (currentPageNum - 1) * PAGE_SIZE, PAGE_SIZE,
+                excerptLength);
+        Long nextCursor = (currentPageNum < totalPages && !blogList.isEmpty())
+                ? blogList.get(blogList.size() - 1).getBlogId() : null;
+        return buildPage(blogList, currentPageNum, totalCount, totalPages, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BlogPageDTO findPageAfter(long cursor) {
+        long totalCount = getTotalCount();
+        int totalPages = (int) Math.max(1, (totalCount + PAGE_SIZE - 1) / PAGE_SIZE);
+
+        // 다음 페이지가 있는지 알기 위해 한 개를 더 가져온다
+        List<BlogSummary> blogList = blogRepository.findPageAfter(cursor, PAGE_SIZE + 1, excerptLength);
+        Long nextCursor = null;
+        if(blogList.size() > PAGE_SIZE){
+            blogList = blogList.subList(0, PAGE_SIZE);
+            nextCursor = blogList.get(PAGE_SIZE - 1).getBlogId();
+        }
+        // 커서 방식은 현재 페이지 번호를 알 수 없으므로 0으로 둔다
+        return buildPage(blogList, 0, totalCount, totalPages, nextCursor);
+    }
+
+    private BlogPageDTO buildPage(List<BlogSummary> blogList, int currentPageNum, long totalCount,
+                                  int totalPages, Long nextCursor){
+        // 현재 페이지가 속한 버튼 묶음의 시작번호와 끝번호 계산
+        int startPageNum = (Math.max(currentPageNum, 1) - 1) / PAGE_BUTTON_COUNT * PAGE_BUTTON_COUNT + 1;
+        int endPageNum = Math.min(startPageNum + PAGE_BUTTON_COUNT - 1, totalPages);
+        return BlogPageDTO.builder()
+                .blogList(blogList)
+                .currentPageNum(currentPageNum)
+                .startPageNum(startPageNum)
+                .endPageNum(endPageNum)
+                .totalPages(totalPages)
+                .totalCount(totalCount)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BlogSummary> findSummariesByIds(List<Long> blogIds) {
+        if(blogIds.isEmpty()){
+            return List.of();
+        }
+        Map<Long, BlogSummary> summaryById = new HashMap<>();
+        for(BlogSummary summary : blogRepository.findSummariesByIds(blogIds, excerptLength)){
+            summaryById.put(summary.getBlogId(), summary);
+        }
+        List<BlogSummary> summaries = new ArrayList<>(blogIds.size());
+        for(Long blogId : blogIds){
+            BlogSummary summary = summaryById.get(blogId);
+            if(summary != null){
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    // 캐싱된 전체 글 개수를 리턴하고, 만료되었다면 DB에서 다시 센다
+    private long getTotalCount(){
+        long now = System.currentTimeMillis();
+        if(now >= totalCountExpiresAt){
+            cachedTotalCount = blogRepository.countAll();
+            totalCountExpiresAt = now + TOTAL_COUNT_TTL_MILLIS;
+        }
+        return cachedTotalCount;
+    }
+
+    // 캐시를 채우는 조회는 모든 요청이 함께 보게 되므로 replica 지연으로 오래된 글이 캐시에 들어가지 않도록 primary에서 읽는다
     @Override
     public Blog findById(long blogId) {
-        return blogRepository.findById(blogId);
+        // 쓰기 트랜잭션 안에서는 커밋 전 데이터가 캐시에 들어가지 않도록 캐시를 거치지 않는다
+        if(TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+            return blogRepository.findById(blogId);
+        }
+        // 캐시에 없으면 DB에서 가져와 담는다. 같은 글을 동시에 여러 요청이 찾더라도 DB 조회는 한 번만 일어난다.
+        // 없는 글(null)은 캐시에 담지 않는다.
+        Blog blog = blogCache.get(blogId, blogRepository::findById);
+        // 캐시에 든 객체를 호출한 쪽에서 수정(조회수 더하기 등)해도 캐시에 영향이 없도록 복사본을 리턴
+        return blog == null ? null : blog.toBuilder().build();
+    }
+
+    // 캐시에 든 글은 DB에 묻지 않고, 필터에서 확실히 없는 번호는 빼고, 나머지만 IN 쿼리로 묶음마다 한 번씩 가져온다
+    // DB에서 읽은 글은 캐시에 넣지 않는다. 여러 건을 한 번에 넣으면 그 사이에 수정되어 지워진 캐시에
+    // 옛날 글을 다시 넣을 수 있기 때문이다(단건 조회는 캐시가 글마다 적재를 한 번만 하도록 막아준다)
+    @Transactional(readOnly = true)
+    @Override
+    public MultiGetResponseDTO<Blog> findByIds(List<Long> blogIds) {
+        Set<Long> requested = MultiGets.distinctIds(blogIds);
+        Map<Long, Blog> found = new HashMap<>(blogCache.getAllPresent(requested));
+        List<Long> misses = new ArrayList<>();
+        for(Long blogId : requested){
+            if(!found.containsKey(blogId) && idFilterService.mightContainBlog(blogId)){
+                misses.add(blogId);
+            }
+        }
+        for(int from = 0; from < misses.size(); from += MultiGets.CHUNK_SIZE){
+            List<Long> chunk = misses.subList(from, Math.min(from + MultiGets.CHUNK_SIZE, misses.size()));
+            for(Blog blog : blogRepository.findByIds(chunk)){
+                found.put(blog.getBlogId(), blog);
+            }
+        }
+        List<Blog> blogs = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for(Long blogId : requested){
+            Blog blog = found.get(blogId);
+            if(blog == null){
+                missing.add(blogId);
+            } else {
+                // 캐시에 든 객체를 호출한 쪽에서 수정해도 캐시에 영향이 없도록 복사본을 담는다
+                blogs.add(blog.toBuilder().build());
+            }
+        }
+        return new MultiGetResponseDTO<>(blogs, missing);
+    }
+
+    @Override
+    public BlogDetailDTO findDetailById(long blogId) {
+        // 다음 페이지가 있는지 알기 위해 한 개를 더 가져온다
+        BlogDetailDTO detail = blogRepository.findDetailById(blogId, DETAIL_REPLY_PAGE_SIZE + 1);
+        if(detail == null){
+            return null;
+        }
+        List<ReplyResponseDTO> replies = detail.getReplies();
+        if(replies.size() > DETAIL_REPLY_PAGE_SIZE){
+            replies = new ArrayList<>(replies.subList(0, DETAIL_REPLY_PAGE_SIZE));
+            detail.setReplies(replies);
+            detail.setNextReplyCursor(replies.get(DETAIL_REPLY_PAGE_SIZE - 1).getReplyId());
+        }
+        // 읽어온 글은 캐시에 넣지 않는다. 읽은 뒤 넣기 전에 수정이 커밋되어 캐시를 지웠다면
+        // 옛날 글을 다시 넣게 되기 때문이다(findByIds()와 같은 이유)
+        return detail;
+    }
+
+    @Override
+    public BlogDetailValidatorDTO findDetailValidatorById(long blogId) {
+        return blogRepository.findDetailValidatorById(blogId);
     }
 
-    @Transactional // 둘다 실행되던지 둘 다 실행 안되던지 (test코드말고도 @Transactional어노테이션을 걸 수 있다)
+    // 댓글이 많은 글을 한 번에 지우면 큰 DELETE가 락을 오래 잡고 요청도 그만큼 기다리므로
+    // 삭제 표시만 하고 바로 응답한다. 댓글과 글 행은 BlogPurgeServiceImpl이 나눠서 지운다
+    @Transactional
     @Override
     public void deleteById(long blogId) {
-        replyRepository.deleteByBlogId(blogId);
-        blogRepository.deleteById(blogId);
+        blogRepository.softDeleteById(blogId);
+        totalCountExpiresAt = 0; // 글 개수가 바뀌었으므로 캐싱된 개수 만료
+        evictBlogCache(blogId);
+        runAfterCommit(() -> blogSearchService.remove(blogId));
+        idFilterService.removeBlog(blogId);
     }
 
+    // 긴 본문은 blog 행에는 앞부분만 넣고 전체는 blog_body에, 변환한 HTML은 blog_html에 저장하므로 한 트랜잭션으로 묶는다
+    @Transactional
     @Override
     public void save(Blog blog) {
-        blogRepository.save(blog);
+        Blog row = blogContentService.toRow(blog);
+        blogRepository.save(row);
+        blog.setBlogId(row.getBlogId());
+        if(row.isBodyStored()){
+            blogContentService.saveBody(row.getBlogId(), blog.getBlogContent());
+        }
+        blogRenderService.renderAndSave(row.getBlogId(), blog.getBlogContent());
+        idFilterService.addBlog(blog.getBlogId());
+        totalCountExpiresAt = 0;
+        evictBlogCache(blog.getBlogId());
+        indexAfterCommit(blog);
     }
 
+    @Transactional
     @Override
     public void update(Blog blog) {
-        blogRepository.update(blog);
+        Blog row = blogContentService.toRow(blog);
+        // 없거나 삭제 표시된 글은 고친 행이 없으므로 검색 색인에 다시 넣지 않는다
+        if(blogRepository.update(row) > 0){
+            if(row.isBodyStored()){
+                blogContentService.saveBody(row.getBlogId(), blog.getBlogContent());
+            } else {
+                // 수정으로 본문이 짧아졌다면 따로 저장해둔 옛날 본문을 지운다
+                blogContentService.deleteBody(row.getBlogId());
+            }
+            blogRenderService.renderAndSave(row.getBlogId(), blog.getBlogContent());
+            evictBlogCache(blog.getBlogId());
+            indexAfterCommit(blog);
+        }
+    }
+
+    // 댓글 수는 댓글 저장, 삭제와 같은 트랜잭션에서 증감하지만 직접 DB를 고치는 등으로 어긋날 수 있으므로
+    // 주기적으로 글번호 순서대로 조금씩 나눠서 실제 댓글 수와 비교해 고쳐준다
+    // UPDATE 안에서 reply를 세면 InnoDB(REPEATABLE READ)는 세는 동안 reply에 공유 next-key 락을 잡아서 그 글들의
+    // 댓글 저장을 막고, 글 -> 댓글 순서로 락을 잡으므로 댓글 -> 글 순서로 잡는 댓글 삭제와 데드락이 날 수 있다
+    // 그래서 락 없이 읽는 SELECT로 먼저 세고, 값이 다른 글만 한 건씩(자동 커밋) 고친다
+    @Scheduled(fixedDelayString = "${blog.reply-count.reconcile-interval-ms:3600000}", initialDelay = 60 * 1000)
+    @Override
+    public int reconcileReplyCounts() {
+        int repaired = 0;
+        long after = 0;
+        Long chunkEnd;
+        while((chunkEnd = blogRepository.findChunkEndAfter(after, RECONCILE_CHUNK_SIZE)) != null){
+            for(ReplyCountMismatchDTO mismatch : blogRepository.findReplyCountMismatches(after, chunkEnd)){
+                repaired += blogRepository.repairReplyCount(mismatch);
+            }
+            after = chunkEnd;
+        }
+        if(repaired > 0){
+            log.info("댓글 수가 어긋난 글 {}개를 고쳤습니다.", repaired);
+        }
+        return repaired;
+    }
+
+    private void indexAfterCommit(Blog blog){
+        long blogId = blog.getBlogId();
+        String blogTitle = blog.getBlogTitle();
+        String blogContent = blog.getBlogContent();
+        runAfterCommit(() -> blogSearchService.index(blogId, blogTitle, blogContent));
+    }
+
+    // 트랜잭션 안이라면 커밋된 뒤에, 아니라면 바로 실행한다(롤백된 내용이 색인에 들어가지 않도록)
+    private void runAfterCommit(Runnable task){
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    // 캐시에서 글을 지운다. 트랜잭션 안이라면 커밋 전에 다른 요청이 옛날 데이터를 다시 캐시에 담을 수 있으므로
+    // 트랜잭션이 끝난 뒤에 한 번 더 지운다.
+    private void evictBlogCache(long blogId){
+        blogCache.invalidate(blogId);
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    blogCache.invalidate(blogId);
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.spring.blog.service;
+
+public interface BlogViewCountService {
+
+    // 글 조회시 해당 글의 조회수를 메모리에서 1 증가시키는 메서드 increase() 선언
+    void increase(long blogId);
+
+    // 아직 DB에 반영되지 않은 조회수 증가분을 리턴하는 메서드 getPendingCount() 선언
+    long getPendingCount(long blogId);
+
+    // 모아둔 조회수 증가분을 DB에 한 번에 반영하는 메서드 flush() 선언
+    void flush();
+}
@@ -0,0 +1,184 @@
+package com.spring.blog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.spring.blog.dto.BlogCountDeltaDTO;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.repository.BlogRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// 조회수는 상세페이지를 볼 때마다 UPDATE를 날리면 인기글의 row에 락 경합이 생기므로
+// 메모리에 글번호별로 증가분을 모아두었다가 주기적으로 한 번의 UPDATE로 반영한다(write-behind)
+@Service
+@Log4j2
+public class BlogViewCountServiceImpl implements BlogViewCountService {
+
+    // UPDATE 한 번에 반영할 최대 글 개수
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    // 글번호별 조회수 카운터
+    private final Map<Long, ViewCounter> counters = new ConcurrentHashMap<>();
+
+    BlogRepository blogRepository;
+
+    // 조회수를 반영한 글은 캐시에 담긴 조회수도 같이 올려준다
+    Cache<Long, Blog> blogCache;
+
+    @Autowired
+    public BlogViewCountServiceImpl(BlogRepository blogRepository, Cache<Long, Blog> blogCache){
+        this.blogRepository = blogRepository;
+        this.blogCache = blogCache;
+    }
+
+    @Override
+    public void increase(long blogId) {
+        // 카운터가 있으면 락 없이 꺼내서 더하기만 하므로 인기글에 조회가 몰려도 LongAdder가 나눠서 더한다
+        while(true){
+            ViewCounter counter = counters.get(blogId);
+            if(counter == null){
+                counter = counters.computeIfAbsent(blogId, id -> new ViewCounter());
+            }
+            if(counter.tryIncrement()){
+                return;
+            }
+            // evictIdleCounters()가 제거하는 중인 카운터였다면 새 카운터(또는 제거를 취소한 그 카운터)에 다시 더한다
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public long getPendingCount(long blogId) {
+        ViewCounter counter = counters.get(blogId);
+        return counter == null ? 0 : counter.pending();
+    }
+
+    // 설정한 주기마다, 그리고 서버가 종료될 때 남은 증가분을 DB에 반영한다
+    @Scheduled(fixedDelayString = "${blog.view-count.flush-interval-ms:5000}")
+    @PreDestroy
+    @Override
+    public synchronized void flush() {
+        List<BlogCountDeltaDTO> deltas = new ArrayList<>();
+        List<ViewCounter> flushing = new ArrayList<>();
+        List<Long> snapshots = new ArrayList<>();
+
+        for(Map.Entry<Long, ViewCounter> entry : counters.entrySet()){
+            ViewCounter counter = entry.getValue();
+            // 그 순간의 합계이고, 이후에 들어온 증가분은 다음 flush때 반영된다
+            long total = counter.total();
+            long delta = total - counter.flushed;
+            if(delta > 0){
+                deltas.add(new BlogCountDeltaDTO(entry.getKey(), delta));
+                flushing.add(counter);
+                snapshots.add(total);
+            }
+        }
+
+        for(int from = 0; from < deltas.size(); from += FLUSH_CHUNK_SIZE){
+            int to = Math.min(from + FLUSH_CHUNK_SIZE, deltas.size());
+            List<BlogCountDeltaDTO> chunk = deltas.subList(from, to);
+            // UPDATE 전에 캐시에 들어있던 글은 반영 전 조회수를 담고 있다
+            Map<Long, Blog> cachedBefore = blogCache.getAllPresent(toBlogIds(chunk));
+            try {
+                blogRepository.increaseBlogCounts(chunk);
+            } catch (RuntimeException e) {
+                // 반영에 실패한 증가분은 flushed를 올리지 않았으므로 다음 flush때 다시 시도된다
+                log.warn("조회수 반영 실패, 다음 주기에 재시도합니다. 글 개수: {}", to - from, e);
+                continue;
+            }
+            for(int i = from; i < to; i++){
+                // 캐시를 먼저 고쳐야 반영대기 조회수가 0이 된 뒤에 옛날 조회수가 보이는 일이 없다
+                updateCachedCount(deltas.get(i), cachedBefore);
+                flushing.get(i).flushed = snapshots.get(i);
+            }
+        }
+
+        evictIdleCounters();
+    }
+
+    // 많이 조회되는 글일수록 매 주기 반영 대상이 되므로 캐시에서 지우지 않고 담긴 글의 조회수만 올린다
+    // UPDATE 전부터 캐시에 있던 그 객체 그대로라면 반영 전 조회수를 담고 있으므로 증가분을 더하고,
+    // 그 사이에 새로 담긴 글은 UPDATE 전후 어느 쪽 값을 읽었는지 알 수 없으므로 지운다
+    // 쓰기 트랜잭션 안이라면 롤백될 수 있으므로 고치지 않고 지운다
+    private void updateCachedCount(BlogCountDeltaDTO delta, Map<Long, Blog> cachedBefore){
+        long blogId = delta.getBlogId();
+        Blog before = cachedBefore.get(blogId);
+        if(before == null || TransactionSynchronizationManager.isActualTransactionActive()){
+            blogCache.invalidate(blogId);
+            return;
+        }
+        blogCache.asMap().computeIfPresent(blogId, (id, blog) -> blog != before ? null
+                : blog.toBuilder().blogCount(blog.getBlogCount() + delta.getDelta()).build());
+    }
+
+    private List<Long> toBlogIds(List<BlogCountDeltaDTO> deltas){
+        List<Long> blogIds = new ArrayList<>(deltas.size());
+        for(BlogCountDeltaDTO delta : deltas){
+            blogIds.add(delta.getBlogId());
+        }
+        return blogIds;
+    }
+
+    // 반영할 증가분이 없고 지난 주기 이후로 조회도 없었던 카운터는 메모리에서 제거한다
+    // increase()는 락 없이 더하므로, 먼저 제거 중(retired)으로 표시한 뒤에 다시 합계를 확인한다
+    // 표시 전에 더한 증가분은 이 합계에 보이고, 표시 후에 더한 쪽은 표시를 보고 다시 더하므로 잃어버리는 증가분이 없다
+    private void evictIdleCounters(){
+        for(Long blogId : counters.keySet()){
+            counters.computeIfPresent(blogId, (id, counter) -> {
+                long total = counter.total();
+                if(total != counter.flushed || total != counter.lastSeen){
+                    counter.lastSeen = total;
+                    return counter;
+                }
+                counter.retired = true;
+                if(counter.total() == total){
+                    return null;
+                }
+                // 확인하는 사이에 조회가 있었다면 제거를 취소한다(다시 더하려던 쪽은 이 카운터에 더한다)
+                counter.retired = false;
+                return counter;
+            });
+        }
+    }
+
+    // 글 하나의 누적 조회수와, 그 중 DB에 반영된 만큼을 기록하는 카운터
+    private static class ViewCounter {
+        final LongAdder views = new LongAdder();
+        // 제거 중인 카운터에 더해져서 무효가 된 증가분(더한 쪽이 다시 더한다)
+        final LongAdder abandoned = new LongAdder();
+        volatile boolean retired;
+        // flushed, lastSeen은 flush()를 실행하는 스레드만 수정한다
+        volatile long flushed;
+        long lastSeen;
+
+        // 더한 뒤에 제거 중 표시를 확인해서, 표시가 있었다면 무효로 돌리고 false를 리턴한다
+        boolean tryIncrement(){
+            views.increment();
+            if(!retired){
+                return true;
+            }
+            abandoned.increment();
+            return false;
+        }
+
+        // 무효가 된 증가분을 뺀 누적 조회수
+        // abandoned를 먼저 읽어야 무효 표시만 보이고 그 증가분은 보이지 않아서 실제보다 작게 읽히는 일이 없다
+        long total(){
+            long abandonedViews = abandoned.sum();
+            return views.sum() - abandonedViews;
+        }
+
+        long pending(){
+            return total() - flushed;
+        }
+    }
+}
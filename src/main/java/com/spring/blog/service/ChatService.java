@@ -0,0 +1,29 @@
+package com.spring.blog.service;
+
+import com.spring.blog.entity.ChatMessage;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ChatService {
+
+    // 글번호 입력시 그 글의 채팅방 메세지를 받을 SSE 연결을 만들어주는 subscribe() 메서드 정의(없는 글이면 null)
+    // 구독자가 최대 구독자 수만큼 있으면 IllegalStateException
+    SseEmitter subscribe(long blogId);
+
+    // 채팅방에 메세지를 보내는 send() 메서드 정의
+    // 번호가 매겨진 메세지를 리턴하고, 없는 글이면 null을 리턴한다
+    // 보낸 사람, 내용이 비었거나 너무 길면 IllegalArgumentException, 저장 대기열이 가득 차면 IllegalStateException
+    ChatMessage send(long blogId, String sender, String content);
+
+    // 채팅방에서 afterSeq번 이후의 최근 메세지를 리턴하는 findHistory() 메서드 정의(없는 글이면 null)
+    // 메모리에 남아있는 최근 메세지만 리턴한다
+    List<ChatMessage> findHistory(long blogId, long afterSeq);
+
+    // 모아둔 메세지를 DB에 한 번에 저장하는 flush() 메서드 정의
+    void flush();
+
+    // 열린 채팅방 수, 구독자 수, 저장 대기열 크기 등을 리턴하는 getStats() 메서드 정의
+    Map<String, Object> getStats();
+}
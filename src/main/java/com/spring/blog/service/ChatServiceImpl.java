@@ -0,0 +1,282 @@
+package com.spring.blog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.blog.chat.ChatRoom;
+import com.spring.blog.dto.PushStatsDTO;
+import com.spring.blog.entity.ChatMessage;
+import com.spring.blog.push.SseBroadcaster;
+import com.spring.blog.repository.BlogRepository;
+import com.spring.blog.repository.ChatMessageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// 글마다 열리는 실시간 채팅
+// 메세지는 채팅방 링버퍼(ChatRoom)에 담고 바로 구독자에게 방송한 뒤, DB에는 모아두었다가 주기적으로 한 번에 저장한다(write-behind).
+// 보내는 요청은 DB를 기다리지 않으므로 한 채팅방에 참여자가 많아도 메세지 하나의 비용은 링버퍼 쓰기와 큐에 넣기뿐이다.
+@Service
+@Log4j2
+public class ChatServiceImpl implements ChatService {
+
+    // SSE 이벤트 이름
+    private static final String CHAT_EVENT = "chat";
+
+    // INSERT 한 번에 저장할 최대 메세지 수
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    // chat_message 테이블의 컬럼 길이(sql/chat_message.sql 참고)
+    private static final int SENDER_MAX_LENGTH = 40;
+    private static final int CONTENT_MAX_LENGTH = 500;
+
+    // 메모리에 올라와 있는 채팅방
+    private final Map<Long, ChatRoom> rooms = new ConcurrentHashMap<>();
+
+    // 아직 DB에 저장하지 않은 메세지
+    private final BlockingQueue<ChatMessage> persistQueue;
+
+    // 저장하려고 꺼냈지만 아직 저장하지 못한 메세지, 연결 끊김 등으로 실패하면 다음 주기에 다시 저장한다(flush()를 실행하는 스레드만 사용)
+    private final List<ChatMessage> pending = new ArrayList<>();
+
+    private final LongAdder persistedMessages = new LongAdder();
+    private final LongAdder persistFailures = new LongAdder();
+    private final LongAdder rejectedMessages = new LongAdder();
+    private final LongAdder droppedMessages = new LongAdder();
+
+    ChatMessageRepository chatMessageRepository;
+
+    // 채팅방을 열 때 글이 있는지 확인하기 위해 사용
+    BlogRepository blogRepository;
+
+    SseBroadcaster broadcaster;
+
+    int historySize;
+
+    long roomIdleMillis;
+
+    @Autowired
+    public ChatServiceImpl(ChatMessageRepository chatMessageRepository, BlogRepository blogRepository,
+                           ObjectMapper objectMapper,
+                           @Value("${blog.chat.history-size:256}") int historySize,
+                           @Value("${blog.chat.queue-capacity:256}") int queueCapacity,
+                           @Value("${blog.chat.persist-queue-capacity:100000}") int persistQueueCapacity,
+                           @Value("${blog.chat.room-idle-seconds:600}") long roomIdleSeconds,
+                           @Value("${blog.push.timeout-ms:1800000}") long timeoutMillis,
+                           @Value("${blog.chat.max-subscribers:4000}") int maxSubscribers){
+        this.chatMessageRepository = chatMessageRepository;
+        this.blogRepository = blogRepository;
+        this.historySize = historySize;
+        this.roomIdleMillis = roomIdleSeconds * 1000;
+        this.persistQueue = new ArrayBlockingQueue<>(persistQueueCapacity);
+        this.broadcaster = new SseBroadcaster("chat", queueCapacity, timeoutMillis, maxSubscribers, objectMapper);
+    }
+
+    @Override
+    public SseEmitter subscribe(long blogId) {
+        ChatRoom room = getRoom(blogId);
+        if(room == null){
+            return null;
+        }
+        room.touch();
+        return broadcaster.subscribe(blogId);
+    }
+
+    @Override
+    public ChatMessage send(long blogId, String sender, String content) {
+        if(sender == null || sender.isBlank() || sender.length() > SENDER_MAX_LENGTH){
+            throw new IllegalArgumentException("보낸 사람은 1~" + SENDER_MAX_LENGTH + "자여야 합니다.");
+        }
+        if(content == null || content.isBlank() || content.length() > CONTENT_MAX_LENGTH){
+            throw new IllegalArgumentException("메세지는 1~" + CONTENT_MAX_LENGTH + "자여야 합니다.");
+        }
+        ChatMessage message;
+        do {
+            ChatRoom room = getRoom(blogId);
+            if(room == null){
+                return null;
+            }
+            // DB 저장이 밀려 대기열이 가득 찼다면 번호를 매기기 전에 거절한다(저장되지 않을 메세지를 방송하지 않도록)
+            if(persistQueue.remainingCapacity() == 0){
+                rejectedMessages.increment();
+                throw new IllegalStateException("메세지가 너무 많습니다. 잠시 후 다시 보내주세요.");
+            }
+            // 채팅방이 닫히기 전에 저장 대기열에 넣어야 다시 열리는 채팅방이 이 메세지를 보고 번호를 이어간다
+            // 그 사이에 유휴 채팅방으로 정리되어 닫혔다면 null이 오므로 새로 연 채팅방에 다시 보낸다
+            message = room.append(sender, content, LocalDateTime.now(), this::enqueue);
+        } while(message == null);
+        broadcaster.publish(blogId, CHAT_EVENT, message);
+        return message;
+    }
+
+    private void enqueue(ChatMessage message){
+        if(!persistQueue.offer(message)){
+            // 확인한 직후 다른 요청이 마지막 자리를 가져간 경우, 이미 방송 대상이 된 메세지이므로 기록만 남긴다
+            persistFailures.increment();
+            log.warn("채팅 저장 대기열이 가득 차서 메세지를 저장하지 못했습니다. 글번호: {}, 번호: {}", message.getBlogId(), message.getSeq());
+        }
+    }
+
+    @Override
+    public List<ChatMessage> findHistory(long blogId, long afterSeq) {
+        ChatRoom room = getRoom(blogId);
+        return room == null ? null : room.history(afterSeq);
+    }
+
+    // 메모리에 있는 채팅방을 리턴하고, 없다면 DB에 저장된 최근 메세지로 채팅방을 연다(없는 글이면 null)
+    // DB 조회와 저장(flush())이 다른 글의 채팅방까지 막지 않도록 computeIfAbsent() 밖에서 읽고,
+    // 동시에 같은 채팅방을 읽었다면 먼저 넣은 쪽을 쓴다
+    private ChatRoom getRoom(long blogId){
+        while(true){
+            ChatRoom room = rooms.get(blogId);
+            if(room == null){
+                ChatRoom loaded = loadRoom(blogId);
+                if(loaded == null){
+                    return null;
+                }
+                room = rooms.putIfAbsent(blogId, loaded);
+                if(room == null){
+                    return loaded;
+                }
+            }
+            if(!room.isClosed()){
+                return room;
+            }
+            // 정리되는 중인 채팅방이면 마저 내리고 다시 연다
+            rooms.remove(blogId, room);
+        }
+    }
+
+    private ChatRoom loadRoom(long blogId){
+        if(blogRepository.findExistingIds(List.of(blogId)).isEmpty()){
+            return null;
+        }
+        // 정리된 채팅방이 다시 열리는 경우 아직 저장되지 않은 메세지가 있다면 그 번호 다음부터 이어가야 하므로
+        // 먼저 저장하고, 저장하지 못하고 남은 메세지는 DB에서 읽은 메세지와 함께 담는다(DB보다 먼저 확인해야 빠뜨리지 않는다)
+        List<ChatMessage> recent = flushAndFindUnsaved(blogId);
+        recent.addAll(chatMessageRepository.findRecentByBlogId(blogId, historySize));
+        recent.sort(Comparator.comparingLong(ChatMessage::getSeq));
+        return new ChatRoom(blogId, historySize, recent);
+    }
+
+    private synchronized List<ChatMessage> flushAndFindUnsaved(long blogId){
+        flush();
+        List<ChatMessage> unsaved = new ArrayList<>();
+        for(ChatMessage message : pending){
+            if(message.getBlogId() == blogId){
+                unsaved.add(message);
+            }
+        }
+        for(ChatMessage message : persistQueue){
+            if(message.getBlogId() == blogId){
+                unsaved.add(message);
+            }
+        }
+        return unsaved;
+    }
+
+    // 모아둔 메세지를 설정한 주기마다, 그리고 서버가 종료될 때 DB에 저장한다
+    @Scheduled(fixedDelayString = "${blog.chat.flush-interval-ms:200}")
+    @Override
+    public synchronized void flush(){
+        while(true){
+            if(pending.isEmpty()){
+                persistQueue.drainTo(pending, FLUSH_CHUNK_SIZE);
+                if(pending.isEmpty()){
+                    return;
+                }
+            }
+            try {
+                insertPending(pending.size());
+            } catch (RuntimeException e) {
+                // 연결 끊김 등 데이터 때문이 아닌 실패는 저장하지 못한 메세지가 pending에 남아있으므로 다음 주기에 다시 시도된다
+                persistFailures.increment();
+                log.warn("채팅 메세지 저장 실패, 다음 주기에 재시도합니다. 개수: {}", pending.size(), e);
+                return;
+            }
+        }
+    }
+
+    // pending 앞의 count개를 저장하고 pending에서 지운다
+    // 중복된 번호, 컬럼에 맞지 않는 값처럼 데이터 때문에 실패하면 다시 시도해도 계속 실패해서 모든 채팅방의 저장이 멈추므로
+    // 반씩 나눠서 다시 저장해보고, 한 개만 남아도 실패하면 그 메세지는 기록을 남기고 버린다
+    private void insertPending(int count){
+        List<ChatMessage> chunk = pending.subList(0, count);
+        try {
+            chatMessageRepository.insertAll(chunk);
+        } catch (DataIntegrityViolationException e) {
+            if(count == 1){
+                ChatMessage message = pending.remove(0);
+                droppedMessages.increment();
+                log.error("저장할 수 없는 채팅 메세지를 버립니다. 글번호: {}, 번호: {}", message.getBlogId(), message.getSeq(), e);
+                return;
+            }
+            int half = count / 2;
+            insertPending(half);
+            insertPending(count - half);
+            return;
+        }
+        persistedMessages.add(count);
+        chunk.clear();
+    }
+
+    // 구독자가 없고 한동안 메세지도 없었던 채팅방을 메모리에서 내린다(다시 열 때 DB에서 최근 메세지를 읽는다)
+    // 먼저 닫아서 그 뒤로는 이 채팅방에 번호를 매기지 않게 하고, 보내는 중인 메세지가 있으면 다음 주기로 미룬다
+    @Scheduled(fixedDelayString = "${blog.chat.eviction-interval-ms:60000}")
+    public void evictIdleRooms(){
+        long idleBefore = System.currentTimeMillis() - roomIdleMillis;
+        int evicted = 0;
+        for(ChatRoom room : rooms.values()){
+            if(broadcaster.getSubscriberCount(room.getBlogId()) == 0 && room.closeIfIdle(idleBefore)){
+                if(rooms.remove(room.getBlogId(), room)){
+                    evicted++;
+                }
+            }
+        }
+        if(evicted > 0){
+            log.info("유휴 채팅방 {}개를 정리했습니다.", evicted);
+        }
+    }
+
+    // 유휴 연결이 끊기지 않도록 주기적으로 빈 이벤트를 보낸다
+    @Scheduled(fixedDelayString = "${blog.push.heartbeat-interval-ms:20000}")
+    public void heartbeat(){
+        broadcaster.heartbeat();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        PushStatsDTO push = broadcaster.getStats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rooms", rooms.size());
+        result.put("subscribers", push.getSubscribers());
+        result.put("publishedMessages", push.getPublishedEvents());
+        result.put("droppedEvents", push.getDroppedEvents());
+        result.put("persistQueueSize", persistQueue.size());
+        result.put("persistedMessages", persistedMessages.sum());
+        result.put("persistFailures", persistFailures.sum());
+        result.put("rejectedMessages", rejectedMessages.sum());
+        result.put("droppedMessages", droppedMessages.sum());
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        broadcaster.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,31 @@
+package com.spring.blog.service;
+
+import java.util.Map;
+
+public interface IdFilterService {
+
+    // 글번호가 존재할 수도 있으면 true, 확실히 없으면 false를 리턴하는 mightContainBlog() 메서드 정의
+    boolean mightContainBlog(long blogId);
+
+    // 댓글번호가 존재할 수도 있으면 true, 확실히 없으면 false를 리턴하는 mightContainReply() 메서드 정의
+    boolean mightContainReply(long replyId);
+
+    // 글, 댓글이 저장될 때 번호를 필터에 넣는 메서드 정의(커밋 전에 넣어야 커밋 직후 조회가 걸러지지 않는다)
+    void addBlog(long blogId);
+
+    void addReply(long replyId);
+
+    // 글, 댓글이 삭제될 때 번호를 필터에서 빼는 메서드 정의(트랜잭션 안이라면 커밋된 뒤에 뺀다)
+    void removeBlog(long blogId);
+
+    void removeReply(long replyId);
+
+    // DB에서 새로 생긴 번호를 읽어서 필터에 반영하는 refresh() 메서드 정의
+    void refresh();
+
+    // 다음 refresh()에서 새로 생긴 번호만이 아니라 처음 번호부터 다시 읽도록 하는 requestFullScan() 메서드 정의
+    // 가져오기처럼 이미 확인을 마친 번호보다 작은 번호가 저장될 수 있을 때 호출한다
+    void requestFullScan();
+
+    Map<String, Object> getStats();
+}
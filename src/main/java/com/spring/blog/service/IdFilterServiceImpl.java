@@ -0,0 +1,232 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.IdStampDTO;
+import com.spring.blog.dto.ReplyEventDTO;
+import com.spring.blog.idfilter.IdBitmap;
+import com.spring.blog.repository.BlogRepository;
+import com.spring.blog.repository.ReplyRepository;
+import lombok.extern.log4j.Log4j2;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// 크롤러가 없는 글번호, 댓글번호로 상세 조회를 계속 보내면 요청마다 DB를 다녀와야 하므로
+// 존재하는 번호를 비트맵(IdBitmap)에 들고 있다가 확실히 없는 번호는 DB에 묻지 않고 바로 404로 돌려보낸다
+// 서버가 뜨면 전체 번호를 커서로 읽어서 채우고, 이후에는 저장/삭제시에 고치고 주기적으로 새 번호만 이어서 읽는다
+// 다른 서버가 넣은 번호를 놓치지 않도록, DB에서 확인을 마친 번호(confirmedMaxId)보다 큰 번호는 있을 수도 있다고 본다
+// 확인은 작성된 지 settle-seconds가 지난 행까지만 하므로 그보다 오래 걸려서 커밋된 트랜잭션의 번호나,
+// 가져오기로 확인을 마친 번호보다 작은 번호가 들어온 경우는 놓칠 수 있어서 full-scan-interval-ms마다 처음 번호부터 다시 읽는다
+@Service
+@Log4j2
+public class IdFilterServiceImpl implements IdFilterService {
+
+    private final Filter blogs = new Filter();
+
+    private final Filter replies = new Filter();
+
+    BlogRepository blogRepository;
+
+    ReplyRepository replyRepository;
+
+    // 커서로 스트리밍 조회하는 동안 DB 연결이 유지되어야 하므로 트랜잭션 안에서 읽는다
+    // 읽기 전용 트랜잭션은 replica로 가서 아직 복제되지 않은 번호를 확인을 마친 것으로 볼 수 있으므로 primary에서 읽는다
+    TransactionTemplate transaction;
+
+    boolean enabled;
+
+    long settleSeconds;
+
+    long fullScanIntervalMs;
+
+    // 마지막으로 처음 번호부터 다시 읽은 시각(갱신 스레드만 수정한다)
+    long lastFullScanAt;
+
+    // 가져오기처럼 확인을 마친 번호보다 작은 번호가 들어왔을 때 다음 갱신에서 처음 번호부터 다시 읽도록 표시
+    volatile boolean fullScanRequested;
+
+    private final LongAdder fullScans = new LongAdder();
+
+    @Autowired
+    public IdFilterServiceImpl(BlogRepository blogRepository, ReplyRepository replyRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${blog.id-filter.enabled:true}") boolean enabled,
+                               @Value("${blog.id-filter.settle-seconds:60}") long settleSeconds,
+                               @Value("${blog.id-filter.full-scan-interval-ms:3600000}") long fullScanIntervalMs){
+        this.blogRepository = blogRepository;
+        this.replyRepository = replyRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.settleSeconds = settleSeconds;
+        this.fullScanIntervalMs = fullScanIntervalMs;
+    }
+
+    @Override
+    public boolean mightContainBlog(long blogId) {
+        return mightContain(blogs, blogId);
+    }
+
+    @Override
+    public boolean mightContainReply(long replyId) {
+        return mightContain(replies, replyId);
+    }
+
+    private boolean mightContain(Filter filter, long id){
+        // auto_increment(int) 범위를 벗어난 번호는 필터를 켜지 않아도 없는 번호다
+        if(id < 1 || id > IdBitmap.MAX_ID){
+            filter.rejected.increment();
+            return false;
+        }
+        if(!enabled || id > filter.confirmedMaxId || filter.bitmap.contains(id)){
+            return true;
+        }
+        filter.rejected.increment();
+        return false;
+    }
+
+    @Override
+    public void addBlog(long blogId) {
+        blogs.bitmap.add(blogId);
+    }
+
+    @Override
+    public void addReply(long replyId) {
+        replies.bitmap.add(replyId);
+    }
+
+    @Override
+    public void removeBlog(long blogId) {
+        removeAfterCommit(blogs, blogId);
+    }
+
+    @Override
+    public void removeReply(long replyId) {
+        removeAfterCommit(replies, replyId);
+    }
+
+    // 댓글 저장, 삭제시 발행되는 이벤트로 번호를 고친다(ReplyServiceImpl, ReplyGroupCommitServiceImpl 참고)
+    // 저장된 번호는 커밋 전에 넣어야 하므로 발행한 트랜잭션 안에서 바로 실행되는 @EventListener로 받는다
+    @EventListener
+    public void onReplyEvent(ReplyEventDTO event){
+        if(ReplyEventDTO.CREATED.equals(event.getType())){
+            addReply(event.getReplyId());
+        } else if(ReplyEventDTO.DELETED.equals(event.getType())){
+            removeReply(event.getReplyId());
+        }
+    }
+
+    // 커밋 전에 빼면 롤백되었을 때 있는 번호가 없는 번호로 걸러지므로 커밋된 뒤에 뺀다
+    private void removeAfterCommit(Filter filter, long id){
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    filter.bitmap.remove(id);
+                }
+            });
+        } else {
+            filter.bitmap.remove(id);
+        }
+    }
+
+    @Override
+    public void requestFullScan() {
+        fullScanRequested = true;
+    }
+
+    // 서버가 뜨자마자 한 번(전체 번호), 이후에는 주기적으로 확인을 마친 번호 다음부터만 읽는다
+    // 다 읽기 전까지는 confirmedMaxId가 0이므로 모든 번호를 있을 수도 있다고 본다
+    // full-scan-interval-ms마다, 또는 requestFullScan() 이후에는 처음 번호부터 다시 읽어서 놓친 번호를 채운다
+    @Scheduled(fixedDelayString = "${blog.id-filter.refresh-interval-ms:10000}")
+    @Override
+    public synchronized void refresh() {
+        if(!enabled){
+            return;
+        }
+        long start = System.currentTimeMillis();
+        boolean first = blogs.confirmedMaxId == 0 && replies.confirmedMaxId == 0;
+        boolean full = fullScanRequested || start - lastFullScanAt >= fullScanIntervalMs;
+        // 읽는 도중에 들어온 요청은 다음 갱신에서 다시 읽도록 읽기 전에 지운다
+        fullScanRequested = false;
+        try {
+            transaction.executeWithoutResult(status -> {
+                LocalDateTime settledBefore = replyRepository.getNow().minusSeconds(settleSeconds);
+                scan(blogs, blogRepository.streamIdsAfter(full ? 0 : blogs.confirmedMaxId), settledBefore);
+                scan(replies, replyRepository.streamIdsAfter(full ? 0 : replies.confirmedMaxId), settledBefore);
+            });
+        } catch (RuntimeException e) {
+            if(full){
+                fullScanRequested = true;
+            }
+            log.error("번호 존재 필터 갱신 실패", e);
+            return;
+        }
+        if(full){
+            lastFullScanAt = start;
+            fullScans.increment();
+        }
+        if(first){
+            log.info("번호 존재 필터 생성 완료. 글: {}개, 댓글: {}개, 소요시간: {}ms",
+                    blogs.bitmap.cardinality(), replies.bitmap.cardinality(), System.currentTimeMillis() - start);
+        }
+    }
+
+    // 번호는 작성 순서대로 붙으므로 작성된 지 settle-seconds가 지난 행의 번호까지는
+    // 그보다 작은 번호의 행이 모두 커밋되었다고 보고 확인을 마친 번호로 올린다
+    // 처음 번호부터 다시 읽을 때도 확인을 마친 번호는 내려가지 않는다
+    private void scan(Filter filter, Cursor<IdStampDTO> cursor, LocalDateTime settledBefore){
+        long confirmed = filter.confirmedMaxId;
+        try(cursor){
+            for(IdStampDTO row : cursor){
+                filter.bitmap.add(row.getId());
+                if(row.getId() > confirmed && row.getPublishedAt() != null && row.getPublishedAt().isBefore(settledBefore)){
+                    confirmed = row.getId();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        filter.confirmedMaxId = confirmed;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("fullScans", fullScans.sum());
+        result.put("blog", blogs.toStats());
+        result.put("reply", replies.toStats());
+        return result;
+    }
+
+    // 번호 비트맵과, DB에서 확인을 마친 가장 큰 번호
+    private static class Filter {
+        final IdBitmap bitmap = new IdBitmap();
+        // 갱신 스레드만 수정한다
+        volatile long confirmedMaxId;
+        // DB에 묻지 않고 없는 번호로 걸러낸 횟수
+        final LongAdder rejected = new LongAdder();
+
+        Map<String, Object> toStats(){
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("ids", bitmap.cardinality());
+            stats.put("confirmedMaxId", confirmedMaxId);
+            stats.put("sizeInBytes", bitmap.sizeInBytes());
+            stats.put("rejectedLookups", rejected.sum());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.spring.blog.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// 글, 댓글 여러 건 조회(BlogServiceImpl.findByIds(), ReplyServiceImpl.findByReplyIds())가 같이 쓰는 제한과 번호 정리
+final class MultiGets {
+
+    // 여러 건 조회 한 번에 받을 수 있는 최대 번호 개수와, IN 쿼리 한 번에 넣을 개수
+    static final int MAX_SIZE = 1000;
+    static final int CHUNK_SIZE = 500;
+
+    private MultiGets(){
+    }
+
+    // 요청 순서를 유지한 채 중복과 빈 번호를 걸러낸다, 너무 많이 요청하면 IllegalArgumentException
+    static Set<Long> distinctIds(List<Long> ids){
+        Set<Long> distinct = new LinkedHashSet<>();
+        for(Long id : ids){
+            if(id != null){
+                distinct.add(id);
+            }
+        }
+        if(distinct.size() > MAX_SIZE){
+            throw new IllegalArgumentException("한 번에 조회할 수 있는 번호는 최대 " + MAX_SIZE + "개입니다.");
+        }
+        return distinct;
+    }
+}
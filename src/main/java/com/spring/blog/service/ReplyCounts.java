@@ -0,0 +1,29 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.BlogCountDeltaDTO;
+import com.spring.blog.dto.ReplyCreateRequestDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 댓글을 여러 건 저장할 때(ReplyServiceImpl.saveAll(), ReplyGroupCommitServiceImpl) 글의 댓글 수를 늘릴 양을 계산한다
+final class ReplyCounts {
+
+    private ReplyCounts(){
+    }
+
+    // 글번호별 댓글 개수, 여러 트랜잭션이 같은 순서로 글 행의 락을 잡도록 글번호 순으로 정렬해서 리턴
+    static List<BlogCountDeltaDTO> countByBlogId(List<ReplyCreateRequestDTO> replies){
+        Map<Long, Long> counts = new TreeMap<>();
+        for(ReplyCreateRequestDTO reply : replies){
+            counts.merge(reply.getBlogId(), 1L, Long::sum);
+        }
+        List<BlogCountDeltaDTO> deltas = new ArrayList<>(counts.size());
+        for(Map.Entry<Long, Long> entry : counts.entrySet()){
+            deltas.add(new BlogCountDeltaDTO(entry.getKey(), entry.getValue()));
+        }
+        return deltas;
+    }
+}
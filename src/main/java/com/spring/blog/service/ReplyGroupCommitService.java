@@ -0,0 +1,21 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.GroupCommitStatsDTO;
+import com.spring.blog.dto.ReplyCreateRequestDTO;
+import com.spring.blog.dto.ReplyResponseDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface ReplyGroupCommitService {
+
+    // 모아서 저장하기가 켜져 있는지 리턴하는 isEnabled() 메서드 정의(꺼져 있으면 ReplyService.save()로 바로 저장한다)
+    boolean isEnabled();
+
+    // 댓글을 저장 대기열에 넣는 submit() 메서드 정의
+    // 다른 댓글과 함께 커밋된 뒤에 저장된 댓글로 완료되고, 저장에 실패하면 그 예외로 완료된다
+    // 대기열이 가득 찼다면 RejectedExecutionException으로 바로 완료된다
+    CompletableFuture<ReplyResponseDTO> submit(ReplyCreateRequestDTO replyCreateRequestDTO);
+
+    // 대기열 크기, 묶음 크기 등을 리턴하는 getStats() 메서드 정의
+    GroupCommitStatsDTO getStats();
+}
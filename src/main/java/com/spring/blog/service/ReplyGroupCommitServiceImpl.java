@@ -0,0 +1,280 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.BlogCountDeltaDTO;
+import com.spring.blog.dto.GroupCommitStatsDTO;
+import com.spring.blog.dto.ReplyCreateRequestDTO;
+import com.spring.blog.dto.ReplyEventDTO;
+import com.spring.blog.dto.ReplyResponseDTO;
+import com.spring.blog.exception.NotFoundBlogIdException;
+import com.spring.blog.repository.BlogRepository;
+import com.spring.blog.repository.ReplyRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// 인기글에 댓글이 몰릴 때 댓글마다 트랜잭션(커밋 = 디스크 동기화)을 하나씩 쓰지 않도록
+// 요청 스레드는 댓글을 대기열에 넣고 기다리기만 하고, 저장 스레드 하나가 대기열을 비워서
+// 최대 max-batch-size개 또는 max-delay-ms 동안 모인 댓글을 한 트랜잭션, 한 번의 INSERT로 저장한다(group commit)
+// 요청은 그 트랜잭션이 커밋된 뒤에 응답하므로 응답을 받은 댓글은 바로 저장했을 때와 똑같이 DB에 남아있다
+@Service
+@Log4j2
+public class ReplyGroupCommitServiceImpl implements ReplyGroupCommitService {
+
+    // 저장 스레드가 종료 요청을 확인하는 주기(ms)
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    // 저장을 기다리는 댓글
+    private final BlockingQueue<PendingReply> queue;
+
+    private final LongAdder committedBatches = new LongAdder();
+    private final LongAdder committedReplies = new LongAdder();
+    private final LongAdder fallbackBatches = new LongAdder();
+    private final LongAdder failedReplies = new LongAdder();
+    private final LongAdder rejectedReplies = new LongAdder();
+    // 저장 스레드만 수정한다
+    private volatile int maxCommittedBatchSize;
+    private volatile int lastBatchSize;
+
+    ReplyRepository replyRepository;
+
+    BlogRepository blogRepository;
+
+    // 묶음 저장이 실패하면 한 건씩 기존 방식으로 다시 저장한다
+    ReplyService replyService;
+
+    // 확실히 없는 글번호의 댓글은 대기열에 넣지 않고 바로 실패시킨다
+    IdFilterService idFilterService;
+
+    ApplicationEventPublisher eventPublisher;
+
+    TransactionTemplate transactionTemplate;
+
+    boolean enabled;
+
+    int maxBatchSize;
+
+    long maxDelayNanos;
+
+    // 저장 스레드(꺼져 있으면 null)
+    private final Thread writer;
+
+    private volatile boolean running;
+
+    @Autowired
+    public ReplyGroupCommitServiceImpl(ReplyRepository replyRepository, BlogRepository blogRepository,
+                                       ReplyService replyService, IdFilterService idFilterService,
+                                       ApplicationEventPublisher eventPublisher,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${blog.reply.group-commit.enabled:false}") boolean enabled,
+                                       @Value("${blog.reply.group-commit.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${blog.reply.group-commit.max-batch-size:500}") int maxBatchSize,
+                                       @Value("${blog.reply.group-commit.max-delay-ms:5}") long maxDelayMillis){
+        this.replyRepository = replyRepository;
+        this.blogRepository = blogRepository;
+        this.replyService = replyService;
+        this.idFilterService = idFilterService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if(enabled){
+            this.running = true;
+            this.writer = new Thread(this::writeLoop, "reply-group-commit");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public CompletableFuture<ReplyResponseDTO> submit(ReplyCreateRequestDTO replyCreateRequestDTO) {
+        CompletableFuture<ReplyResponseDTO> future = new CompletableFuture<>();
+        // 없는 글번호 댓글 하나가 섞이면 묶음 전체가 롤백되고 저장 스레드에서 한 건씩 다시 저장하게 되므로
+        // 확실히 없는 글번호는 대기열에 넣기 전에 걸러낸다(필터를 통과한 없는 글번호는 묶음 저장에서 걸러진다)
+        if(!idFilterService.mightContainBlog(replyCreateRequestDTO.getBlogId())){
+            future.completeExceptionally(new NotFoundBlogIdException("존재하지 않는 글번호입니다."));
+            return future;
+        }
+        // 대기열이 가득 찼다면 기다리지 않고 거절해서 요청이 무한정 쌓이지 않게 한다
+        if(!running || !queue.offer(new PendingReply(replyCreateRequestDTO, future))){
+            rejectedReplies.increment();
+            future.completeExceptionally(new RejectedExecutionException("댓글 저장 대기열이 가득 찼습니다."));
+        }
+        return future;
+    }
+
+    // 첫 댓글이 들어오면 max-delay-ms 동안 또는 max-batch-size개가 찰 때까지 모은 뒤 저장한다
+    // 대기열이 계속 차 있는 동안에는 기다리지 않고 바로 다음 묶음을 저장하므로 몰릴수록 묶음이 커진다
+    private void writeLoop(){
+        List<PendingReply> batch = new ArrayList<>(maxBatchSize);
+        while(running || !queue.isEmpty()){
+            try {
+                PendingReply first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if(first == null){
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while(batch.size() < maxBatchSize){
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if(batch.size() >= maxBatchSize || remaining <= 0){
+                        break;
+                    }
+                    PendingReply next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if(next == null){
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // 저장 스레드가 죽으면 이후 댓글이 모두 멈추므로 예외는 기록만 하고 계속 돈다
+                log.error("댓글 묶음 저장 중 예상하지 못한 오류", e);
+                for(PendingReply pending : batch){
+                    pending.future.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // 묶음 전체를 한 트랜잭션으로 저장하고, 커밋된 뒤에 각 요청을 완료시킨다
+    private void commit(List<PendingReply> batch){
+        List<ReplyCreateRequestDTO> replies = new ArrayList<>(batch.size());
+        for(PendingReply pending : batch){
+            replies.add(pending.reply);
+        }
+        List<ReplyResponseDTO> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                // 글 행의 락을 글번호 순으로 먼저 잡은 뒤에 INSERT 한다(ReplyServiceImpl.save()와 같은 순서)
+                List<BlogCountDeltaDTO> deltas = ReplyCounts.countByBlogId(replies);
+                if(blogRepository.increaseReplyCounts(deltas) != deltas.size()){
+                    // 없거나 삭제 표시된 글에 단 댓글이 있으면 묶음을 롤백하고 한 건씩 다시 저장한다
+                    throw new NotFoundBlogIdException("존재하지 않는 글번호가 포함되어 있습니다.");
+                }
+                replyRepository.saveAll(replies);
+                List<Long> replyIds = new ArrayList<>(replies.size());
+                for(ReplyCreateRequestDTO reply : replies){
+                    replyIds.add(reply.getReplyId());
+                }
+                // 작성시각은 DB가 채우므로 저장한 댓글을 한 번에 다시 읽어서 돌려준다
+                List<ReplyResponseDTO> rows = replyRepository.findByReplyIds(replyIds);
+                Map<Long, ReplyResponseDTO> byId = new HashMap<>();
+                for(ReplyResponseDTO row : rows){
+                    byId.put(row.getReplyId(), row);
+                }
+                List<ReplyResponseDTO> result = new ArrayList<>(replies.size());
+                for(ReplyCreateRequestDTO reply : replies){
+                    ReplyResponseDTO row = byId.get(reply.getReplyId());
+                    result.add(row);
+                    // 커밋된 뒤에 방송된다(ReplyPushServiceImpl 참고)
+                    eventPublisher.publishEvent(new ReplyEventDTO(ReplyEventDTO.CREATED,
+                            reply.getBlogId(), reply.getReplyId(), row));
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // 없는 글번호, 너무 긴 내용 등 한 건 때문에 묶음 전체가 롤백된 경우
+            // 한 건씩 다시 저장해서 문제가 있는 요청만 실패시킨다
+            log.warn("댓글 묶음 저장 실패, 한 건씩 다시 저장합니다. 개수: {}", batch.size(), e);
+            fallbackBatches.increment();
+            saveOneByOne(batch);
+            return;
+        }
+
+        committedBatches.increment();
+        committedReplies.add(batch.size());
+        lastBatchSize = batch.size();
+        if(batch.size() > maxCommittedBatchSize){
+            maxCommittedBatchSize = batch.size();
+        }
+        for(int i = 0; i < batch.size(); i++){
+            batch.get(i).future.complete(saved.get(i));
+        }
+    }
+
+    private void saveOneByOne(List<PendingReply> batch){
+        for(PendingReply pending : batch){
+            try {
+                pending.future.complete(replyService.save(pending.reply));
+            } catch (RuntimeException e) {
+                failedReplies.increment();
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public GroupCommitStatsDTO getStats() {
+        long batches = committedBatches.sum();
+        long replies = committedReplies.sum();
+        return GroupCommitStatsDTO.builder()
+                .enabled(enabled)
+                .queueDepth(queue.size())
+                .queueCapacity(queue.size() + queue.remainingCapacity())
+                .committedBatches(batches)
+                .committedReplies(replies)
+                .averageBatchSize(batches == 0 ? 0 : (double) replies / batches)
+                .maxBatchSize(maxCommittedBatchSize)
+                .lastBatchSize(lastBatchSize)
+                .fallbackBatches(fallbackBatches.sum())
+                .failedReplies(failedReplies.sum())
+                .rejectedReplies(rejectedReplies.sum())
+                .build();
+    }
+
+    // 서버가 종료될 때 새 댓글은 받지 않고, 이미 받은 댓글은 저장한 뒤에 저장 스레드를 끝낸다
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if(writer == null){
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // 종료 직전에 들어와서 저장 스레드가 보지 못한 댓글은 실패로 완료시킨다
+        PendingReply pending;
+        while((pending = queue.poll()) != null){
+            pending.future.completeExceptionally(new RejectedExecutionException("서버가 종료되는 중입니다."));
+        }
+    }
+
+    // 저장을 기다리는 댓글과, 저장이 끝나면 완료시킬 요청
+    private static class PendingReply {
+        final ReplyCreateRequestDTO reply;
+        final CompletableFuture<ReplyResponseDTO> future;
+
+        PendingReply(ReplyCreateRequestDTO reply, CompletableFuture<ReplyResponseDTO> future){
+            this.reply = reply;
+            this.future = future;
+        }
+    }
+}
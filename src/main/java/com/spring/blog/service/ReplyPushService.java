@@ -0,0 +1,14 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.PushStatsDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface ReplyPushService {
+
+    // 글번호 입력시 그 글의 댓글 생성, 수정, 삭제 이벤트를 받을 SSE 연결을 만들어주는 subscribe() 메서드 정의
+    // 구독자가 최대 구독자 수만큼 있으면 IllegalStateException
+    SseEmitter subscribe(long blogId);
+
+    // 현재 구독자 수, 방송한 이벤트 수 등을 리턴해주는 getStats() 메서드 정의
+    PushStatsDTO getStats();
+}
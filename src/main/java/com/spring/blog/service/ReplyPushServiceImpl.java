@@ -0,0 +1,60 @@
+package com.spring.blog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.blog.dto.PushStatsDTO;
+import com.spring.blog.dto.ReplyEventDTO;
+import com.spring.blog.push.SseBroadcaster;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// 댓글이 바뀌면 같은 글을 보고 있는 화면에 바로 알려주는 서비스
+// 화면이 주기적으로 변경분을 묻지 않아도 되므로 보는 사람이 많은 글도 요청이 늘지 않는다
+@Service
+public class ReplyPushServiceImpl implements ReplyPushService {
+
+    // SSE 이벤트 이름
+    private static final String REPLY_EVENT = "reply";
+
+    SseBroadcaster broadcaster;
+
+    @Autowired
+    public ReplyPushServiceImpl(ObjectMapper objectMapper,
+                                @Value("${blog.push.queue-capacity:64}") int queueCapacity,
+                                @Value("${blog.push.timeout-ms:1800000}") long timeoutMillis,
+                                @Value("${blog.push.max-subscribers:4000}") int maxSubscribers){
+        this.broadcaster = new SseBroadcaster("reply", queueCapacity, timeoutMillis, maxSubscribers, objectMapper);
+    }
+
+    @Override
+    public SseEmitter subscribe(long blogId) {
+        return broadcaster.subscribe(blogId);
+    }
+
+    // ReplyServiceImpl이 발행한 이벤트를 커밋된 뒤에 방송한다(롤백된 댓글은 나가지 않는다)
+    // 트랜잭션 밖에서 발행된 이벤트는 바로 방송한다
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReplyEvent(ReplyEventDTO event){
+        broadcaster.publish(event.getBlogId(), REPLY_EVENT, event);
+    }
+
+    // 중간의 프록시가 유휴 연결을 끊지 않도록 주기적으로 빈 이벤트를 보낸다
+    @Scheduled(fixedDelayString = "${blog.push.heartbeat-interval-ms:20000}")
+    public void heartbeat(){
+        broadcaster.heartbeat();
+    }
+
+    @Override
+    public PushStatsDTO getStats() {
+        return broadcaster.getStats();
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        broadcaster.shutdown();
+    }
+}
@@ -1,9 +1,15 @@
 package com.spring.blog.service;
 
+import com.spring.blog.dto.MultiGetResponseDTO;
+import com.spring.blog.dto.ReplyBatchResultDTO;
+import com.spring.blog.dto.ReplyChangesResponseDTO;
+import com.spring.blog.dto.ReplyPageResponseDTO;
 import com.spring.blog.dto.ReplyResponseDTO;
 import com.spring.blog.dto.ReplyCreateRequestDTO;
 import com.spring.blog.dto.ReplyUpdateRequestDTO;
+import com.spring.blog.dto.ReplyValidatorDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ReplyService {
@@ -11,15 +17,39 @@ public interface ReplyService {
     // 글 번호 입력시 전체 조회해서 리턴해주는 findAllByBlogId() 메서드 정의
     List<ReplyResponseDTO> findAllByBlogId(long blogId);
 
+    // 글 번호와 커서(마지막으로 받은 댓글번호) 입력시 다음 댓글 묶음을 리턴해주는 findPageByBlogId() 메서드 정의
+    ReplyPageResponseDTO findPageByBlogId(long blogId, long after, int size);
+
+    // 글 번호와 마지막 동기화 토큰 입력시 그 이후 생성, 수정, 삭제된 댓글만 리턴해주는 findChangesByBlogId() 메서드 정의
+    // since가 null이면 현재 시점의 토큰과 함께 전체를 다시 불러오라는 응답(resync)을 준다
+    ReplyChangesResponseDTO findChangesByBlogId(long blogId, String since);
+
+    // 댓글을 읽어온 시점의 DB 시각으로 findChangesByBlogId()에 넘길 동기화 토큰을 만들어주는 createSyncToken() 메서드 정의
+    // 서버에서 댓글을 미리 그려준 화면이 그 이후의 변경분만 따라갈 수 있게 한다
+    String createSyncToken(LocalDateTime loadedAt);
+
+    // 글 번호 입력시 댓글 목록의 변경 여부를 판단할 댓글 수와 최근 수정시각을 리턴해주는 findValidatorByBlogId() 메서드 정의
+    ReplyValidatorDTO findValidatorByBlogId(long blogId);
+
     // 단일 댓글 번호 입력시, 댓글 정보를 리턴해주는 findByReplyId() 메서드 정의
     ReplyResponseDTO findByReplyId(long replyId);
 
+    // 댓글 번호 목록 입력시, 댓글 정보를 넘겨받은 순서대로 리턴해주는 findByReplyIds() 메서드 정의
+    // 없거나 삭제된 댓글번호는 missing에 따로 담는다
+    MultiGetResponseDTO<ReplyResponseDTO> findByReplyIds(List<Long> replyIds);
+
     // 댓글번호 입력시 삭제되도록 해 주는 deleteByReplyId() 메서드 정의
     void deleteByReplyId(long replyId);
 
     // insert 용도로 정의한 DTO를 넘겨서 save() 메서드 정의
-    void save(ReplyCreateRequestDTO replyCreateRequestDTO);
+    // 저장된 댓글(DB가 생성한 댓글번호, 작성시각 포함)을 리턴한다
+    ReplyResponseDTO save(ReplyCreateRequestDTO replyCreateRequestDTO);
+
+    // 여러 댓글을 한 트랜잭션 안에서 나눠서 일괄 저장하는 saveAll() 메서드 정의
+    // 요청 순서대로 항목별 댓글번호 또는 실패 사유를 리턴하며, 일부가 실패해도 나머지는 저장된다
+    List<ReplyBatchResultDTO> saveAll(List<ReplyCreateRequestDTO> replyCreateRequestDTOList);
 
     // update 용도로 정의한 DTO를 넘겨서 update() 메서드 정의
-    void update(ReplyUpdateRequestDTO replyUpdateRequestDTO);
+    // 수정된 댓글을 리턴하고, 없는 댓글이면 null을 리턴한다
+    ReplyResponseDTO update(ReplyUpdateRequestDTO replyUpdateRequestDTO);
 }
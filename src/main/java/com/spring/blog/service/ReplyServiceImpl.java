@@ -1,45 +1,370 @@
 package com.spring.blog.service;
 
+import com.spring.blog.dto.BlogCountDeltaDTO;
+import com.spring.blog.dto.MultiGetResponseDTO;
+import com.spring.blog.dto.ReplyBatchResultDTO;
+import com.spring.blog.dto.ReplyChangesResponseDTO;
+import com.spring.blog.dto.ReplyPageResponseDTO;
 import com.spring.blog.dto.ReplyResponseDTO;
 import com.spring.blog.dto.ReplyCreateRequestDTO;
+import com.spring.blog.dto.ReplyEventDTO;
 import com.spring.blog.dto.ReplyUpdateRequestDTO;
+import com.spring.blog.dto.ReplyValidatorDTO;
+import com.spring.blog.entity.Reply;
+import com.spring.blog.exception.NotFoundBlogIdException;
+import com.spring.blog.repository.BlogRepository;
 import com.spring.blog.repository.ReplyRepository;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 @Service
+@Log4j2
 public class ReplyServiceImpl implements ReplyService{
 
+    // 전체 댓글 조회(/reply/{blogId}/all)도 최대 이 개수까지만 리턴한다
+    private static final int ALL_REPLIES_LIMIT = 1000;
+    // 커서 방식 조회시 한 번에 요청할 수 있는 최대 댓글 개수
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // 변경분 조회 한 번에 보내줄 최대 개수, 이보다 많이 바뀌었으면 전체를 다시 불러오게 한다
+    private static final int MAX_CHANGES = 500;
+    // 아직 커밋되지 않은 쓰기를 놓치지 않도록 토큰을 현재시각보다 이만큼 이전으로 잡는다(초)
+    // 그만큼 최근 변경분은 다음 요청에 한 번 더 내려가지만 클라이언트는 replyId 기준으로 덮어쓰므로 문제없다
+    private static final long TOKEN_SAFETY_SECONDS = 5;
+    // 삭제된 댓글(툼스톤)을 보관하는 기간(시간), 이보다 오래된 토큰은 전체를 다시 불러오게 한다
+    private static final long TOMBSTONE_RETENTION_HOURS = 24;
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    // 일괄 등록 한 번에 받을 수 있는 최대 댓글 개수와, INSERT 한 번에 넣을 댓글 개수
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final int BATCH_CHUNK_SIZE = 500;
+    // reply 테이블의 컬럼 길이(sql/reply.sql 참고)
+    private static final int REPLY_WRITER_MAX_LENGTH = 40;
+    private static final int REPLY_CONTENT_MAX_LENGTH = 200;
+
     ReplyRepository replyRepository;
 
+    // 일괄 등록시 글번호가 존재하는지 미리 확인하기 위해 사용
+    BlogRepository blogRepository;
+
+    // 댓글이 바뀌면 이벤트를 발행해서 같은 글을 보는 화면에 알린다(ReplyPushServiceImpl에서 커밋 후 방송)
+    ApplicationEventPublisher eventPublisher;
+
     @Autowired
-    public ReplyServiceImpl(ReplyRepository replyRepository){
+    public ReplyServiceImpl(ReplyRepository replyRepository, BlogRepository blogRepository,
+                            ApplicationEventPublisher eventPublisher){
         this.replyRepository = replyRepository;
+        this.blogRepository = blogRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    // replica 라우팅을 켜면 replica에서 읽는다(DataSourceRoutingConfig)
+    @Transactional(readOnly = true)
     @Override
     public List<ReplyResponseDTO> findAllByBlogId(long blogId) {
-        return replyRepository.findAllByBlogId(blogId);
+        // 댓글이 아주 많은 글도 한 번에 전부 직렬화하지 않도록 앞에서부터 일정 개수까지만 가져온다
+        return replyRepository.findPageByBlogId(blogId, 0, ALL_REPLIES_LIMIT);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ReplyPageResponseDTO findPageByBlogId(long blogId, long after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // 다음 페이지가 있는지 알기 위해 한 개를 더 가져온다
+        List<ReplyResponseDTO> replies = replyRepository.findPageByBlogId(blogId, after, pageSize + 1);
+        Long nextCursor = null;
+        if(replies.size() > pageSize){
+            replies = replies.subList(0, pageSize);
+            nextCursor = replies.get(pageSize - 1).getReplyId();
+        }
+        return new ReplyPageResponseDTO(replies, nextCursor);
+    }
+
+    // 동기화 토큰은 primary의 현재시각과 변경분을 기준으로 하므로 replica 지연으로 변경분을 놓치지 않게 primary에서 읽는다
+    @Override
+    public ReplyChangesResponseDTO findChangesByBlogId(long blogId, String since) {
+        LocalDateTime now = replyRepository.getNow();
+        LocalDateTime nextToken = toTokenTime(now);
+
+        LocalDateTime sinceTime = parseToken(since);
+        // 토큰이 없거나, 툼스톤 보관기간보다 오래된 토큰이면 변경분만으로는 따라잡을 수 없다
+        if(sinceTime == null || sinceTime.isBefore(now.minusHours(TOMBSTONE_RETENTION_HOURS))){
+            return resync(nextToken);
+        }
+
+        List<Reply> changes = replyRepository.findChangesByBlogId(blogId, sinceTime, MAX_CHANGES + 1);
+        if(changes.size() > MAX_CHANGES){
+            return resync(nextToken);
+        }
+
+        List<ReplyResponseDTO> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for(Reply reply : changes){
+            if(reply.getDeletedAt() != null){
+                deleted.add(reply.getReplyId());
+            } else {
+                upserted.add(new ReplyResponseDTO(reply));
+            }
+        }
+        // 토큰은 뒤로 가지 않게 한다
+        if(nextToken.isBefore(sinceTime)){
+            nextToken = sinceTime;
+        }
+        return new ReplyChangesResponseDTO(upserted, deleted, nextToken.toString(), false);
     }
 
+    @Override
+    public String createSyncToken(LocalDateTime loadedAt) {
+        return toTokenTime(loadedAt).toString();
+    }
+
+    private LocalDateTime toTokenTime(LocalDateTime now){
+        return now.minusSeconds(TOKEN_SAFETY_SECONDS);
+    }
+
+    private ReplyChangesResponseDTO resync(LocalDateTime nextToken){
+        return new ReplyChangesResponseDTO(List.of(), List.of(), nextToken.toString(), true);
+    }
+
+    private LocalDateTime parseToken(String token){
+        if(token == null || token.isBlank()){
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(token);
+        } catch (DateTimeParseException e) {
+            return null; // 잘못된 토큰은 토큰이 없는 것과 같이 전체를 다시 불러오게 한다
+        }
+    }
+
+    @Override
+    public ReplyValidatorDTO findValidatorByBlogId(long blogId) {
+        return replyRepository.findValidatorByBlogId(blogId);
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public ReplyResponseDTO findByReplyId(long replyId) {
         return replyRepository.findByReplyId(replyId);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public MultiGetResponseDTO<ReplyResponseDTO> findByReplyIds(List<Long> replyIds) {
+        Set<Long> requested = MultiGets.distinctIds(replyIds);
+        // 댓글번호마다 조회하지 않고 IN 쿼리로 묶음마다 한 번씩 가져온다
+        List<Long> ids = new ArrayList<>(requested);
+        Map<Long, ReplyResponseDTO> found = new HashMap<>();
+        for(int from = 0; from < ids.size(); from += MultiGets.CHUNK_SIZE){
+            List<Long> chunk = ids.subList(from, Math.min(from + MultiGets.CHUNK_SIZE, ids.size()));
+            for(ReplyResponseDTO reply : replyRepository.findByReplyIds(chunk)){
+                found.put(reply.getReplyId(), reply);
+            }
+        }
+        List<ReplyResponseDTO> replies = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for(Long replyId : requested){
+            ReplyResponseDTO reply = found.get(replyId);
+            if(reply == null){
+                missing.add(replyId);
+            } else {
+                replies.add(reply);
+            }
+        }
+        return new MultiGetResponseDTO<>(replies, missing);
+    }
+
+    // 글의 댓글 수(reply_count)도 같은 트랜잭션에서 줄인다
+    @Transactional
     @Override
     public void deleteByReplyId(long replyId) {
-        replyRepository.deleteByReplyId(replyId);
+        // 이미 삭제된 댓글을 다시 삭제하면 0이 리턴되므로 댓글 수가 두 번 줄지 않는다
+        if(replyRepository.deleteByReplyId(replyId) > 0){
+            blogRepository.decreaseReplyCountByReplyId(replyId);
+            Long blogId = replyRepository.findBlogIdByReplyId(replyId);
+            eventPublisher.publishEvent(new ReplyEventDTO(ReplyEventDTO.DELETED, blogId, replyId, null));
+        }
     }
 
+    // 글의 댓글 수(reply_count)도 같은 트랜잭션에서 늘린다
+    @Transactional
     @Override
-    public void save(ReplyCreateRequestDTO replyCreateRequestDTO) {
+    public ReplyResponseDTO save(ReplyCreateRequestDTO replyCreateRequestDTO) {
+        // 글 행의 락을 먼저 잡은 뒤에 댓글을 INSERT 한다(BlogMapper.xml의 increaseReplyCount 참고)
+        // 삭제 표시된 글은 fk_reply로 막히지 않으므로 여기서 걸러낸다
+        if(blogRepository.increaseReplyCount(replyCreateRequestDTO.getBlogId(), 1) == 0){
+            throw new NotFoundBlogIdException("존재하지 않는 글번호입니다.");
+        }
         replyRepository.save(replyCreateRequestDTO);
+        // save() 실행 후 DTO에 채워진 댓글번호로 저장된 댓글을 다시 가져와 리턴
+        ReplyResponseDTO reply = replyRepository.findByReplyId(replyCreateRequestDTO.getReplyId());
+        eventPublisher.publishEvent(new ReplyEventDTO(ReplyEventDTO.CREATED,
+                replyCreateRequestDTO.getBlogId(), reply.getReplyId(), reply));
+        return reply;
     }
 
+    @Transactional
     @Override
-    public void update(ReplyUpdateRequestDTO replyUpdateRequestDTO) {
+    public List<ReplyBatchResultDTO> saveAll(List<ReplyCreateRequestDTO> replyCreateRequestDTOList) {
+        if(replyCreateRequestDTOList.size() > MAX_BATCH_SIZE){
+            throw new IllegalArgumentException("한 번에 등록할 수 있는 댓글은 최대 " + MAX_BATCH_SIZE + "개입니다.");
+        }
+
+        // 글번호 존재 여부는 항목마다 조회하지 않고 IN 쿼리로 한 번에 확인한다
+        Set<Long> blogIds = new HashSet<>();
+        for(ReplyCreateRequestDTO reply : replyCreateRequestDTOList){
+            if(reply != null){
+                blogIds.add(reply.getBlogId());
+            }
+        }
+        Set<Long> existingBlogIds = blogIds.isEmpty() ? Set.of()
+                : new HashSet<>(blogRepository.findExistingIds(blogIds));
+
+        ReplyBatchResultDTO[] results = new ReplyBatchResultDTO[replyCreateRequestDTOList.size()];
+        List<ReplyCreateRequestDTO> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for(int i = 0; i < replyCreateRequestDTOList.size(); i++){
+            ReplyCreateRequestDTO reply = replyCreateRequestDTOList.get(i);
+            String error = validate(reply, existingBlogIds);
+            if(error != null){
+                results[i] = new ReplyBatchResultDTO(i, null, error);
+            } else {
+                valid.add(reply);
+                validIndexes.add(i);
+            }
+        }
+
+        for(int from = 0; from < valid.size(); from += BATCH_CHUNK_SIZE){
+            int to = Math.min(from + BATCH_CHUNK_SIZE, valid.size());
+            List<ReplyCreateRequestDTO> chunk = valid.subList(from, to);
+            List<BlogCountDeltaDTO> deltas = ReplyCounts.countByBlogId(chunk);
+            // 댓글 수 UPDATE가 실패했다면 그 구문은 롤백되어 되돌릴 것이 없으므로 성공했을 때만 되돌린다
+            boolean counted = false;
+            try {
+                // 확인 후 저장 사이에 삭제(표시)된 글이 있으면 그 글의 댓글 수는 늘어나지 않는다
+                int countedBlogs = blogRepository.increaseReplyCounts(deltas);
+                counted = true;
+                if(countedBlogs == deltas.size()){
+                    replyRepository.saveAll(chunk);
+                    for(int i = from; i < to; i++){
+                        int index = validIndexes.get(i);
+                        results[index] = new ReplyBatchResultDTO(index, valid.get(i).getReplyId(), null);
+                    }
+                    continue;
+                }
+                log.warn("댓글 일괄 저장 중 삭제된 글이 있어 한 건씩 다시 저장합니다. 개수: {}", chunk.size());
+            } catch (DataAccessException e) {
+                // 묶음 전체가 실패하면 그 묶음만 한 건씩 다시 저장해서 실패한 항목만 골라낸다
+                log.warn("댓글 일괄 저장 실패, 한 건씩 다시 저장합니다. 개수: {}", chunk.size(), e);
+            }
+            // 트랜잭션 전체가 아니라 실패한 구문만 롤백되므로 미리 늘려둔 댓글 수는 되돌린 뒤 한 건씩 다시 센다
+            if(counted){
+                undoReplyCounts(deltas);
+            }
+            for(int i = from; i < to; i++){
+                int index = validIndexes.get(i);
+                results[index] = saveOne(index, valid.get(i));
+            }
+        }
+        // 저장된 댓글마다 생성 이벤트를 발행한다(작성시각은 빠져 있지만 화면에 그리는 데는 필요없다)
+        for(ReplyBatchResultDTO result : results){
+            if(result.getReplyId() != null){
+                ReplyCreateRequestDTO saved = replyCreateRequestDTOList.get(result.getIndex());
+                ReplyResponseDTO reply = new ReplyResponseDTO(result.getReplyId(), saved.getReplyWriter(),
+                        saved.getReplyContent(), null, null);
+                eventPublisher.publishEvent(new ReplyEventDTO(ReplyEventDTO.CREATED,
+                        saved.getBlogId(), result.getReplyId(), reply));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private ReplyBatchResultDTO saveOne(int index, ReplyCreateRequestDTO reply){
+        try {
+            // 댓글 수를 늘릴 글이 없다면 그 사이 글이 삭제된 것이므로 INSERT 하지 않는다
+            if(blogRepository.increaseReplyCount(reply.getBlogId(), 1) == 0){
+                return new ReplyBatchResultDTO(index, null, "존재하지 않는 글번호입니다.");
+            }
+        } catch (DataAccessException e) {
+            return new ReplyBatchResultDTO(index, null, "저장에 실패했습니다.");
+        }
+        try {
+            replyRepository.save(reply);
+            return new ReplyBatchResultDTO(index, reply.getReplyId(), null);
+        } catch (DataIntegrityViolationException e) {
+            blogRepository.increaseReplyCount(reply.getBlogId(), -1);
+            return new ReplyBatchResultDTO(index, null, "존재하지 않는 글번호입니다.");
+        } catch (DataAccessException e) {
+            blogRepository.increaseReplyCount(reply.getBlogId(), -1);
+            return new ReplyBatchResultDTO(index, null, "저장에 실패했습니다.");
+        }
+    }
+
+    private void undoReplyCounts(List<BlogCountDeltaDTO> deltas){
+        List<BlogCountDeltaDTO> undo = new ArrayList<>(deltas.size());
+        for(BlogCountDeltaDTO delta : deltas){
+            undo.add(new BlogCountDeltaDTO(delta.getBlogId(), -delta.getDelta()));
+        }
+        blogRepository.increaseReplyCounts(undo);
+    }
+
+    // 저장하기 전에 걸러낼 수 있는 오류를 확인하고, 문제가 없으면 null을 리턴
+    private String validate(ReplyCreateRequestDTO reply, Set<Long> existingBlogIds){
+        if(reply == null){
+            return "빈 항목입니다.";
+        }
+        if(!existingBlogIds.contains(reply.getBlogId())){
+            return "존재하지 않는 글번호입니다.";
+        }
+        if(reply.getReplyWriter() == null || reply.getReplyWriter().isBlank()
+                || reply.getReplyWriter().length() > REPLY_WRITER_MAX_LENGTH){
+            return "댓글쓴이는 1~" + REPLY_WRITER_MAX_LENGTH + "자여야 합니다.";
+        }
+        if(reply.getReplyContent() == null || reply.getReplyContent().isBlank()
+                || reply.getReplyContent().length() > REPLY_CONTENT_MAX_LENGTH){
+            return "댓글내용은 1~" + REPLY_CONTENT_MAX_LENGTH + "자여야 합니다.";
+        }
+        return null;
+    }
+
+    @Override
+    public ReplyResponseDTO update(ReplyUpdateRequestDTO replyUpdateRequestDTO) {
         replyRepository.update(replyUpdateRequestDTO);
+        ReplyResponseDTO reply = replyRepository.findByReplyId(replyUpdateRequestDTO.getReplyId());
+        if(reply != null){
+            Long blogId = replyRepository.findBlogIdByReplyId(reply.getReplyId());
+            eventPublisher.publishEvent(new ReplyEventDTO(ReplyEventDTO.UPDATED, blogId, reply.getReplyId(), reply));
+        }
+        return reply;
+    }
+
+    // 보관기간이 지난 툼스톤을 주기적으로 조금씩 나눠서 실제로 삭제한다
+    @Scheduled(fixedDelay = 60 * 60 * 1000, initialDelay = 60 * 1000)
+    public void purgeDeletedReplies(){
+        LocalDateTime before = replyRepository.getNow().minusHours(TOMBSTONE_RETENTION_HOURS);
+        int purged;
+        int total = 0;
+        do {
+            purged = replyRepository.purgeDeletedReplies(before, PURGE_CHUNK_SIZE);
+            total += purged;
+        } while (purged == PURGE_CHUNK_SIZE);
+        if(total > 0){
+            log.info("보관기간이 지난 삭제 댓글 {}개를 정리했습니다.", total);
+        }
     }
 }
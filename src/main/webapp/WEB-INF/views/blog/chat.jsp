@@ -0,0 +1,132 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<!DOCTYPE html>
+<html>
+<head>
+<meta charset="UTF-8">
+<title>Insert title here</title>
+<link href="https://cdn.jsdelivr.net/npm/bootstrap@5.2.3/dist/css/bootstrap.min.css" rel="stylesheet" integrity="sha384-rbsA2VBKQhggwzxH7pPCaAqO46MgnOM80zW1RWuH61DGLwZJEdK2Kadq2F9CUG65" crossorigin="anonymous">
+</head>
+<body>
+    <br>
+    <h1 class="text-center">${blog.blogId}번 글 채팅방</h1><br>
+    <div class="container">
+        <h5><c:out value="${blog.blogTitle}"/></h5>
+        <div class="card">
+            <!-- 메세지는 아래 스크립트에서 그린다 -->
+            <div id="chatMessages" class="card-body" style="height: 400px; overflow-y: auto;"></div>
+        </div> <br>
+        <div class="row">
+            <div class="col-3">
+                <input type="text" class="form-control" id="chatSender" placeholder="보낸 사람">
+            </div>
+            <div class="col-6">
+                <input type="text" class="form-control" id="chatContent" placeholder="메세지">
+            </div>
+            <div class="col-3">
+                <button class="btn btn-primary" id="chatSend">보내기</button>
+            </div>
+        </div> <br>
+        <a href="/blog/detail/${blog.blogId}"><button class="btn btn-secondary">글로 돌아가기</button></a>
+    </div><!-- .container -->
+
+    <script>
+        let blogId = "${blog.blogId}";
+
+        // 받은 메세지를 메세지 번호(seq)를 키로 들고 있는다. 같은 메세지를 두 번 받아도 한 번만 그린다
+        const messageMap = new Map();
+        // 빠짐없이 받은 마지막 메세지 번호, 이보다 2 이상 큰 번호가 오면 중간 메세지를 다시 받아온다
+        let lastSeq = 0;
+
+        // 메세지 하나를 화면에 붙인다(내용은 textContent로 넣어서 태그가 실행되지 않게 한다)
+        function appendMessage(message){
+            const $line = document.createElement('div');
+            $line.textContent = `\${message.sender}: \${message.content}`;
+            const $messages = document.getElementById('chatMessages');
+            $messages.appendChild($line);
+            $messages.scrollTop = $messages.scrollHeight;
+        }
+
+        // 번호 순서대로 이어지는 메세지만 화면에 붙인다
+        function drainMessages(){
+            while(messageMap.has(lastSeq + 1)){
+                lastSeq++;
+                appendMessage(messageMap.get(lastSeq));
+                messageMap.delete(lastSeq);
+            }
+        }
+
+        // lastSeq 이후의 최근 메세지를 서버 메모리에서 받아온다(처음 들어왔을 때, 빠진 메세지가 있을 때)
+        function loadHistory(){
+            fetch(`http://localhost:8080/chat/\${blogId}/messages?after=\${lastSeq}`, {method:'get'})
+                .then((res) => res.json())
+                .then(messages => {
+                    // 서버 메모리에 남아있지 않은 오래된 메세지는 건너뛴다
+                    if(messages.length > 0 && messages[0].seq > lastSeq + 1){
+                        lastSeq = messages[0].seq - 1;
+                    }
+                    messages.forEach(message => messageMap.set(message.seq, message));
+                    drainMessages();
+            });
+        }
+
+        const chatSource = new EventSource(`http://localhost:8080/chat/\${blogId}/stream`);
+
+        // 연결(재연결 포함)된 뒤에 최근 메세지를 받아와야 그 사이의 메세지를 놓치지 않는다
+        chatSource.addEventListener('open', () => loadHistory());
+
+        // 서버의 실시간 연결이 가득 차서 거절되면(503) 브라우저가 다시 연결하지 않으므로 주기적으로 최근 메세지를 받아온다
+        const CHAT_POLL_INTERVAL_MS = 2000;
+        chatSource.addEventListener('error', () => {
+            if(chatSource.readyState === EventSource.CLOSED){
+                setInterval(loadHistory, CHAT_POLL_INTERVAL_MS);
+            }
+        });
+
+        chatSource.addEventListener('chat', (e) => {
+            const message = JSON.parse(e.data);
+            if(message.seq <= lastSeq){
+                return;
+            }
+            messageMap.set(message.seq, message);
+            drainMessages();
+            // 번호가 비었다면 중간 메세지를 다시 받아온다
+            if(messageMap.size > 0){
+                loadHistory();
+            }
+        });
+
+        // 화면이 느려서 서버가 메세지를 버린 경우 최근 메세지를 다시 받아온다
+        chatSource.addEventListener('resync', () => loadHistory());
+
+        // 메세지 보내기, 보낸 메세지도 SSE로 돌아오므로 여기서는 그리지 않는다
+        function sendMessage(){
+            if(document.getElementById("chatSender").value.trim() === ""
+                || document.getElementById("chatContent").value.trim() === ""){
+                alert("보낸 사람과 메세지를 입력하시오.");
+                return;
+            }
+            fetch(`http://localhost:8080/chat/\${blogId}/messages`, {
+                method:'post',
+                headers: {
+                    "Content-Type": "application/json",
+                },
+                body: JSON.stringify({
+                    sender: document.getElementById("chatSender").value,
+                    content: document.getElementById("chatContent").value,
+                }),
+            }).then((res) => {
+                if(res.status === 503){
+                    alert("메세지가 너무 많습니다. 잠시 후 다시 보내주세요.");
+                    return;
+                }
+                document.getElementById("chatContent").value = "";
+            });
+        }
+
+        document.getElementById("chatSend").addEventListener('click', sendMessage);
+    </script>
+    <!-- JavaScript Bundle with Popper -->
+    <script src="https://cdn.jsdelivr.net/npm/bootstrap@5.2.3/dist/js/bootstrap.bundle.min.js" integrity="sha384-kenU1KFdBIe4zVF0s0G1M5b4hcpxyD9F7jL+jjXkk+Q2h455rYXK/7HAuoJl+0I4" crossorigin="anonymous"></script>
+</body>
+</html>
@@ -80,14 +80,26 @@
         </table><!-- second-table -->
         <div class="card">
             <div class="card-body">
-                ${blog.blogContent}
+                <!-- 본문(Markdown)은 저장할 때 변환해둔 HTML이므로 이스케이프하지 않고 그대로 출력한다 -->
+                ${blogHtml}
             </div>
         </div> <br> <!-- blogContent -->
         <div class="card">
-            <div id="replies" class="card-body">
-                
-            </div>
-            
+            <!-- 첫 페이지 댓글은 글과 함께 서버에서 그려주고, 아래 스크립트의 renderReplies()와 같은 모양으로 출력한다 -->
+            <div id="replies" class="card-body"><c:forEach var="reply" items="${replies}" varStatus="status">
+                ${status.count}번째 댓글 || 글쓴이: 
+                        <span id="replyWriter${reply.replyId}"><c:out value="${reply.replyWriter}"/></span>,
+                    댓글내용: 
+                        <span id="replyContent${reply.replyId}"><c:out value="${reply.replyContent}"/></span>
+                    <span class="deleteReplyBtn" data-replyId="${reply.replyId}">
+                        [삭제]
+                    </span>
+                    <span class="updateReplyBtn" data-replyId="${reply.replyId}" data-bs-toggle="modal" data-bs-target="#replyUpdateModal">
+                        [수정]
+                    </span>
+                <br></c:forEach></div>
+            <!-- 아직 불러오지 않은 댓글이 있을 때만 보인다 -->
+            <button class="btn btn-light" id="moreReplies" <c:if test="${empty replyNextCursor}">style="display: none;"</c:if>>댓글 더보기</button>
         </div> <br> <!-- replies -->
         <div class="row">
             <!-- 비동기 form의 경우는 목적지로 이동하지 않고 페이지 내에서 처리가 되므로
@@ -105,6 +117,7 @@
     </div><!-- .container -->      
     <div class="container">
         <a href="/blog/list"><button class="btn btn-secondary">목록</button></a>
+        <a href="/blog/chat/${blog.blogId}"><button class="btn btn-success">채팅방</button></a>
         <!-- blog의 글쓴이랑 인증정보로 보낸 글쓴이 정보가 일치할때만 버튼 노출 -->
         <c:if test="${username eq blog.writer}">
             <form action="/blog/delete" method="POST"> <!-- 번호 입력시 게시물을 삭제해주는 기능 추가 -->
@@ -122,54 +135,163 @@
         // 글 구성에 필요한 글번호를 자바스크립트 변수에 저장
         let blogId = "${blog.blogId}";
 
-        // blogId를 받아 전체 데이터를 JS내부로 가져오는 함수
-        //function getAllReplies(blogId){
-        function getAllReplies(id){
+        // 댓글 더보기 한 번에 불러올 댓글 개수
+        const REPLY_PAGE_SIZE = 20;
+
+        // 화면에 보여주는 댓글을 댓글번호를 키로 해서 메모리에 들고 있는다.
+        // 댓글을 쓰거나 지우거나 고친 뒤에는 이 Map만 고쳐서 다시 그리므로 전체 목록을 다시 불러오지 않아도 된다.
+        const replyMap = new Map();
+        // 마지막으로 동기화한 시점을 나타내는 토큰, 이 토큰 이후의 변경분만 서버에 요청한다.
+        // 처음에는 서버가 첫 페이지 댓글을 읽어온 시점의 토큰으로 시작한다.
+        let syncToken = "${replySyncToken}";
+        // 다음 페이지 요청시 넘길 댓글번호, null이면 모든 댓글을 불러온 상태
+        let nextCursor = ${empty replyNextCursor ? 'null' : replyNextCursor};
+
+        // 서버에서 그려준 첫 페이지 댓글을 replyMap에 담는다(첫 화면을 위해 댓글을 다시 요청하지 않는다)
+        document.querySelectorAll('#replies>.deleteReplyBtn').forEach($btn => {
+            const replyId = Number($btn.dataset['replyid']);
+            replyMap.set(replyId, {
+                replyId: replyId,
+                replyWriter: document.getElementById(`replyWriter\${replyId}`).textContent,
+                replyContent: document.getElementById(`replyContent\${replyId}`).textContent,
+            });
+        });
+
+        // replyMap에 들어있는 댓글을 화면에 그려주는 함수
+        // 글쓴이와 내용은 사용자가 쓴 글자 그대로이므로 HTML 문자열로 이어붙이지 않고 textContent로 넣어서
+        // 댓글에 들어있는 태그가 실행되지 않게 한다(chat.jsp와 같은 방식)
+        function renderReplies(){
+            // 댓글번호 순서로 정렬
+            const replies = [...replyMap.values()].sort((a, b) => a.replyId - b.replyId);
+
+            // #replies 요소를 변수에 저장해보기
+            const $replies = document.getElementById('replies');
+            $replies.replaceChildren();
+
+            replies.forEach((reply, i) => { // 첫 파라미터(reply) : 반복대상자료, 두번째 파라미터(i) : 순번
+                const $writer = document.createElement('span');
+                $writer.id = `replyWriter\${reply.replyId}`;
+                $writer.textContent = reply.replyWriter;
+
+                const $content = document.createElement('span');
+                $content.id = `replyContent\${reply.replyId}`;
+                $content.textContent = reply.replyContent;
+
+                const $deleteBtn = document.createElement('span');
+                $deleteBtn.className = 'deleteReplyBtn';
+                $deleteBtn.dataset.replyid = reply.replyId;
+                $deleteBtn.textContent = '[삭제]';
+
+                const $updateBtn = document.createElement('span');
+                $updateBtn.className = 'updateReplyBtn';
+                $updateBtn.dataset.replyid = reply.replyId;
+                $updateBtn.dataset.bsToggle = 'modal';
+                $updateBtn.dataset.bsTarget = '#replyUpdateModal';
+                $updateBtn.textContent = '[수정]';
+
+                $replies.append(`\${i+1}번째 댓글 || 글쓴이: `, $writer, ', 댓글내용: ', $content, ' ',
+                        $deleteBtn, ' ', $updateBtn, document.createElement('br'));
+            });
+
+            // 더 불러올 댓글이 있을 때만 더보기 버튼을 보여준다
+            document.getElementById('moreReplies').style.display = (nextCursor === null) ? 'none' : '';
+        }
+
+        // blogId를 받아 첫 페이지 댓글을 다시 불러오는 함수(변경분만으로 따라잡을 수 없을 때 사용)
+        function reloadReplies(id){
             // <%-- jsp와 js가 모두 ${변수명} 문법을 공유하고, 이 중 .jsp파일에서는
             // ${}의 해석을 jsp식으로 먼저 하기 때문에, 해당 ${}가 백틱`` 내부에서 쓰이는 경우
             // ${} 형식으로 \를 추가로 왼쪽에 붙여 jsp용으로 작성한 것이 아님을 명시해야함. --%>
-            let url = `http://localhost:8080/reply/\${id}/all`;
-            //let url = `http://localhost:8080/reply/${blogId}/all`;
+            let url = `http://localhost:8080/reply/\${id}?size=\${REPLY_PAGE_SIZE}`;
+
+            // 목록을 불러오기 전에 동기화 토큰부터 받아둬야 불러오는 사이에 바뀐 댓글을 놓치지 않는다
+            fetch(`http://localhost:8080/reply/\${id}/changes`, {method:'get'})
+                .then((res) => res.json())
+                .then(changes => {
+                    syncToken = changes.nextToken;
+                    return fetch(url, {method:'get'}); // get방식으로 위 주소에 요청넣기
+                })
+                .then((res) => res.json()) // 응답받은 요소중 json만 뽑기
+                .then(page => { // 뽑아온 json으로 처리작업하기
+                    replyMap.clear();
+                    page.replies.forEach(reply => replyMap.set(reply.replyId, reply));
+                    nextCursor = page.nextCursor;
+                    renderReplies();
+            });
+        }
+
+        // 다음 페이지 댓글을 이어서 불러오는 함수
+        function loadMoreReplies(){
+            if(nextCursor === null){
+                return;
+            }
+            let url = `http://localhost:8080/reply/\${blogId}?after=\${nextCursor}&size=\${REPLY_PAGE_SIZE}`;
+
+            fetch(url, {method:'get'})
+                .then((res) => res.json())
+                .then(page => {
+                    page.replies.forEach(reply => replyMap.set(reply.replyId, reply));
+                    nextCursor = page.nextCursor;
+                    renderReplies();
+            });
+        }
 
-            let str = ""; // 받아온 json을 표현할 html 코드를 저장할 문자열 str 선언
+        document.getElementById('moreReplies').addEventListener('click', loadMoreReplies);
 
-            fetch(url, {method:'get'}) // get방식으로 위 주소에 요청넣기
-                .then((res) => res.json()) // 응답받은 요소중 json만 뽑기
-                .then(replies => { // 뽑아온 json으로 처리작업하기
-                    console.log(replies);
-
-                    //for(reply of replies){
-                        //console.log(reply);
-                        //console.log("-------------");
-                        //str += `<h3>글쓴이: \${reply.replyWriter},
-                            //댓글내용: \${reply.replyContent}</h3>`
-                    //}
-
-                    // .map()을 이용해 간결한 반복문 처리
-                    replies.map((reply, i) => { // 첫 파라미터(reply) : 반복대상자료, 두번째 파라미터(i) : 순번
-                        str += 
-                            `\${i+1}번째 댓글 || 글쓴이: 
-                                    <span id="replyWriter\${reply.replyId}">\${reply.replyWriter}</span>,
-                                댓글내용: 
-                                    <span id="replyContent\${reply.replyId}">\${reply.replyContent}</span>
-                                <span class="deleteReplyBtn" data-replyId="\${reply.replyId}">
-                                    [삭제]
-                                </span>
-                                <span class="updateReplyBtn" data-replyId="\${reply.replyId}" data-bs-toggle="modal" data-bs-target="#replyUpdateModal">
-                                    [수정]
-                                </span>
-                            <br>`;
-                    });
-                
-                    console.log(str); // 저장된 태그 확인
-                    // #replies 요소를 변수에 저장해보기
-                    const $replies = document.getElementById('replies');
-                    // 저장된 #replies의 innerHTML에 str을 대입해 실제 화면에 출력되도록
-                    $replies.innerHTML = str;
+        // 마지막 토큰 이후에 생성, 수정, 삭제된 댓글만 받아와서 화면에 반영하는 함수
+        function syncReplies(){
+            if(syncToken === ""){
+                reloadReplies(blogId);
+                return;
+            }
+            let url = `http://localhost:8080/reply/\${blogId}/changes?since=\${encodeURIComponent(syncToken)}`;
+
+            fetch(url, {method:'get'})
+                .then((res) => res.json())
+                .then(changes => {
+                    // 변경분만으로 따라잡을 수 없는 경우 전체를 다시 불러온다
+                    if(changes.resync){
+                        reloadReplies(blogId);
+                        return;
+                    }
+                    // 아직 불러오지 않은 페이지의 댓글은 더보기를 누를 때 받아오므로 건너뛴다
+                    changes.upserted
+                        .filter(reply => nextCursor === null || reply.replyId <= nextCursor)
+                        .forEach(reply => replyMap.set(reply.replyId, reply));
+                    changes.deleted.forEach(replyId => replyMap.delete(replyId));
+                    syncToken = changes.nextToken;
+                    renderReplies();
             });
         }
-        // 함수 호출
-        getAllReplies(blogId);
+
+        // 다른 사람이 쓰거나 고치거나 지운 댓글을 서버가 바로 보내주도록 SSE로 연결한다
+        // 연결이 끊기면 브라우저가 알아서 다시 연결하고, 그 사이 놓친 변경분은 다시 연결될 때 토큰으로 받아온다
+        const replySource = new EventSource(`http://localhost:8080/reply/\${blogId}/stream`);
+
+        // 서버가 페이지를 그린 뒤 연결되기 전까지 저장된 댓글도 있으므로 첫 연결에도 토큰 이후의 변경분을 받아온다
+        replySource.addEventListener('open', () => syncReplies());
+
+        // 서버의 실시간 연결이 가득 차서 거절되면(503) 브라우저가 다시 연결하지 않으므로 주기적으로 변경분을 조회한다
+        const REPLY_POLL_INTERVAL_MS = 10000;
+        replySource.addEventListener('error', () => {
+            if(replySource.readyState === EventSource.CLOSED){
+                setInterval(syncReplies, REPLY_POLL_INTERVAL_MS);
+            }
+        });
+
+        replySource.addEventListener('reply', (e) => {
+            const event = JSON.parse(e.data);
+            if(event.type === 'deleted'){
+                replyMap.delete(event.replyId);
+            }else if(nextCursor === null || event.replyId <= nextCursor){
+                // 아직 불러오지 않은 페이지의 댓글은 더보기를 누를 때 받아온다
+                replyMap.set(event.replyId, event.reply);
+            }
+            renderReplies();
+        });
+
+        // 화면이 느려서 서버가 이벤트를 버린 경우 변경분 조회로 따라잡는다
+        replySource.addEventListener('resync', () => syncReplies());
 
         // 댓글입력 함수 : 해당 함수 실행시 비동기 form에 작성된 글쓴이, 내용으로 댓글 입력 + 댓글 목록 또한 갱신되어야 함
         function insertReply(){
@@ -198,15 +320,18 @@
                     replyWriter: document.getElementById("replyWriter").value,
                     replyContent: document.getElementById("replyContent").value,
                     blogId: "${blog.blogId}",
-                }), // insert로직이기 때문에 response에 실제 화면에서 사용할 데이터가 전송되지 않음
-             }).then(() => {
+                }), // response로 저장된 댓글(댓글번호 포함)이 전송됨
+             }).then((res) => res.json())
+             .then(reply => {
                 // 댓글 작성 후 폼에 작성되어있던 내용 소거
                 document.getElementById("replyWriter").value = "";
                 document.getElementById("replyContent").value = "";
                 alert("댓글이 등록되었습니다.");
 
-                // 댓글 입력 후 댓글 목록을 갱신하기 위해 getAllReplies 함수 호출 - 성능적으로는 좋지않은 코드(전체를 불러오기 때문)
-                getAllReplies(blogId);
+                // 전체 목록을 다시 불러오지 않고 저장된 댓글만 추가한 뒤, 그 사이 다른 사람이 바꾼 댓글만 받아온다
+                replyMap.set(reply.replyId, reply);
+                renderReplies();
+                syncReplies();
              });
         }
 
@@ -299,8 +424,10 @@
                     .then(() => {
                         // 요청 넣은 후 실행할 코드를 여기에 적는다.
                         alert('댓글이 삭제되었습니다.');
-                        // 댓글 삭제 후 댓글 목록을 갱신하기 위해 getAllReplies 함수 호출 - 성능적으로는 좋지않은 코드(전체를 불러오기 때문)
-                        getAllReplies(blogId);
+                        // 삭제한 댓글만 화면에서 지운 뒤 변경분만 받아온다
+                        replyMap.delete(Number(replyId));
+                        renderReplies();
+                        syncReplies();
                     });
                 }
             }
@@ -327,11 +454,14 @@
                     replyWriter : document.querySelector("#modalReplyWriter").value,
                     replyContent : document.querySelector("#modalReplyContent").value,
                 }),
-            }).then(() => {
+            }).then((res) => res.json())
+            .then(reply => {
                 // 폼 소거
                 document.getElementById("replyWriter").value = "";
                 document.getElementById("replyContent").value = "";
-                getAllReplies(blogId); // 목록 갱신
+                // 수정된 댓글만 바꿔서 목록 갱신
+                replyMap.set(reply.replyId, reply);
+                renderReplies();
             });
         }
 
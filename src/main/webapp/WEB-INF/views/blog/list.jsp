@@ -10,6 +10,15 @@
 <body>
     <div class="container">
         <h1 class="text-center">게시물 목록</h1>
+        <!-- 검색창 -->
+        <form action="/blog/search" method="get" class="row justify-content-end mb-3">
+            <div class="col-4">
+                <input type="text" class="form-control" name="q" placeholder="제목, 본문 검색">
+            </div>
+            <div class="col-1">
+                <input type="submit" class="btn btn-secondary" value="검색">
+            </div>
+        </form>
         <table class="table table-hover">
             <thead class="text-center">
                 <tr>
@@ -25,7 +34,17 @@
                 <c:forEach var="blog" items="${blogList}">
                     <tr>
                         <td>${blog.blogId}</td>
-                        <td><a href="/blog/detail/${blog.blogId}">${blog.blogTitle}</a></td>
+                        <td>
+                            <a href="/blog/detail/${blog.blogId}">${blog.blogTitle}</a>
+                            <!-- 댓글 수(blog.reply_count에 미리 세어둔 값이라 목록 조회시 댓글을 세지 않는다) -->
+                            <c:if test="${blog.replyCount > 0}">
+                                <span class="text-primary">[${blog.replyCount}]</span>
+                            </c:if>
+                            <!-- 본문 앞부분(blog.list.excerpt-length 설정시에만 있음) -->
+                            <c:if test="${not empty blog.excerpt}">
+                                <div class="text-muted small"><c:out value="${blog.excerpt}"/>...</div>
+                            </c:if>
+                        </td>
                         <td>${blog.writer}</td>
                         <td>${blog.publishedAt}</td>
                         <td>${blog.updatedAt}</td>
@@ -68,6 +87,14 @@
                         </li>
                     </c:if>
 
+                    <!-- 더보기 버튼 -->
+                    <!-- 페이지 번호 대신 마지막으로 본 글번호(커서)를 넘겨서 이어서 조회합니다. 깊은 페이지도 빠르게 조회됩니다.-->
+                    <c:if test="${pageInfo.nextCursor != null}">
+                        <li class="page-item">
+                            <a class="page-link" href="/blog/list?cursor=${pageInfo.nextCursor}">더보기</a>
+                        </li>
+                    </c:if>
+
                 </ul>
             </div>
         </div>
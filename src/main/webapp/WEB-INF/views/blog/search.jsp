@@ -0,0 +1,61 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8" pageEncoding="UTF-8"%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core" %>
+<!DOCTYPE html>
+<html>
+<head>
+<meta charset="UTF-8">
+<title>Insert title here</title>
+<link href="https://cdn.jsdelivr.net/npm/bootstrap@5.3.0/dist/css/bootstrap.min.css" rel="stylesheet" integrity="sha384-9ndCyUaIbzAi2FUVXJi0CjmCapSmO7SnpJef0486qhLnuZ2cdeRhO02iuK6FUUVM" crossorigin="anonymous">
+</head>
+<body>
+    <div class="container">
+        <h1 class="text-center">검색 결과</h1>
+        <!-- 검색창 -->
+        <form action="/blog/search" method="get" class="row justify-content-end mb-3">
+            <div class="col-4">
+                <input type="text" class="form-control" name="q" value="<c:out value="${q}"/>" placeholder="제목, 본문 검색">
+            </div>
+            <div class="col-1">
+                <input type="submit" class="btn btn-secondary" value="검색">
+            </div>
+        </form>
+        <!-- 관련도가 높은 글부터 순서대로 보여줍니다. -->
+        <table class="table table-hover">
+            <thead class="text-center">
+                <tr>
+                    <th>글번호</th>
+                    <th>글제목</th>
+                    <th>글쓴이</th>
+                    <th>작성일</th>
+                    <th>수정일</th>
+                    <th>조회수</th>
+                </tr>
+            </thead>
+            <tbody class="text-center">
+                <c:forEach var="blog" items="${blogList}">
+                    <tr>
+                        <td>${blog.blogId}</td>
+                        <td>
+                            <a href="/blog/detail/${blog.blogId}">${blog.blogTitle}</a>
+                            <!-- 본문 앞부분(blog.list.excerpt-length 설정시에만 있음) -->
+                            <c:if test="${not empty blog.excerpt}">
+                                <div class="text-muted small"><c:out value="${blog.excerpt}"/>...</div>
+                            </c:if>
+                        </td>
+                        <td>${blog.writer}</td>
+                        <td>${blog.publishedAt}</td>
+                        <td>${blog.updatedAt}</td>
+                        <td>${blog.blogCount}</td>
+                    </tr>
+                </c:forEach>
+                <c:if test="${empty blogList}">
+                    <tr>
+                        <td colspan="6">검색 결과가 없습니다.</td>
+                    </tr>
+                </c:if>
+            </tbody>
+        </table><!-- table -->
+        <a href="/blog/list" class="btn btn-secondary">목록으로</a>
+    </div><!-- .container -->
+</body>
+</html>
@@ -17,6 +17,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -69,6 +70,49 @@ class ReplyControllerTest {
                 .andExpect(jsonPath("$[0].replyId").value(replyId));
     }
 
+    @Test
+    @Transactional
+    @DisplayName("2번 글 전체 댓글 조회시 받은 ETag로 다시 요청하면 댓글이 바뀌지 않았으므로 304 응답")
+    void findAllRepliesNotModifiedTest() throws Exception{
+        // given : 처음 조회해서 ETag를 받아둔다
+        String url = "/reply/2/all";
+        String eTag = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // when : 받은 ETag를 If-None-Match에 실어서 다시 요청
+        final ResultActions result = mockMvc.perform(get(url)
+                .header("If-None-Match", eTag)
+                .accept(MediaType.APPLICATION_JSON));
+
+        // then : 본문 없이 304
+        result.andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("2번 글의 댓글을 2개씩 조회시 첫 페이지 커서는 2, 2번 이후 페이지는 3,4번 댓글이고 커서는 null")
+    void findReplyPageTest() throws Exception{
+        // given
+        String firstUrl = "/reply/2?size=2";
+        String nextUrl = "/reply/2?after=2&size=2";
+
+        // when
+        final ResultActions first = mockMvc.perform(get(firstUrl)
+                .accept(MediaType.APPLICATION_JSON));
+        final ResultActions next = mockMvc.perform(get(nextUrl)
+                .accept(MediaType.APPLICATION_JSON));
+
+        // then
+        first.andExpect(status().isOk())
+                .andExpect(jsonPath("$.replies.length()").value(2))
+                .andExpect(jsonPath("$.replies[0].replyId").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(2));
+        next.andExpect(status().isOk())
+                .andExpect(jsonPath("$.replies[0].replyId").value(3))
+                .andExpect(jsonPath("$.replies[1].replyId").value(4))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
     @Test
     @Transactional
     @DisplayName("replyId 2번 조회시 얻어온 json객체의 ReplyWriter 미미, replyId 2번")
@@ -137,4 +181,34 @@ class ReplyControllerTest {
         assertNull(result);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("없는 댓글번호로 조회하면 404와 안내 문구를 받는다")
+    void findByReplyIdNotFound() throws Exception {
+        // given : 존재하지 않는 댓글번호
+        String url = "/reply/999999999";
+
+        // when
+        final ResultActions result = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isNotFound());
+        assertEquals("찾는 댓글이 없습니다.", result.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("댓글번호 여러 개로 조회하면 요청한 순서대로 댓글을 받고 없는 번호는 missing에 담긴다")
+    void findByReplyIds() throws Exception {
+        // given : 2번, 없는 번호, 1번 순서로 요청
+        String url = "/reply?ids=2,999999999,1";
+
+        // when
+        final ResultActions result = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON));
+
+        // then
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].replyId").value(2))
+                .andExpect(jsonPath("$.found[1].replyId").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(999999999));
+    }
+}
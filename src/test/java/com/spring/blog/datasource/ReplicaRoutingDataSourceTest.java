@@ -0,0 +1,162 @@
+package com.spring.blog.datasource;
+
+import com.spring.blog.dto.DataSourceStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// replica 두 개 중 replica-0은 H2 메모리 DB, replica-1은 아무도 듣지 않는 주소라서 연결할 수 없다
+// replica-0에만 routing_marker 테이블을 만들어두고, 읽기 전용 트랜잭션에서 그 테이블이 보이면 replica에서 읽은 것이다
+@SpringBootTest(properties = {
+        "blog.datasource.routing.enabled=true",
+        "blog.datasource.routing.replica-urls=" + ReplicaRoutingDataSourceTest.REPLICA_URL + ",jdbc:h2:tcp://localhost:1/mem:down",
+        "blog.datasource.routing.replica-username=sa",
+        "blog.datasource.routing.replica-password=",
+        "blog.datasource.routing.replica-driver-class-name=org.h2.Driver",
+        "blog.datasource.routing.replica-connection-timeout-ms=250",
+        "blog.datasource.routing.eject-after-failures=1",
+        "blog.datasource.routing.health-check-interval-ms=3600000"})
+public class ReplicaRoutingDataSourceTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate readOnlyTransaction;
+
+    TransactionTemplate writeTransaction;
+
+    @BeforeAll
+    public static void createReplicaMarker() throws Exception {
+        try(Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+            Statement statement = connection.createStatement()){
+            statement.execute("CREATE TABLE IF NOT EXISTS routing_marker (name VARCHAR(20))");
+            statement.execute("DELETE FROM routing_marker");
+            statement.execute("INSERT INTO routing_marker VALUES ('replica')");
+        }
+    }
+
+    @BeforeEach
+    public void setUp(){
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        // 연결할 수 없는 replica-1을 먼저 읽기 대상에서 빼둔다
+        replicaRoutingDataSource.checkHealth();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        ReplicaRoutingContext.clear();
+    }
+
+    @Test
+    @DisplayName("연결할 수 없는 replica는 읽기 대상에서 빠지고, 읽기 전용 트랜잭션은 남은 replica에서 읽는다")
+    public void readOnlyRoutesToReplicaTest(){
+        // given
+        long replicaBefore = getStats("replica-0").getBorrowedConnections();
+        long downBefore = getStats("replica-1").getBorrowedConnections();
+
+        // when : 읽기 전용 트랜잭션 4번
+        for(int i = 0; i < 4; i++){
+            String name = readOnlyTransaction.execute(status ->
+                    jdbcTemplate.queryForObject("SELECT name FROM routing_marker", String.class));
+            // then : replica에만 있는 테이블이 보인다
+            assertEquals("replica", name);
+        }
+
+        // then
+        assertFalse(getStats("replica-1").isHealthy());
+        assertTrue(getStats("replica-0").isHealthy());
+        assertEquals(replicaBefore + 4, getStats("replica-0").getBorrowedConnections());
+        assertEquals(downBefore, getStats("replica-1").getBorrowedConnections());
+    }
+
+    @Test
+    @DisplayName("읽기 전용이 아닌 트랜잭션과 방금 쓴 사용자의 읽기 전용 트랜잭션은 primary에서 실행된다")
+    public void writeAndStickyRoutesToPrimaryTest(){
+        // given
+        long primaryBefore = getStats("primary").getBorrowedConnections();
+        long replicaBefore = getStats("replica-0").getBorrowedConnections();
+
+        // when : 쓰기 트랜잭션 1번, primary에 고정된 뒤 읽기 전용 트랜잭션 1번
+        writeTransaction.execute(status -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        ReplicaRoutingContext.pinToPrimary();
+        readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+
+        // then : replica는 한 번도 사용하지 않았다
+        assertTrue(getStats("primary").getBorrowedConnections() >= primaryBefore + 2);
+        assertEquals(replicaBefore, getStats("replica-0").getBorrowedConnections());
+    }
+
+    @Test
+    @DisplayName("쓰기 요청은 primary-until 쿠키를 받고, 그 쿠키를 가진 다음 조회 요청은 primary에 고정된다")
+    public void readYourWritesInterceptorTest(){
+        // given
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(5000);
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/reply");
+        MockHttpServletResponse postResponse = new MockHttpServletResponse();
+
+        // when : 쓰기 요청
+        interceptor.preHandle(post, postResponse, null);
+
+        // then : 요청 동안 primary에 고정되고 쿠키를 받는다, 요청이 끝나면 풀린다
+        assertTrue(ReplicaRoutingContext.isPinnedToPrimary());
+        Cookie cookie = postResponse.getCookie(ReadYourWritesInterceptor.COOKIE_NAME);
+        assertNotNull(cookie);
+        interceptor.afterCompletion(post, postResponse, null, null);
+        assertFalse(ReplicaRoutingContext.isPinnedToPrimary());
+
+        // when : 쿠키를 가진 조회 요청과 쿠키가 없는 조회 요청
+        MockHttpServletRequest getWithCookie = new MockHttpServletRequest("GET", "/blog/list");
+        getWithCookie.setCookies(cookie);
+        interceptor.preHandle(getWithCookie, new MockHttpServletResponse(), null);
+        boolean pinnedWithCookie = ReplicaRoutingContext.isPinnedToPrimary();
+        ReplicaRoutingContext.clear();
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/blog/list"), new MockHttpServletResponse(), null);
+
+        // then
+        assertTrue(pinnedWithCookie);
+        assertFalse(ReplicaRoutingContext.isPinnedToPrimary());
+    }
+
+    @SuppressWarnings("unchecked")
+    private DataSourceStatsDTO getStats(String name){
+        Map<String, Object> stats = replicaRoutingDataSource.getStats();
+        for(DataSourceStatsDTO dataSource : (List<DataSourceStatsDTO>) stats.get("dataSources")){
+            if(dataSource.getName().equals(name)){
+                return dataSource;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
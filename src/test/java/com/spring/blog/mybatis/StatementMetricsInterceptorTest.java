@@ -0,0 +1,46 @@
+package com.spring.blog.mybatis;
+
+import com.spring.blog.dto.StatementStatsDTO;
+import com.spring.blog.repository.ReplyRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class StatementMetricsInterceptorTest {
+
+    @Autowired
+    StatementMetricsInterceptor statementMetricsInterceptor;
+
+    @Autowired
+    ReplyRepository replyRepository;
+
+    @Test
+    @Transactional
+    @DisplayName("2번글 댓글을 3번 조회하고 집계하면 findAllByBlogId 통계는 실행 3회, 조회된 행 12개")
+    public void recordStatementTest(){
+        // given : 이전까지 쌓인 기록을 비워둠
+        String statementId = "com.spring.blog.repository.ReplyRepository.findAllByBlogId";
+        statementMetricsInterceptor.rotate();
+
+        // when : 댓글 4개짜리 2번글을 3번 조회 후 집계
+        for(int i = 0; i < 3; i++){
+            replyRepository.findAllByBlogId(2);
+        }
+        statementMetricsInterceptor.rotate();
+
+        // then : 직전 구간 통계에 기록됨
+        StatementStatsDTO stats = statementMetricsInterceptor.getLastWindow().stream()
+                .filter(s -> s.getStatementId().equals(statementId))
+                .findFirst().orElseThrow();
+        assertEquals(3, stats.getCount());
+        assertEquals(12, stats.getRows());
+        assertEquals(0, stats.getErrors());
+        assertTrue(stats.getP50Ms() <= stats.getP99Ms());
+    }
+}
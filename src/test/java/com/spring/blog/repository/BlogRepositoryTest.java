@@ -1,6 +1,7 @@
 package com.spring.blog.repository;
 
 import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogSummary;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -38,6 +39,25 @@ public class BlogRepositoryTest {
         assertEquals(2, blogList.get(blogId).getBlogId());
     }
 
+    @Test
+    @DisplayName("한 페이지에 2개씩 조회시 첫 페이지는 3,2번 글, 2번 글을 커서로 조회시 1번 글만 나온다")
+    public void findPageTest(){
+        // given : 페이지 크기 2
+        int size = 2;
+        // when : 첫 페이지를 번호 방식으로, 그 다음 페이지를 커서 방식으로 조회
+        List<BlogSummary> firstPage = blogRepository.findPage(0, size, 0);
+        List<BlogSummary> nextPage = blogRepository.findPageAfter(firstPage.get(size - 1).getBlogId(), size, 2);
+        // then
+        assertEquals(2, firstPage.size());
+        assertEquals(3, firstPage.get(0).getBlogId());
+        assertEquals(1, nextPage.size());
+        assertEquals(1, nextPage.get(0).getBlogId());
+        // 요약 길이를 주지 않으면 본문을 읽지 않고, 주면 그 길이만큼만 읽는다
+        assertNull(firstPage.get(0).getExcerpt());
+        assertEquals("1번", nextPage.get(0).getExcerpt());
+        assertEquals(3, blogRepository.countAll());
+    }
+
     @Test
     @DisplayName("2번 글 조회시, 제목,글쓴이,번호가 단언대로 일치하는지 확인")
     public void findByIdTest(){
@@ -0,0 +1,117 @@
+package com.spring.blog.service;
+
+import com.spring.blog.content.BodyCodec;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogBody;
+import com.spring.blog.repository.BlogBodyRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 캐시에 담는 경우와 풀면서 바로 쓰는 경우를 모두 보기 위해 캐시에 담을 최대 길이를 줄여둔다
+@SpringBootTest(properties = {"blog.content.inline-max-length=2000", "blog.content.cacheable-max-length=100000"})
+public class BlogContentServiceTest {
+
+    @Autowired
+    BlogContentService blogContentService;
+
+    @Autowired
+    BlogService blogService;
+
+    @Autowired
+    BlogBodyRepository blogBodyRepository;
+
+    @Test
+    @Transactional
+    @DisplayName("긴 본문은 blog 행에 앞부분만 남고 전체는 압축되어 따로 저장되며, 읽을 때는 원래 본문 그대로 풀린다")
+    public void saveLargeBodyTest() throws Exception {
+        // given : 캐시에 담기에는 너무 긴 본문(약 30만 글자)
+        String content = makeContent(300_000);
+        Blog blog = Blog.builder().writer("긴글").blogTitle("긴 글 제목").blogContent(content).build();
+
+        // when
+        blogService.save(blog);
+
+        // then : 글 행에는 앞부분만 있다
+        Blog saved = blogService.findById(blog.getBlogId());
+        assertTrue(saved.isBodyStored());
+        assertEquals(content.substring(0, 2000), saved.getBlogContent());
+        // then : 본문 전체는 압축되어 원래 크기보다 작게 저장된다
+        BlogBody body = blogBodyRepository.findById(blog.getBlogId());
+        assertEquals(BodyCodec.DEFLATE, body.getCodec());
+        assertEquals(content.length(), body.getRawLength());
+        assertTrue(body.getBody().length < content.getBytes(StandardCharsets.UTF_8).length / 2);
+
+        // when : 캐시에 담지 않고 풀면서 바로 쓴다
+        long streamedBefore = (long) blogContentService.getStats().get("streamedReads");
+        StringWriter out = new StringWriter();
+        blogContentService.writeContent(saved, out);
+
+        // then
+        assertEquals(content, out.toString());
+        assertEquals(streamedBefore + 1, (long) blogContentService.getStats().get("streamedReads"));
+        assertEquals(content, blogContentService.findContent(saved));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("수정으로 본문이 짧아지면 따로 저장한 본문이 지워지고, 다시 길어지면 새 본문으로 바뀐다")
+    public void updateBodyTest() throws Exception {
+        // given : 캐시에 담을 수 있는 길이의 본문
+        String content = makeContent(50_000);
+        Blog blog = Blog.builder().writer("긴글").blogTitle("수정할 글").blogContent(content).build();
+        blogService.save(blog);
+        assertEquals(content, blogContentService.findContent(blogService.findById(blog.getBlogId())));
+
+        // when : 짧은 본문으로 수정
+        blogService.update(Blog.builder().blogId(blog.getBlogId()).blogTitle("수정할 글").blogContent("짧은 본문").build());
+
+        // then
+        Blog updated = blogService.findById(blog.getBlogId());
+        assertFalse(updated.isBodyStored());
+        assertEquals("짧은 본문", updated.getBlogContent());
+        assertNull(blogBodyRepository.findById(blog.getBlogId()));
+
+        // when : 다시 다른 긴 본문으로 수정
+        String newContent = "수정됨 " + makeContent(40_000);
+        blogService.update(Blog.builder().blogId(blog.getBlogId()).blogTitle("수정할 글").blogContent(newContent).build());
+
+        // then : 캐시에 남은 옛날 본문이 아니라 새 본문이 읽힌다
+        Blog reupdated = blogService.findById(blog.getBlogId());
+        assertTrue(reupdated.isBodyStored());
+        StringWriter out = new StringWriter();
+        blogContentService.writeContent(reupdated, out);
+        assertEquals(newContent, out.toString());
+    }
+
+    @Test
+    @DisplayName("앞부분을 자를 때 두 글자로 된 문자(이모지)를 반으로 자르지 않는다")
+    public void toRowSurrogateTest(){
+        // given : 1999번째 글자에서 이모지가 시작하는 본문
+        String content = "가".repeat(1999) + "😀".repeat(10);
+
+        // when
+        Blog row = blogContentService.toRow(Blog.builder().blogContent(content).build());
+
+        // then
+        assertTrue(row.isBodyStored());
+        assertEquals("가".repeat(1999), row.getBlogContent());
+    }
+
+    // 실제 글처럼 같은 단어가 반복되는 본문
+    private String makeContent(int length){
+        StringBuilder content = new StringBuilder(length + 32);
+        int i = 0;
+        while(content.length() < length){
+            content.append(i++).append("번째 문단입니다. 긴 글 본문을 압축해서 저장합니다.\n");
+        }
+        return content.substring(0, length);
+    }
+}
@@ -0,0 +1,84 @@
+package com.spring.blog.service;
+
+import com.spring.blog.exception.BlogImportException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BlogDataServiceTest {
+
+    @Autowired
+    BlogDataService blogDataService;
+
+    @Autowired
+    BlogService blogService;
+
+    @Test
+    @Transactional
+    @DisplayName("내보내기 결과는 전체 글 개수만큼의 blog 줄로 시작하고, 그 뒤에 2번글 댓글 4개를 포함한 reply 줄이 이어진다")
+    public void exportAllTest() throws Exception {
+        // given : 전체 글 개수
+        int blogCount = blogService.findAll().size();
+
+        // when : 메모리 스트림으로 내보내기
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blogDataService.exportAll(out);
+
+        // then : 글이 먼저, 댓글이 나중에 한 줄씩 기록됨
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        for(int i = 0; i < blogCount; i++){
+            assertTrue(lines.get(i).contains("\"type\":\"blog\""));
+        }
+        assertEquals(4, lines.stream()
+                .filter(line -> line.contains("\"type\":\"reply\"") && line.contains("\"blogId\":2,"))
+                .count());
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("삭제 표시된 2번글은 정리되기 전이라도 글과 댓글 모두 내보내지 않는다")
+    public void exportSkipsDeletedBlogTest() throws Exception {
+        // given : 댓글 4개가 달린 2번글 삭제 표시
+        blogService.deleteById(2);
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blogDataService.exportAll(out);
+
+        // then : 가져오기에서 댓글이 없는 글을 가리키지 않도록 댓글도 빠진다
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(0, lines.stream().filter(line -> line.contains("\"blogId\":2,")).count());
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("3번째 줄에서 가져오기가 실패하면 실패한 줄 번호와, 앞에서 커밋된 글 1개와 댓글 0개를 알려준다")
+    public void importFailureReportsProgressTest() {
+        // given : 글, 댓글(앞의 글을 먼저 저장하게 함), 해석할 수 없는 줄
+        String ndjson = """
+                {"type":"blog","blog":{"blogId":900001,"writer":"가져오기","blogTitle":"가져온 글","blogContent":"본문","publishedAt":"2024-01-01T00:00:00","updatedAt":"2024-01-01T00:00:00"}}
+                {"type":"reply","reply":{"replyId":900001,"blogId":900001,"replyWriter":"댓글러","replyContent":"댓글","publishedAt":"2024-01-01T00:00:00","updatedAt":"2024-01-01T00:00:00"}}
+                {"type":"unknown"}
+                """;
+
+        // when
+        BlogImportException e = assertThrows(BlogImportException.class,
+                () -> blogDataService.importAll(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))));
+
+        // then : 댓글은 아직 묶음이 차지 않아 저장 전이고, 먼저 저장된 글은 남아있다
+        assertEquals(3, e.getLineNum());
+        assertEquals(1, e.getSaved().getBlogCount());
+        assertEquals(0, e.getSaved().getReplyCount());
+        assertEquals("가져온 글", blogService.findById(900001).getBlogTitle());
+    }
+}
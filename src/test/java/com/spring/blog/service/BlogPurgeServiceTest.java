@@ -0,0 +1,68 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.ReplyCreateRequestDTO;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.exception.NotFoundBlogIdException;
+import com.spring.blog.repository.BlogRepository;
+import com.spring.blog.repository.ReplyRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"blog.purge.chunk-size=3", "blog.purge.throttle-ms=0"})
+public class BlogPurgeServiceTest {
+
+    @Autowired
+    BlogPurgeService blogPurgeService;
+
+    @Autowired
+    BlogService blogService;
+
+    @Autowired
+    ReplyService replyService;
+
+    @Autowired
+    BlogRepository blogRepository;
+
+    @Autowired
+    ReplyRepository replyRepository;
+
+    @Test
+    @Transactional
+    @DisplayName("댓글 4개가 달린 글을 삭제하면 바로 조회되지 않고 댓글도 달 수 없으며, 정리 후에는 댓글과 글 행이 모두 지워진다")
+    public void purgeTest(){
+        // given : 댓글 4개가 달린 글을 하나 만들고 삭제(삭제 표시만 된다)
+        Blog blog = Blog.builder().writer("정리").blogTitle("지울 글").blogContent("지울 본문").build();
+        blogService.save(blog);
+        long blogId = blog.getBlogId();
+        for(int i = 0; i < 4; i++){
+            replyService.save(new ReplyCreateRequestDTO(blogId, "정리", i + "번째 지울 댓글"));
+        }
+        blogService.deleteById(blogId);
+
+        // then : 글과 댓글 모두 조회에서 바로 빠지지만 댓글과 글 행은 아직 남아있다
+        assertNull(blogService.findById(blogId));
+        assertTrue(blogRepository.findExistingIds(List.of(blogId)).isEmpty());
+        assertEquals(0, replyRepository.findAllByBlogId(blogId).size());
+        assertEquals(4, replyRepository.findValidatorByBlogId(blogId).getReplyCount());
+        assertTrue(blogRepository.findDeletedIds(100).contains(blogId));
+        assertThrows(NotFoundBlogIdException.class,
+                () -> replyService.save(new ReplyCreateRequestDTO(blogId, "삭제후", "삭제된 글에 댓글")));
+
+        // when : 정리 실행(댓글은 3개씩 나눠서 지운다)
+        long purgedReplies = blogPurgeService.getStats().getPurgedReplies();
+        blogPurgeService.purge();
+
+        // then : 댓글 4개와 글 행이 지워졌다
+        assertEquals(0, replyRepository.findAllByBlogId(blogId).size());
+        assertFalse(blogRepository.findDeletedIds(100).contains(blogId));
+        assertTrue(blogPurgeService.getStats().getPurgedReplies() >= purgedReplies + 4);
+        assertNull(blogPurgeService.getStats().getCurrentBlogId());
+    }
+}
@@ -0,0 +1,122 @@
+package com.spring.blog.service;
+
+import com.spring.blog.content.BodyCodec;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.BlogHtml;
+import com.spring.blog.markdown.MarkdownRenderer;
+import com.spring.blog.repository.BlogHtmlRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 캐시에 남은 HTML 때문에 DB의 HTML을 읽지 않는 일이 없도록 캐시 유지시간을 0초로 준다
+// 백그라운드에서 다시 변환하는 테스트는 변환 스레드가 글을 읽을 수 있도록 글을 커밋하고, 나머지는 @Transactional로 되돌린다
+@SpringBootTest(properties = {"blog.render.cache.expire-after-write-seconds=0"})
+public class BlogRenderServiceTest extends CommittedBlogTestSupport {
+
+    @Autowired
+    BlogRenderService blogRenderService;
+
+    @Autowired
+    BlogHtmlRepository blogHtmlRepository;
+
+    @Test
+    @Transactional
+    @DisplayName("글을 저장하면 본문이 현재 변환기 버전으로 변환되어 저장되고, 직접 쓴 HTML과 위험한 링크는 걸러진다")
+    public void renderOnSaveTest() throws Exception {
+        // given
+        String markdown = "# 제목\n\n**굵게** [링크](https://example.com) [나쁜 링크](javascript:alert(1))\n\n<script>alert(1)</script>";
+        Blog blog = Blog.builder().writer("변환").blogTitle("변환할 글").blogContent(markdown).build();
+
+        // when
+        blogService.save(blog);
+
+        // then : 저장할 때 변환된 HTML이 있다
+        BlogHtml row = blogHtmlRepository.findById(blog.getBlogId());
+        assertEquals(MarkdownRenderer.VERSION, row.getRendererVersion());
+        String html = render(blog.getBlogId());
+        assertEquals(row.getCodec().decode(row.getHtml(), row.getRawLength()), html);
+        assertTrue(html.contains("<h1>제목</h1>"));
+        assertTrue(html.contains("<strong>굵게</strong>"));
+        assertTrue(html.contains("href=\"https://example.com\""));
+        assertTrue(html.contains("rel=\"nofollow noopener\""));
+        assertFalse(html.contains("javascript:"));
+        assertFalse(html.contains("<script>"));
+        assertTrue(html.contains("&lt;script&gt;"));
+
+        // when : 수정하면 새 본문으로 다시 변환된다
+        blogService.update(Blog.builder().blogId(blog.getBlogId()).blogTitle("변환할 글").blogContent("*수정됨*").build());
+
+        // then
+        assertEquals("<p><em>수정됨</em></p>\n", render(blog.getBlogId()));
+    }
+
+    @Test
+    @DisplayName("옛날 버전으로 변환된 HTML은 일단 그대로 보여주고 백그라운드에서 현재 버전으로 다시 변환한다")
+    public void rerenderStaleTest() throws Exception {
+        // given : 옛날 변환기 버전으로 저장된 HTML
+        Blog blog = Blog.builder().writer("변환").blogTitle("옛날 글").blogContent("## 다시 변환").build();
+        saveBlog(blog);
+        blogHtmlRepository.save(htmlRow(blog.getBlogId(), MarkdownRenderer.VERSION - 1, "<p>옛날 HTML</p>"));
+
+        // when
+        String staleHtml = render(blog.getBlogId());
+
+        // then : 옛날 HTML을 바로 보여주고
+        assertEquals("<p>옛날 HTML</p>", staleHtml);
+        // then : 백그라운드에서 현재 버전으로 다시 변환해서 저장한다
+        BlogHtml row = blogHtmlRepository.findById(blog.getBlogId());
+        for(int i = 0; i < 100 && row.getRendererVersion() != MarkdownRenderer.VERSION; i++){
+            Thread.sleep(50);
+            row = blogHtmlRepository.findById(blog.getBlogId());
+        }
+        assertEquals(MarkdownRenderer.VERSION, row.getRendererVersion());
+        assertEquals("<h2>다시 변환</h2>\n", render(blog.getBlogId()));
+
+        // when : 같은 버전으로 이미 저장된 HTML은 조회시 다시 변환한 결과로 덮어쓰지 않는다
+        blogHtmlRepository.saveIfVersionDiffers(htmlRow(blog.getBlogId(), MarkdownRenderer.VERSION, "<p>덮어쓰기</p>"));
+
+        // then
+        assertEquals("<h2>다시 변환</h2>\n", render(blog.getBlogId()));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("변환해둔 HTML이 없는 글은 처음 조회될 때 변환해서 저장한다")
+    public void renderMissingTest() throws Exception {
+        // given : 이 기능 전에 저장된 글처럼 변환해둔 HTML이 없다
+        Blog blog = Blog.builder().writer("변환").blogTitle("예전 글").blogContent("예전 *본문*").build();
+        blogService.save(blog);
+        blogHtmlRepository.deleteById(blog.getBlogId());
+
+        // when
+        String html = render(blog.getBlogId());
+
+        // then
+        assertEquals("<p>예전 <em>본문</em></p>\n", html);
+        assertEquals(MarkdownRenderer.VERSION, blogHtmlRepository.findById(blog.getBlogId()).getRendererVersion());
+    }
+
+    private String render(long blogId) throws Exception {
+        StringWriter out = new StringWriter();
+        blogRenderService.writeHtml(blogService.findById(blogId), out);
+        return out.toString();
+    }
+
+    private BlogHtml htmlRow(long blogId, int rendererVersion, String html){
+        return BlogHtml.builder()
+                .blogId(blogId)
+                .rendererVersion(rendererVersion)
+                .codec(BodyCodec.NONE)
+                .rawLength(html.length())
+                .html(html.getBytes(StandardCharsets.UTF_8))
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.spring.blog.service;
+
+import com.spring.blog.search.SearchHit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class BlogSearchServiceTest {
+
+    @Autowired
+    BlogSearchService blogSearchService;
+
+    @Test
+    @DisplayName("색인한 글은 제목, 본문의 단어로 검색되고 삭제하면 더 이상 검색되지 않는다")
+    public void indexSearchRemoveTest(){
+        // given : DB에 없는 큰 글번호로 색인
+        long blogId = 987654321L;
+        blogSearchService.index(blogId, "스프링 검색 기능", "역색인으로 빠르게 찾아봅니다 springboot");
+
+        // when : 제목 단어와 본문 단어를 함께 검색
+        List<SearchHit> hits = blogSearchService.search("검색 역색인 SpringBoot", 10);
+
+        // then : 색인한 글이 검색되고, 삭제 후에는 검색되지 않음
+        assertEquals(blogId, hits.get(0).getBlogId());
+        blogSearchService.remove(blogId);
+        assertTrue(blogSearchService.search("검색 역색인 SpringBoot", 10).stream()
+                .noneMatch(hit -> hit.getBlogId() == blogId));
+    }
+}
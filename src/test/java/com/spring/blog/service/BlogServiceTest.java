@@ -1,6 +1,12 @@
 package com.spring.blog.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.spring.blog.dto.BlogDetailDTO;
+import com.spring.blog.dto.BlogDetailValidatorDTO;
+import com.spring.blog.dto.MultiGetResponseDTO;
+import com.spring.blog.dto.ReplyCountMismatchDTO;
 import com.spring.blog.entity.Blog;
+import com.spring.blog.repository.BlogRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -11,7 +17,10 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 public class BlogServiceTest {
@@ -19,6 +28,12 @@ public class BlogServiceTest {
     @Autowired
     BlogService blogService;
 
+    @Autowired
+    Cache<Long, Blog> blogCache;
+
+    @Autowired
+    BlogRepository blogRepository;
+
     @Test
     @Transactional // 이 테스트의 결과가 DB 커밋을 하지 않음
     public void findAllTest(){
@@ -47,6 +62,111 @@ public class BlogServiceTest {
         assertEquals(blogTitle, blog.getBlogTitle());
     }
 
+    @Test
+    @Transactional
+    public void findDetailByIdTest(){
+        //given : 댓글이 4개 달린 2번글과 댓글이 없는 1번글
+        long blogId = 2;
+        long noReplyBlogId = 1;
+
+        //when : 글과 댓글 첫 페이지를 함께 가져오기
+        BlogDetailDTO detail = blogService.findDetailById(blogId);
+        BlogDetailDTO noReplyDetail = blogService.findDetailById(noReplyBlogId);
+
+        //then : 2번글과 댓글 4개가 댓글번호 순서로 들어있고, 더 불러올 댓글이 없으므로 커서는 null
+        assertEquals("2번제목", detail.getBlog().getBlogTitle());
+        assertEquals(4, detail.getReplies().size());
+        assertEquals("1빠댓글", detail.getReplies().get(0).getReplyContent());
+        assertNull(detail.getNextReplyCursor());
+        assertNotNull(detail.getLoadedAt());
+        // 댓글이 없는 글은 빈 목록
+        assertEquals("1번제목", noReplyDetail.getBlog().getBlogTitle());
+        assertTrue(noReplyDetail.getReplies().isEmpty());
+        // 없는 글은 null
+        assertNull(blogService.findDetailById(0));
+    }
+
+    @Test
+    @Transactional
+    public void findDetailValidatorByIdTest(){
+        //given
+        long blogId = 2;
+
+        //when : 상세페이지 변경 여부 판단용 값 가져오기
+        BlogDetailValidatorDTO validator = blogService.findDetailValidatorById(blogId);
+
+        //then : 2번글의 댓글은 4개, 조회수는 DB에 반영된 조회수이고, 없는 글은 null
+        assertNotNull(validator.getUpdatedAt());
+        assertEquals(4, validator.getReplyCount());
+        assertEquals(blogService.findById(blogId).getBlogCount(), validator.getBlogCount());
+        assertNull(blogService.findDetailValidatorById(0));
+    }
+
+    @Test
+    @Transactional
+    public void reconcileReplyCountsTest(){
+        //given : 댓글이 4개인 2번글의 댓글 수를 일부러 틀리게 만든다
+        long blogId = 2;
+        blogRepository.increaseReplyCount(blogId, 10);
+
+        //when : 댓글 수 다시 맞추기
+        int repaired = blogService.reconcileReplyCounts();
+
+        //then : 2번글 하나만 고쳐지고 댓글 수는 다시 4개
+        assertEquals(1, repaired);
+        assertEquals(4, blogService.findSummariesByIds(List.of(blogId)).get(0).getReplyCount());
+    }
+
+    @Test
+    @Transactional
+    public void repairReplyCountSkipsChangedTest(){
+        //given : 2번글의 댓글 수를 틀리게 만들고, 재계산 대상으로 조회
+        long blogId = 2;
+        blogRepository.increaseReplyCount(blogId, 10);
+        ReplyCountMismatchDTO mismatch = blogRepository.findReplyCountMismatches(blogId - 1, blogId).get(0);
+        assertEquals(14, mismatch.getStoredCount());
+        assertEquals(4, mismatch.getActualCount());
+
+        //when : 조회한 뒤 그 사이에 댓글 수가 바뀌었다
+        blogRepository.increaseReplyCount(blogId, 1);
+
+        //then : 조회할 때 본 값과 다르므로 고치지 않고, 다음 재계산에서 고쳐진다
+        assertEquals(0, blogRepository.repairReplyCount(mismatch));
+        assertEquals(1, blogService.reconcileReplyCounts());
+        assertEquals(4, blogService.findSummariesByIds(List.of(blogId)).get(0).getReplyCount());
+    }
+
+    @Test
+    public void findByIdCacheTest(){
+        //given : 1번글을 한 번 조회해서 캐시에 담아두고, 현재 캐시 적중 횟수 저장
+        long blogId = 1;
+        Blog first = blogService.findById(blogId);
+        long hitCount = blogCache.stats().hitCount();
+
+        //when : 같은 글을 다시 조회
+        Blog second = blogService.findById(blogId);
+
+        //then : 캐시에서 가져왔으므로 적중 횟수가 늘어나고, 호출할 때마다 다른 복사본을 받는다
+        assertTrue(blogCache.stats().hitCount() > hitCount);
+        assertNotSame(first, second);
+        assertEquals(first.getBlogTitle(), second.getBlogTitle());
+    }
+
+    @Test
+    public void findByIdsTest(){
+        //given : 1번글은 캐시에 담아두고, 현재 캐시 적중 횟수 저장
+        blogService.findById(1);
+        long hitCount = blogCache.stats().hitCount();
+
+        //when : 3번, 없는 글번호, 1번, 중복된 3번 순서로 요청
+        MultiGetResponseDTO<Blog> result = blogService.findByIds(List.of(3L, 999999999L, 1L, 3L));
+
+        //then : 요청 순서대로 한 번씩 받고, 없는 글번호는 missing에 담기며, 1번글은 캐시에서 가져온다
+        assertEquals(List.of(3L, 1L), result.getFound().stream().map(Blog::getBlogId).toList());
+        assertEquals(List.of(999999999L), result.getMissing());
+        assertTrue(blogCache.stats().hitCount() > hitCount);
+    }
+
     @Test
     @Transactional
     //@Commit // 트랜잭션 적용된 테스트의 결과를 커밋해서 디비에 반영하도록 만듦
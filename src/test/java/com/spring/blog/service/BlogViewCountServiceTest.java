@@ -0,0 +1,114 @@
+package com.spring.blog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.repository.BlogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// 주기적인 반영(flush)이 다른 스레드에서도 돌기 때문에 새 글로 확인하는 테스트는 글을 커밋한다
+@SpringBootTest
+public class BlogViewCountServiceTest extends CommittedBlogTestSupport {
+
+    @Autowired
+    BlogViewCountService blogViewCountService;
+
+    @Autowired
+    BlogRepository blogRepository;
+
+    @Autowired
+    Cache<Long, Blog> blogCache;
+
+    @Test
+    @Transactional
+    @DisplayName("2번글을 3번 조회하면 반영대기 조회수는 3, flush 후에는 0이고 DB 조회수가 3 늘어난다")
+    public void increaseAndFlushTest(){
+        // given : 2번글의 현재 조회수 저장
+        long blogId = 2;
+        blogViewCountService.flush();
+        long before = blogService.findById(blogId).getBlogCount();
+
+        // when : 3번 조회
+        blogViewCountService.increase(blogId);
+        blogViewCountService.increase(blogId);
+        blogViewCountService.increase(blogId);
+
+        // then : 반영 전에는 메모리에만 3, 반영 후에는 DB에 3이 더해짐
+        assertEquals(3, blogViewCountService.getPendingCount(blogId));
+        blogViewCountService.flush();
+        assertEquals(0, blogViewCountService.getPendingCount(blogId));
+        assertEquals(before + 3, blogService.findById(blogId).getBlogCount());
+    }
+
+    @Test
+    @DisplayName("조회와 반영, 유휴 카운터 정리가 동시에 일어나도 조회수를 잃어버리지 않는다")
+    public void increaseWhileFlushTest() throws Exception {
+        // given : 반영한 조회수가 다른 테스트에 보이지 않도록 새 글을 만들어서 조회한다
+        long blogId = saveBlog("조회수 글");
+
+        // when : 4개의 스레드가 100번씩 조회하고 잠깐 쉬는 동안 계속 반영한다
+        // 반영할 때마다 유휴 카운터 정리도 같이 돌므로 쉬는 사이에 카운터가 제거되고 다시 만들어진다
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < 4; i++){
+            Thread thread = new Thread(() -> {
+                for(int j = 0; j < 20000; j++){
+                    blogViewCountService.increase(blogId);
+                    if(j % 100 == 0){
+                        try {
+                            Thread.sleep(1);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        while(threads.stream().anyMatch(Thread::isAlive)){
+            blogViewCountService.flush();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        blogViewCountService.flush();
+
+        // then
+        assertEquals(0, blogViewCountService.getPendingCount(blogId));
+        assertEquals(80000, blogService.findById(blogId).getBlogCount());
+    }
+
+    @Test
+    @DisplayName("조회수를 반영한 글은 캐시에서 지우지 않고 캐시에 담긴 조회수를 올린다")
+    public void flushUpdatesCacheTest(){
+        // given : 새 글을 만들어서 캐시에 담는다
+        long blogId = saveBlog("캐시 글");
+        blogService.findById(blogId);
+        assertNotNull(blogCache.getIfPresent(blogId));
+
+        // when
+        blogViewCountService.increase(blogId);
+        blogViewCountService.increase(blogId);
+        blogViewCountService.flush();
+
+        // then : 캐시에 남아있고 조회수는 DB와 같다
+        Blog cached = blogCache.getIfPresent(blogId);
+        assertNotNull(cached);
+        assertEquals(2, cached.getBlogCount());
+        assertEquals(2, blogRepository.findById(blogId).getBlogCount());
+    }
+
+    private long saveBlog(String blogTitle){
+        return saveBlog(Blog.builder().writer("조회수").blogTitle(blogTitle).blogContent("조회수 본문").build());
+    }
+}
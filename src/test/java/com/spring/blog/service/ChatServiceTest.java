@@ -0,0 +1,116 @@
+package com.spring.blog.service;
+
+import com.spring.blog.entity.Blog;
+import com.spring.blog.entity.ChatMessage;
+import com.spring.blog.repository.ChatMessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 채팅 메세지의 번호는 DB에 저장된 메세지에 이어서 매겨지므로 테스트마다 새 글을 만들고, 끝나면 글과 함께 메세지를 지운다
+// 메세지는 백그라운드에서 모아서 저장하므로 글을 커밋한다
+@SpringBootTest
+public class ChatServiceTest extends CommittedBlogTestSupport {
+
+    @Autowired
+    ChatService chatService;
+
+    @Autowired
+    ChatMessageRepository chatMessageRepository;
+
+    @Test
+    @DisplayName("채팅방에 메세지 2개를 보내면 번호가 1씩 늘어나고, 첫 메세지 이후의 최근 메세지는 두번째 메세지 하나다")
+    public void sendTest() {
+        // given : 새 글의 채팅방
+        long blogId = saveBlog("채팅할 글");
+
+        // when : 메세지 2개 보내기
+        ChatMessage first = chatService.send(blogId, "채팅러", "첫 메세지");
+        ChatMessage second = chatService.send(blogId, "채팅러", "두번째 메세지");
+        List<ChatMessage> history = chatService.findHistory(blogId, first.getSeq());
+
+        // then : 번호가 이어지고 첫 메세지 이후로는 두번째 메세지만 있다
+        assertEquals(1, first.getSeq());
+        assertEquals(first.getSeq() + 1, second.getSeq());
+        assertEquals(1, history.size());
+        assertEquals("두번째 메세지", history.get(0).getContent());
+    }
+
+    @Test
+    @DisplayName("보낸 메세지는 잠시 뒤 chat_message 테이블에 저장된다")
+    public void persistTest() throws InterruptedException {
+        // given : 새 글의 채팅방
+        long blogId = saveBlog("저장할 글");
+
+        // when : 메세지 보내기
+        ChatMessage message = chatService.send(blogId, "저장", "저장될 메세지");
+
+        // then : 저장은 주기적으로 모아서 하므로 잠시 기다린 뒤 가장 최근 메세지를 확인
+        List<ChatMessage> recent = List.of();
+        for(int i = 0; i < 50; i++){
+            recent = chatMessageRepository.findRecentByBlogId(blogId, 1);
+            if(!recent.isEmpty() && recent.get(0).getSeq() >= message.getSeq()){
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertEquals(message.getSeq(), recent.get(0).getSeq());
+        assertEquals("저장될 메세지", recent.get(0).getContent());
+    }
+
+    @Test
+    @DisplayName("번호가 겹쳐서 저장할 수 없는 메세지는 버리고, 같은 묶음의 나머지 메세지는 저장한다")
+    public void flushDropsInvalidMessageTest() {
+        // given : 채팅방이 열린 뒤 다른 곳에서 2번 메세지가 먼저 저장되었다
+        long blogId = saveBlog("겹치는 글");
+        chatService.send(blogId, "채팅러", "1번 메세지");
+        chatService.flush();
+        chatMessageRepository.insertAll(List.of(new ChatMessage(blogId, 2, "다른곳", "먼저 저장된 메세지", LocalDateTime.now())));
+        long droppedBefore = (long) chatService.getStats().get("droppedMessages");
+
+        // when : 2, 3, 4번 메세지를 보내고 저장
+        chatService.send(blogId, "채팅러", "2번 메세지");
+        chatService.send(blogId, "채팅러", "3번 메세지");
+        chatService.send(blogId, "채팅러", "4번 메세지");
+        chatService.flush();
+
+        // then : 겹친 2번 메세지만 버려지고 3, 4번은 저장된다
+        List<ChatMessage> recent = chatMessageRepository.findRecentByBlogId(blogId, 10);
+        assertEquals(4, recent.size());
+        assertEquals("4번 메세지", recent.get(0).getContent());
+        assertEquals("3번 메세지", recent.get(1).getContent());
+        assertEquals("먼저 저장된 메세지", recent.get(2).getContent());
+        assertEquals(droppedBefore + 1, (long) chatService.getStats().get("droppedMessages"));
+    }
+
+    @Test
+    @DisplayName("없는 글의 채팅방에는 보낼 수 없고, 빈 메세지나 너무 긴 메세지는 예외가 발생한다")
+    public void sendInvalidTest() {
+        // given : 없는 글번호 1001번, 501자 메세지
+        long blogId = 1001;
+        String tooLong = "가".repeat(501);
+
+        // when & then
+        assertNull(chatService.send(blogId, "채팅러", "메세지"));
+        assertNull(chatService.findHistory(blogId, 0));
+        assertThrows(IllegalArgumentException.class, () -> chatService.send(1, "채팅러", " "));
+        assertThrows(IllegalArgumentException.class, () -> chatService.send(1, "채팅러", tooLong));
+    }
+
+    private long saveBlog(String title){
+        return saveBlog(Blog.builder().writer("채팅").blogTitle(title).blogContent("채팅 테스트 본문").build());
+    }
+
+    // 아직 저장되지 않은 메세지까지 저장해둬야 글을 정리할 때 함께 지워진다(상위 클래스의 @AfterEach보다 먼저 실행된다)
+    @AfterEach
+    public void flushMessages(){
+        chatService.flush();
+    }
+}
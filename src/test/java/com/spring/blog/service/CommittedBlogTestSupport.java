@@ -0,0 +1,43 @@
+package com.spring.blog.service;
+
+import com.spring.blog.entity.Blog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 다른 스레드(스케줄러, 백그라운드 작업)가 읽거나 커밋된 뒤에 일어나는 동작을 확인하느라
+// 테스트 트랜잭션 없이 글을 커밋하는 테스트들이 함께 쓰는 부분. 그 밖의 테스트는 @Transactional로 되돌린다
+// 커밋한 글이 다른 테스트의 글 개수 확인에 보이지 않도록 다른 테스트와 동시에 실행하지 않고,
+// 테스트가 끝나면 만든 글을 삭제 표시한 뒤 바로 정리해서 댓글, 본문, HTML, 채팅 메세지까지 함께 지운다
+@Isolated
+public abstract class CommittedBlogTestSupport {
+
+    @Autowired
+    protected BlogService blogService;
+
+    @Autowired
+    BlogPurgeService blogPurgeService;
+
+    private final List<Long> createdBlogIds = new ArrayList<>();
+
+    // 글을 저장하고 테스트가 끝나면 지울 글로 기록한다
+    protected long saveBlog(Blog blog){
+        blogService.save(blog);
+        createdBlogIds.add(blog.getBlogId());
+        return blog.getBlogId();
+    }
+
+    // 저장소에 직접 넣는 등 saveBlog()를 거치지 않고 만든 글도 테스트가 끝나면 지운다
+    protected void deleteAfterTest(long blogId){
+        createdBlogIds.add(blogId);
+    }
+
+    @AfterEach
+    public void deleteCreatedBlogs(){
+        createdBlogIds.forEach(blogService::deleteById);
+        blogPurgeService.purge();
+    }
+}
@@ -0,0 +1,88 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.ReplyCreateRequestDTO;
+import com.spring.blog.entity.Blog;
+import com.spring.blog.repository.BlogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 방금 작성한 글, 댓글도 확인을 마친 번호로 보도록 settle-seconds를 음수로 준다
+// 삭제한 번호는 커밋된 뒤에 필터에서 빠지므로 테스트 트랜잭션 없이 커밋한다
+@SpringBootTest(properties = {"blog.id-filter.settle-seconds=-60", "blog.id-filter.refresh-interval-ms=3600000"})
+public class IdFilterServiceTest extends CommittedBlogTestSupport {
+
+    @Autowired
+    IdFilterService idFilterService;
+
+    @Autowired
+    ReplyService replyService;
+
+    @Autowired
+    BlogRepository blogRepository;
+
+    @Test
+    @DisplayName("삭제된 글번호, 댓글번호는 갱신 후 없는 번호로 걸러지고, 남아있는 번호와 새로 저장한 번호는 걸러지지 않는다")
+    public void mightContainTest(){
+        // given : 글 두 개와 두번째 글의 댓글 두 개를 저장한 뒤 첫번째 글과 첫번째 댓글을 삭제
+        Blog deletedBlog = Blog.builder().writer("필터").blogTitle("지울 글").blogContent("지울 본문").build();
+        Blog blog = Blog.builder().writer("필터").blogTitle("남길 글").blogContent("남길 본문").build();
+        saveBlog(deletedBlog);
+        saveBlog(blog);
+        long deletedReplyId = replyService.save(new ReplyCreateRequestDTO(blog.getBlogId(), "필터", "지울 댓글")).getReplyId();
+        long replyId = replyService.save(new ReplyCreateRequestDTO(blog.getBlogId(), "필터", "남길 댓글")).getReplyId();
+        blogService.deleteById(deletedBlog.getBlogId());
+        replyService.deleteByReplyId(deletedReplyId);
+
+        // when
+        idFilterService.refresh();
+
+        // then
+        assertFalse(idFilterService.mightContainBlog(deletedBlog.getBlogId()));
+        assertTrue(idFilterService.mightContainBlog(blog.getBlogId()));
+        assertFalse(idFilterService.mightContainReply(deletedReplyId));
+        assertTrue(idFilterService.mightContainReply(replyId));
+        // int 범위를 벗어난 번호는 항상 없는 번호
+        assertFalse(idFilterService.mightContainBlog(0));
+        assertFalse(idFilterService.mightContainReply(Integer.MAX_VALUE + 1L));
+
+        // when : 갱신 전에 새로 저장한 글
+        Blog newBlog = Blog.builder().writer("필터").blogTitle("새 글").blogContent("새 본문").build();
+        saveBlog(newBlog);
+
+        // then : 저장할 때 바로 필터에 들어간다
+        assertTrue(idFilterService.mightContainBlog(newBlog.getBlogId()));
+    }
+
+    @Test
+    @DisplayName("확인을 마친 번호보다 작은 번호로 직접 저장된 글은 걸러지다가, 처음 번호부터 다시 읽으면 걸러지지 않는다")
+    public void fullScanTest(){
+        // given : 900003번 글까지 확인을 마친 뒤, 필터를 거치지 않고 더 작은 900002번 글을 저장(다른 서버의 가져오기)
+        blogRepository.insertAll(List.of(importedBlog(900003)));
+        deleteAfterTest(900003);
+        idFilterService.refresh();
+        blogRepository.insertAll(List.of(importedBlog(900002)));
+        deleteAfterTest(900002);
+        idFilterService.refresh();
+        assertFalse(idFilterService.mightContainBlog(900002));
+
+        // when
+        idFilterService.requestFullScan();
+        idFilterService.refresh();
+
+        // then
+        assertTrue(idFilterService.mightContainBlog(900002));
+    }
+
+    private Blog importedBlog(long blogId){
+        LocalDateTime publishedAt = LocalDateTime.now().minusDays(1);
+        return Blog.builder().blogId(blogId).writer("필터").blogTitle("가져온 글").blogContent("가져온 본문")
+                .publishedAt(publishedAt).updatedAt(publishedAt).build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.ReplyCreateRequestDTO;
+import com.spring.blog.dto.ReplyResponseDTO;
+import com.spring.blog.exception.NotFoundBlogIdException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "blog.reply.group-commit.enabled=true")
+public class ReplyGroupCommitServiceTest {
+
+    @Autowired
+    ReplyGroupCommitService replyGroupCommitService;
+
+    @Autowired
+    ReplyService replyService;
+
+    @Autowired
+    BlogService blogService;
+
+    @Test
+    @DisplayName("3번글에 댓글 20개를 한꺼번에 넣으면 모두 서로 다른 댓글번호로 저장되고 글의 댓글 수도 20 늘어난다")
+    public void submitTest() throws Exception {
+        // given : 3번글의 현재 댓글 수
+        long blogId = 3;
+        long before = getReplyCount(blogId);
+        long committedBefore = replyGroupCommitService.getStats().getCommittedReplies();
+
+        // when : 기다리지 않고 20개를 넣은 뒤 모두 저장될 때까지 대기
+        List<CompletableFuture<ReplyResponseDTO>> futures = new ArrayList<>();
+        for(int i = 0; i < 20; i++){
+            futures.add(replyGroupCommitService.submit(new ReplyCreateRequestDTO(blogId, "묶음", i + "번째 묶음댓글")));
+        }
+        Set<Long> replyIds = new HashSet<>();
+        for(CompletableFuture<ReplyResponseDTO> future : futures){
+            ReplyResponseDTO reply = future.get(10, TimeUnit.SECONDS);
+            assertNotNull(reply.getPublishedAt());
+            replyIds.add(reply.getReplyId());
+        }
+
+        // then : 응답을 받은 댓글은 이미 커밋되어 있다
+        assertEquals(20, replyIds.size());
+        assertEquals("0번째 묶음댓글", futures.get(0).get().getReplyContent());
+        assertEquals(before + 20, getReplyCount(blogId));
+        assertEquals(committedBefore + 20, replyGroupCommitService.getStats().getCommittedReplies());
+        assertTrue(replyGroupCommitService.getStats().getMaxBatchSize() > 1);
+
+        // 다른 테스트에 영향이 없도록 정리
+        replyIds.forEach(replyService::deleteByReplyId);
+    }
+
+    @Test
+    @DisplayName("없는 글번호 댓글이 섞여 있으면 그 댓글만 실패하고 같은 묶음의 나머지 댓글은 저장된다")
+    public void submitFallbackTest() throws Exception {
+        // given : 정상 댓글과 없는 글번호 댓글
+        long blogId = 3;
+
+        // when
+        CompletableFuture<ReplyResponseDTO> ok = replyGroupCommitService.submit(
+                new ReplyCreateRequestDTO(blogId, "묶음", "정상 댓글"));
+        CompletableFuture<ReplyResponseDTO> missing = replyGroupCommitService.submit(
+                new ReplyCreateRequestDTO(999999, "묶음", "없는 글"));
+
+        // then
+        ReplyResponseDTO saved = ok.get(10, TimeUnit.SECONDS);
+        assertEquals("정상 댓글", replyService.findByReplyId(saved.getReplyId()).getReplyContent());
+        assertThrows(ExecutionException.class, () -> missing.get(10, TimeUnit.SECONDS));
+
+        replyService.deleteByReplyId(saved.getReplyId());
+    }
+
+    @Test
+    @DisplayName("확실히 없는 글번호의 댓글은 대기열에 넣지 않고 바로 실패한다")
+    public void submitUnknownBlogTest() {
+        // given : int 범위를 벗어나 필터가 항상 걸러내는 글번호
+        long blogId = Integer.MAX_VALUE + 1L;
+
+        // when
+        CompletableFuture<ReplyResponseDTO> missing = replyGroupCommitService.submit(
+                new ReplyCreateRequestDTO(blogId, "묶음", "없는 글"));
+
+        // then : 저장 스레드를 거치지 않고 이미 실패해 있다
+        assertTrue(missing.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, missing::get);
+        assertInstanceOf(NotFoundBlogIdException.class, e.getCause());
+    }
+
+    private long getReplyCount(long blogId){
+        return blogService.findSummariesByIds(List.of(blogId)).get(0).getReplyCount();
+    }
+}
@@ -0,0 +1,43 @@
+package com.spring.blog.service;
+
+import com.spring.blog.dto.ReplyEventDTO;
+import com.spring.blog.dto.ReplyResponseDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class ReplyPushServiceTest {
+
+    @Autowired
+    ReplyPushService replyPushService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Test
+    @DisplayName("1001번글을 구독한 뒤 트랜잭션 밖에서 댓글 이벤트를 발행하면 구독자가 하나 늘고 방송된 이벤트도 하나 늘어난다")
+    public void publishTest() throws InterruptedException {
+        // given : 1001번글 구독
+        long blogId = 1001;
+        int subscribers = replyPushService.getStats().getSubscribers();
+        long published = replyPushService.getStats().getPublishedEvents();
+        replyPushService.subscribe(blogId);
+
+        // when : 댓글 생성 이벤트 발행(트랜잭션 밖이므로 바로 방송된다)
+        ReplyResponseDTO reply = new ReplyResponseDTO(1, "푸시", "푸시댓글", null, null);
+        eventPublisher.publishEvent(new ReplyEventDTO(ReplyEventDTO.CREATED, blogId, 1, reply));
+
+        // then : 방송은 별도 스레드에서 하므로 잠시 기다린 뒤 확인
+        for(int i = 0; i < 50 && replyPushService.getStats().getPublishedEvents() == published; i++){
+            Thread.sleep(20);
+        }
+        assertEquals(subscribers + 1, replyPushService.getStats().getSubscribers());
+        assertTrue(replyPushService.getStats().getPublishedEvents() > published);
+    }
+}
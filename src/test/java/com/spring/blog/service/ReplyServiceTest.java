@@ -1,5 +1,7 @@
 package com.spring.blog.service;
 
+import com.spring.blog.dto.ReplyBatchResultDTO;
+import com.spring.blog.dto.ReplyChangesResponseDTO;
 import com.spring.blog.dto.ReplyCreateRequestDTO;
 import com.spring.blog.dto.ReplyResponseDTO;
 import com.spring.blog.dto.ReplyUpdateRequestDTO;
@@ -20,6 +22,10 @@ public class ReplyServiceTest {
     @Autowired
     ReplyService replyService;
 
+    // 글에 미리 세어둔 댓글 수 확인용
+    @Autowired
+    BlogService blogService;
+
     // findAllByBlogIdTest()는 RepositoryTest코드 참고해서 작성
     @Test
     @Transactional //testcode
@@ -83,6 +89,77 @@ public class ReplyServiceTest {
         assertEquals(replyContent, result.getReplyContent());
     }
 
+    @Test
+    @Transactional //testcode
+    @DisplayName("토큰을 받은 뒤 2번글의 3번 댓글을 삭제하고 새 댓글을 쓰면, 변경분에 삭제된 3번과 새 댓글번호가 들어있다")
+    public void findChangesByBlogIdTest(){
+        long blogId = 2;
+        long deletedReplyId = 3;
+        // 토큰 없이 요청하면 전체를 다시 불러오라는 응답과 함께 토큰을 받는다
+        ReplyChangesResponseDTO first = replyService.findChangesByBlogId(blogId, null);
+        assertTrue(first.isResync());
+
+        replyService.deleteByReplyId(deletedReplyId);
+        ReplyResponseDTO saved = replyService.save(new ReplyCreateRequestDTO(blogId, "동기화", "변경분확인"));
+
+        ReplyChangesResponseDTO changes = replyService.findChangesByBlogId(blogId, first.getNextToken());
+        assertFalse(changes.isResync());
+        assertTrue(changes.getDeleted().contains(deletedReplyId));
+        assertTrue(changes.getUpserted().stream()
+                .anyMatch(reply -> reply.getReplyId() == saved.getReplyId()));
+    }
+
+    @Test
+    @Transactional //testcode
+    @DisplayName("댓글 3개 일괄 등록시 없는 글번호와 너무 긴 댓글쓴이는 실패, 나머지 하나만 저장되어 2번글 댓글은 5개")
+    public void saveAllTest(){
+        // given : 정상 댓글, 없는 글번호 댓글, 댓글쓴이가 너무 긴 댓글
+        long blogId = 2;
+        List<ReplyCreateRequestDTO> replies = List.of(
+                new ReplyCreateRequestDTO(blogId, "일괄", "일괄등록"),
+                new ReplyCreateRequestDTO(999999, "일괄", "없는글"),
+                new ReplyCreateRequestDTO(blogId, "가".repeat(41), "긴댓글쓴이"));
+
+        // when : 일괄 등록
+        List<ReplyBatchResultDTO> results = replyService.saveAll(replies);
+
+        // then : 요청 순서대로 결과가 오고 첫 번째만 댓글번호를 받는다
+        assertEquals(3, results.size());
+        assertNotNull(results.get(0).getReplyId());
+        assertNull(results.get(1).getReplyId());
+        assertNotNull(results.get(1).getError());
+        assertNull(results.get(2).getReplyId());
+        assertEquals("일괄등록", replyService.findByReplyId(results.get(0).getReplyId()).getReplyContent());
+        assertEquals(5, replyService.findAllByBlogId(blogId).size());
+        assertEquals(5, getReplyCount(blogId));
+    }
+
+    @Test
+    @Transactional //testcode
+    @DisplayName("2번글에 댓글을 쓰면 댓글 수가 5, 3번 댓글을 두 번 삭제해도 댓글 수는 한 번만 줄어서 4")
+    public void replyCountTest(){
+        // given : 댓글이 4개인 2번글
+        long blogId = 2;
+        long replyId = 3;
+        assertEquals(4, getReplyCount(blogId));
+
+        // when : 댓글 하나를 쓰고, 3번 댓글을 두 번 삭제
+        replyService.save(new ReplyCreateRequestDTO(blogId, "댓글수", "댓글수확인"));
+        long afterSave = getReplyCount(blogId);
+        replyService.deleteByReplyId(replyId);
+        replyService.deleteByReplyId(replyId);
+
+        // then : 저장하면 하나 늘고, 이미 삭제된 댓글은 다시 줄이지 않는다
+        assertEquals(5, afterSave);
+        assertEquals(4, getReplyCount(blogId));
+        assertEquals(4, replyService.findAllByBlogId(blogId).size());
+    }
+
+    // 목록 화면에서 보여주는 댓글 수(blog.reply_count)
+    private long getReplyCount(long blogId){
+        return blogService.findSummariesByIds(List.of(blogId)).get(0).getReplyCount();
+    }
+
     @Test
     @Transactional //testcode
     @DisplayName("replyId 3번의 replyWriter, replyContent 변경, updatedAt과 publishedAt 변경 되었는지 확인")